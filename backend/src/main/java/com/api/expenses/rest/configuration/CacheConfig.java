@@ -0,0 +1,115 @@
+package com.api.expenses.rest.configuration;
+
+import com.api.expenses.rest.models.Currency;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.IncomeCategory;
+import com.api.expenses.rest.models.Tag;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * In-memory caches of the application.
+ * The caches record their hit and miss counts, which are published as cache metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Authenticated users by id, read by the JwtFilter on every request.
+     */
+    public static final String PRINCIPALS_CACHE = "principals";
+
+    /**
+     * Entities of the Hibernate second-level cache, each one is stored in the region named after its class.
+     * They are reference data or owned by a user, and they are read far more often than they are written.
+     */
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(
+            Currency.class, ExpenseCategory.class, IncomeCategory.class, Tag.class);
+
+    /**
+     * Name of the JCache manager of the second-level cache, it is part of the names of the statistics MBeans.
+     */
+    private static final URI HIBERNATE_CACHE_MANAGER_URI = URI.create("hibernate");
+
+    @Bean
+    CacheManager cacheManager(@Value("${application.cache.principals.max-size:10000}") long principalsMaxSize,
+                              @Value("${application.cache.principals.ttl:5m}") Duration principalsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRINCIPALS_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(principalsMaxSize)
+                .expireAfterWrite(principalsTtl)
+                .recordStats());
+        return cacheManager;
+    }
+
+    /**
+     * JCache manager of the Hibernate second-level and query caches, backed by Caffeine in the same process.
+     * Every region is bounded and registers its statistics as a JCache MBean.
+     * The update timestamps region tells Hibernate which cached query results are stale, so it must never
+     * lose entries and is not bounded.
+     */
+    @Bean
+    javax.cache.CacheManager hibernateCacheManager(
+            @Value("${application.cache.entities.max-size:10000}") long entitiesMaxSize,
+            @Value("${application.cache.entities.ttl:1h}") Duration entitiesTtl,
+            @Value("${application.cache.queries.max-size:10000}") long queriesMaxSize,
+            @Value("${application.cache.queries.ttl:1h}") Duration queriesTtl) {
+        javax.cache.CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(HIBERNATE_CACHE_MANAGER_URI, CacheConfig.class.getClassLoader());
+
+        for (Class<?> entity : CACHED_ENTITIES) {
+            createRegion(cacheManager, entity.getName(), regionConfiguration()
+                    .setMaximumSize(OptionalLong.of(entitiesMaxSize))
+                    .setExpireAfterWrite(OptionalLong.of(entitiesTtl.toNanos())));
+        }
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, regionConfiguration()
+                .setMaximumSize(OptionalLong.of(queriesMaxSize))
+                .setExpireAfterWrite(OptionalLong.of(queriesTtl.toNanos())));
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, regionConfiguration());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheCustomizer(javax.cache.CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+        };
+    }
+
+    /**
+     * The manager is shared by every application context of the JVM, a region created by another one is reused.
+     */
+    private static void createRegion(javax.cache.CacheManager cacheManager, String name,
+                                     CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(name) == null) {
+            cacheManager.createCache(name, configuration);
+        }
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration() {
+        return new CaffeineConfiguration<>()
+                .setStatisticsEnabled(true)
+                .setManagementEnabled(true);
+    }
+}
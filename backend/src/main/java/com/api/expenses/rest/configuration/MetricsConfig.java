@@ -0,0 +1,47 @@
+package com.api.expenses.rest.configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+import javax.cache.Cache;
+
+/**
+ * Metrics of the application, scraped from /actuator/prometheus.
+ * Spring Boot already times every endpoint (http.server.requests) and every repository method
+ * (spring.data.repository.invocations), and measures the connection pool (hikaricp.connections) and the principals
+ * cache. This adds the Hibernate session statistics and the regions of the second-level cache.
+ * The actuator is served on the management port, bound to localhost, where the scrape needs no token.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    /**
+     * Hibernate only collects the statistics published as hibernate.* metrics when they are enabled.
+     * Collecting them costs on every session, so they are off unless application.metrics.hibernate-statistics is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.metrics.hibernate-statistics", havingValue = "true")
+    HibernatePropertiesCustomizer hibernateStatisticsCustomizer() {
+        return properties -> properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    }
+
+    /**
+     * The regions of the second-level cache are not managed by Spring, they are bound here as cache.* metrics.
+     */
+    @Bean
+    MeterBinder hibernateCacheMetrics(javax.cache.CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                Cache<Object, Object> region = hibernateCacheManager.getCache(name);
+                JCacheMetrics.monitor(registry, region, "cacheManager", hibernateCacheManager.getURI().toString());
+            }
+        };
+    }
+}
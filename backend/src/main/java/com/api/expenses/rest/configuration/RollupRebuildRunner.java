@@ -0,0 +1,34 @@
+package com.api.expenses.rest.configuration;
+
+import com.api.expenses.rest.services.ExpenseRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the daily expense rollup of every user on startup, to repair it after expenses were written
+ * outside the application. It only runs when started with --application.rollup.rebuild-on-startup=true
+ */
+@Component
+@ConditionalOnProperty(name = "application.rollup.rebuild-on-startup", havingValue = "true")
+public class RollupRebuildRunner implements ApplicationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RollupRebuildRunner.class);
+
+    private final ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    public RollupRebuildRunner(ExpenseRollupService expenseRollupService) {
+        this.expenseRollupService = expenseRollupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int rows = expenseRollupService.rebuildAll();
+        LOG.info("Rebuilt the daily expense rollup with {} rows", rows);
+    }
+}
@@ -2,6 +2,8 @@ package com.api.expenses.rest.configuration;
 
 import com.api.expenses.rest.filters.JwtFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -50,6 +52,7 @@ public class SecurityConfig {
             "/auth/ping",
             "/auth/ping/not",
             "/v3/api-docs",
+            "/actuator/health",
     };
 
     @Bean
@@ -57,6 +60,8 @@ public class SecurityConfig {
         http.cors(Customizer.withDefaults()).csrf(csrf -> csrf.disable()) // Disable CSRF. to enable do Customizer.withDefaults()
                 .authorizeHttpRequests((authorizeHttpRequests) -> {
                     authorizeHttpRequests.requestMatchers(WHITE_LIST_URL).permitAll() // do not apply to the whitelist
+                            // only matches on the management port, which is bound to localhost
+                            .requestMatchers(EndpointRequest.to(PrometheusScrapeEndpoint.class)).permitAll()
                             .anyRequest().authenticated(); // apply to all other requests
                 })
                 .sessionManagement(session -> session
@@ -0,0 +1,28 @@
+package com.api.expenses.rest.configuration;
+
+import com.api.expenses.rest.utils.StatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Counts the SQL statements of each request, see StatementCountFilter.
+ */
+@Configuration
+public class StatementCountConfig {
+
+    @Bean
+    HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    /**
+     * Applied by Spring Boot to the application task executor.
+     */
+    @Bean
+    TaskDecorator statementCountTaskDecorator() {
+        return StatementCounter::propagate;
+    }
+}
@@ -0,0 +1,149 @@
+package com.api.expenses.rest.configuration;
+
+import com.api.expenses.rest.models.Currency;
+import com.api.expenses.rest.models.Role;
+import com.api.expenses.rest.models.dtos.CreateCurrencyDto;
+import com.api.expenses.rest.models.dtos.ImportResultDto;
+import com.api.expenses.rest.services.CurrencyService;
+import com.api.expenses.rest.services.DataImportService;
+import com.api.expenses.rest.services.UserService;
+import com.api.expenses.rest.services.generator.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates synthetic users with years of transactions, see SyntheticDataGenerator. It only runs with the
+ * generate-data profile, which does not start the web server, and the application stops once it is done:
+ * mvn spring-boot:run -Dspring-boot.run.profiles=generate-data -Dspring-boot.run.arguments="--application.generator.users=2"
+ * <p>
+ * By default the users are created in the configured datasource and their data is inserted in batches by the
+ * DataImportService. When an output file is given, the data of every user is written to it as NDJSON instead,
+ * ready for POST /import (gzipped when the file name ends with .gz), and nothing is written to the database.
+ */
+@Component
+@Profile(SyntheticDataRunner.PROFILE)
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    public static final String PROFILE = "generate-data";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticDataRunner.class);
+
+    private final UserService userService;
+    private final CurrencyService currencyService;
+    private final DataImportService dataImportService;
+    private final ObjectMapper objectMapper;
+
+    private final int users;
+    private final int years;
+    private final int transactions;
+    private final long seed;
+    private final String endDate;
+    private final String output;
+    private final String password;
+    private final String currencyCode;
+
+    public SyntheticDataRunner(UserService userService, CurrencyService currencyService,
+                               DataImportService dataImportService, ObjectMapper objectMapper,
+                               @Value("${application.generator.users:1}") int users,
+                               @Value("${application.generator.years:5}") int years,
+                               @Value("${application.generator.transactions:200000}") int transactions,
+                               @Value("${application.generator.seed:42}") long seed,
+                               @Value("${application.generator.end-date:2024-12-31}") String endDate,
+                               @Value("${application.generator.output:}") String output,
+                               @Value("${application.generator.password:123456}") String password,
+                               @Value("${application.generator.currency:USD}") String currencyCode) {
+        this.userService = userService;
+        this.currencyService = currencyService;
+        this.dataImportService = dataImportService;
+        this.objectMapper = objectMapper;
+        this.users = users;
+        this.years = years;
+        this.transactions = transactions;
+        this.seed = seed;
+        this.endDate = endDate;
+        this.output = output;
+        this.password = password;
+        this.currencyCode = currencyCode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        // The end date is part of the data, it is fixed so the same seed generates the same data on any day
+        LocalDate lastDay = LocalDate.parse(endDate);
+        LocalDate firstDay = lastDay.minusYears(years).plusDays(1);
+        Currency currency = output.isBlank() ? findOrCreateCurrency() : findCurrency();
+
+        for (int i = 0; i < users; i++) {
+            // Every user gets its own seed, so adding users does not change the first ones
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(new SyntheticDataGenerator.Settings(
+                    seed + i, firstDay, lastDay, transactions, currency));
+            long start = System.nanoTime();
+            if (output.isBlank()) {
+                insertUser(i, currency, generator);
+            } else {
+                writeUser(i, generator);
+            }
+            LOG.info("Generated user {} of {} in {} ms", i + 1, users, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void insertUser(int index, Currency currency, SyntheticDataGenerator generator) throws Exception {
+        String username = "synthetic-" + (seed + index);
+        String email = username + "@example.com";
+        if (!userService.userCanBeCreated(username, email)) {
+            LOG.warn("User {} already exists, it is not generated again", username);
+            return;
+        }
+
+        UUID userId = userService.createUser(username, password, email, currency.getId(), Role.USER);
+        ImportResultDto result = dataImportService.importRecords(userId, generator);
+        LOG.info("Inserted {} expenses and {} incomes for user {} ({})",
+                result.expenses(), result.incomes(), username, userId);
+    }
+
+    private void writeUser(int index, SyntheticDataGenerator generator) throws Exception {
+        Path file = Path.of(users == 1 ? output : output.replaceFirst("(\\.ndjson)?(\\.gz)?$", "-" + (index + 1) + "$0"));
+        int records = 0;
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+             OutputStream out = file.toString().endsWith(".gz") ? new GZIPOutputStream(fileOut) : fileOut;
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            for (ObjectNode record : generator) {
+                writer.write(record);
+                records++;
+            }
+        }
+        LOG.info("Wrote {} records to {}", records, file.toAbsolutePath());
+    }
+
+    private Currency findOrCreateCurrency() {
+        Currency currency = findCurrency();
+        return currency.getId() != 0 ? currency
+                : currencyService.createCurrency(new CreateCurrencyDto(currencyCode, currencyCode, currencyCode));
+    }
+
+    /**
+     * @return the currency with the code, or an unsaved one, the import matches it by code
+     */
+    private Currency findCurrency() {
+        return currencyService.getAllCurrencies().stream()
+                .filter(currency -> currencyCode.equals(currency.getCode()))
+                .findFirst()
+                .orElseGet(() -> new Currency(0, currencyCode, currencyCode, currencyCode));
+    }
+}
@@ -5,6 +5,7 @@ import com.api.expenses.rest.models.dtos.CreateUserDto;
 import com.api.expenses.rest.models.requestsModels.UserLoginRequest;
 import com.api.expenses.rest.models.requestsModels.UserSignupRequest;
 import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import com.api.expenses.rest.services.JwtService;
 import com.api.expenses.rest.services.UserService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -93,7 +94,7 @@ public class AuthenticationController {
 
     @GetMapping("/loggedIn")
     public ResponseEntity<String> loggedIn() {
-        User user =  (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        UserPrincipal user =  (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         if (user != null) {
             return ResponseEntity.ok().body("User is logged in");
         }
@@ -102,7 +103,7 @@ public class AuthenticationController {
 
     @PostMapping("/logout")
     public ResponseEntity<String> logout(HttpServletRequest request) {
-       User user =  (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+       UserPrincipal user =  (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
        if (user != null) {
            String cookie = "access_token=; Max-Age=0;";
@@ -1,58 +1,43 @@
 package com.api.expenses.rest.controllers;
 
-import com.api.expenses.rest.models.Currency;
-import com.api.expenses.rest.models.Expense;
-import com.api.expenses.rest.models.ExpenseCategory;
-import com.api.expenses.rest.models.Income;
-import com.api.expenses.rest.models.IncomeCategory;
-import com.api.expenses.rest.models.User;
-import com.api.expenses.rest.services.CurrencyService;
-import com.api.expenses.rest.services.ExpenseCategoryService;
-import com.api.expenses.rest.services.ExpenseService;
-import com.api.expenses.rest.services.IncomeCategoryService;
-import com.api.expenses.rest.services.IncomeService;
-import com.api.expenses.rest.services.UserService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.api.expenses.rest.controllers.utils.ControllersHelper;
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.models.dtos.ImportResultDto;
+import com.api.expenses.rest.services.DataExportService;
+import com.api.expenses.rest.services.DataImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
 
 @RestController
 @RequestMapping("/")
 public class BaseController {
 
-    private final UserService userService;
-    private final ExpenseService expenseService;
-    private final IncomeService incomeService;
-    private final ExpenseCategoryService expenseCategoryService;
-    private final IncomeCategoryService incomeCategoryService;
-    private final CurrencyService currencyService;
-    private final ObjectMapper objectMapper;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final DataExportService dataExportService;
+    private final DataImportService dataImportService;
 
     @Autowired
-    public BaseController(
-            UserService userService,
-            ExpenseService expenseService,
-            IncomeService incomeService,
-            ExpenseCategoryService expenseCategoryService,
-            IncomeCategoryService incomeCategoryService,
-            CurrencyService currencyService,
-            ObjectMapper objectMapper) {
-        this.userService = userService;
-        this.expenseService = expenseService;
-        this.incomeService = incomeService;
-        this.expenseCategoryService = expenseCategoryService;
-        this.incomeCategoryService = incomeCategoryService;
-        this.currencyService = currencyService;
-        this.objectMapper = objectMapper;
+    public BaseController(DataExportService dataExportService, DataImportService dataImportService) {
+        this.dataExportService = dataExportService;
+        this.dataImportService = dataImportService;
     }
 
     @GetMapping("/ping")
@@ -65,35 +50,50 @@ public class BaseController {
         return ResponseEntity.ok("You do not need to be authenticated to access this endpoint");
     }
 
+    /**
+     * Exports all the data of the authenticated user as NDJSON, streamed while it is read from the database.
+     *
+     * @param gzip whether to gzip the export
+     * @return the export as a file download
+     */
     @GetMapping("/export")
-    public ResponseEntity<String> exportAllData() throws JsonProcessingException {
-        // Fetch all data from services
-        List<User> users = userService.getAllUsers();
-        List<Expense> expenses = expenseService.getAllExpenses();
-        List<Income> incomes = incomeService.getAllIncomes();
-        List<ExpenseCategory> expenseCategories = expenseCategoryService.getAllCategories();
-        List<IncomeCategory> incomeCategories = incomeCategoryService.getAllCategories();
-        List<Currency> currencies = currencyService.getAllCurrencies();
-
-        // Create JSON object with all data
-        ObjectNode rootNode = objectMapper.createObjectNode();
-        rootNode.set("users", objectMapper.valueToTree(users));
-        rootNode.set("expenses", objectMapper.valueToTree(expenses));
-        rootNode.set("incomes", objectMapper.valueToTree(incomes));
-        rootNode.set("expenseCategories", objectMapper.valueToTree(expenseCategories));
-        rootNode.set("incomeCategories", objectMapper.valueToTree(incomeCategories));
-        rootNode.set("currencies", objectMapper.valueToTree(currencies));
-
-        String jsonData = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(rootNode);
+    public ResponseEntity<StreamingResponseBody> exportAllData(@RequestParam(defaultValue = "false") boolean gzip) {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
 
         // Set headers for file download
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setContentDispositionFormData("attachment", "expenses_data_export.json");
+        if (gzip) {
+            headers.setContentType(GZIP);
+            headers.setContentDispositionFormData("attachment", "expenses_data_export.ndjson.gz");
+        } else {
+            headers.setContentType(NDJSON);
+            headers.setContentDispositionFormData("attachment", "expenses_data_export.ndjson");
+        }
 
+        StreamingResponseBody body = outputStream -> dataExportService.exportUserData(userId, outputStream, gzip);
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(jsonData);
+                .body(body);
+    }
+
+    /**
+     * Imports a data export into the account of the authenticated user, reading it while it is uploaded.
+     *
+     * @param gzip whether the export is gzipped
+     * @return the number of records imported of every type
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDto> importData(HttpServletRequest request,
+                                                      @RequestParam(defaultValue = "false") boolean gzip)
+            throws IOException, TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
 
+        try {
+            InputStream inputStream = gzip ? new GZIPInputStream(request.getInputStream()) : request.getInputStream();
+            return ResponseEntity.ok(dataImportService.importUserData(userId, inputStream));
+        } catch (ZipException | EOFException e) {
+            // The body is not gzipped, or it is cut short
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_IMPORT);
+        }
     }
 }
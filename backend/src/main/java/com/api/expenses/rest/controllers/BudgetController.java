@@ -1,19 +1,32 @@
 package com.api.expenses.rest.controllers;
 
 import com.api.expenses.rest.controllers.utils.ControllersHelper;
-import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.exceptions.UserException;
+import com.api.expenses.rest.models.dtos.BudgetAlertDto;
 import com.api.expenses.rest.models.dtos.BudgetBurndownDto;
+import com.api.expenses.rest.models.dtos.BudgetForecastDto;
+import com.api.expenses.rest.models.dtos.CompactBudgetBurndownDto;
 import com.api.expenses.rest.models.dtos.UpdateBudgetDto;
+import com.api.expenses.rest.models.dtos.UpdateBudgetResultDto;
+import com.api.expenses.rest.services.BudgetAlertService;
 import com.api.expenses.rest.services.BudgetService;
 import com.api.expenses.rest.services.UserService;
+import com.api.expenses.rest.services.budget.MonthBurndown;
+import com.api.expenses.rest.services.budget.MonthBurndownRange;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,14 +36,18 @@ public class BudgetController {
 
     private final UserService userService;
     private final BudgetService budgetService;
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BudgetAlertService budgetAlertService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
     public BudgetController(UserService userService,
-                            BudgetService budgetService) {
+                            BudgetService budgetService,
+                            BudgetAlertService budgetAlertService,
+                            ObjectMapper objectMapper) { // the mapper of the application, as the other responses
         this.userService = userService;
         this.budgetService = budgetService;
+        this.budgetAlertService = budgetAlertService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping()
@@ -48,24 +65,13 @@ public class BudgetController {
      * route to create or modify the existing budget - It modifies multiple expense categories
      *
      * @param budgets - A Serialized array of budgets, each having a category id and a new budget
-     * @return
+     * @return the ids of the categories whose budget changed
      */
     @PostMapping("/modify")
-    public ResponseEntity<String> modifySetUp(@RequestBody List<UpdateBudgetDto> budgets) {
+    public ResponseEntity<UpdateBudgetResultDto> modifySetUp(@RequestBody List<UpdateBudgetDto> budgets) {
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
-//            List<ExpenseCategory> categoriesSentFromClient = objectMapper.readValue(listOfCategoriesIds,
-//                    objectMapper.getTypeFactory().constructCollectionType(List.class, ExpenseCategory.class));
-
-        List<ExpenseCategory> categoriesFromDb = userService.getUserExpenseCategories(userId);
-        for (UpdateBudgetDto budget : budgets) {
-            for (ExpenseCategory dbCategory : categoriesFromDb) {
-                if (budget.categoryId() == dbCategory.getId()) {
-                    dbCategory.setBudget(budget.newBudget());
-                }
-            }
-        }
-        userService.saveExpenseCategories(categoriesFromDb);
-        return ResponseEntity.noContent().build();
+
+        return ResponseEntity.ok(budgetService.updateBudgets(userId, budgets));
     }
 
     /**
@@ -95,4 +101,137 @@ public class BudgetController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Gets the budget burn-down with the day series as arrays, the first entry is the first day of the month.
+     */
+    @GetMapping("/burndown/compact")
+    public ResponseEntity<CompactBudgetBurndownDto> getCompactBudgetBurndown(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year) throws UserException, TransactionException {
+
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        YearMonth yearMonth = resolveMonth(month, year);
+        return ResponseEntity.ok(budgetService.getCompactBudgetBurndown(userId, yearMonth.getMonthValue(),
+                yearMonth.getYear()));
+    }
+
+    /**
+     * Gets the budget burn-down of every month in a range, with the day series as arrays.
+     * The range is validated and its daily totals are loaded before the response starts, then every month is
+     * computed and written to the response one after the other, as a JSON array.
+     *
+     * @param from the first month, formatted as YYYY-MM
+     * @param to the last month, included, formatted as YYYY-MM
+     * @return the burn-down of every month of the range, oldest first
+     */
+    @GetMapping("/burndown/range")
+    public ResponseEntity<StreamingResponseBody> getBudgetBurndownRange(@RequestParam String from,
+                                                                        @RequestParam String to)
+            throws UserException, TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        MonthBurndownRange burndowns = budgetService.getBudgetBurndownRange(userId, from, to);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                for (MonthBurndown burndown : burndowns) {
+                    // Flushed after every month, as the mapper flushes after each value it writes
+                    objectMapper.writeValue(generator, burndown.toCompactDto());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Get the end-of-month spending forecast for the current month or a specified month and year.
+     * The days up to today are actual spending, the rest of the month is projected from the run rate and the
+     * spending of the previous months.
+     *
+     * @param month the month (1-12), defaults to current month if not provided
+     * @param year  the year, defaults to current year if not provided
+     * @return the projected spending and overrun date of each category with a budget
+     */
+    @GetMapping("/forecast")
+    public ResponseEntity<BudgetForecastDto> getBudgetForecast(
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) Integer year) throws UserException, TransactionException {
+
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        YearMonth yearMonth = resolveMonth(month, year);
+        return ResponseEntity.ok(budgetService.getBudgetForecast(userId, yearMonth.getMonthValue(),
+                yearMonth.getYear()));
+    }
+
+    /**
+     * Gets the budget alerts sent after an alert, oldest first.
+     *
+     * @param after the id of the last alert received, 0 for the first poll
+     * @param limit the maximum number of alerts, at most 500
+     * @return the alerts
+     */
+    @GetMapping("/alerts")
+    public ResponseEntity<List<BudgetAlertDto>> getBudgetAlerts(
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        return ResponseEntity.ok(budgetAlertService.getAlerts(userId, after, limit));
+    }
+
+    /**
+     * Sets the budget alert thresholds of a category, the alerts of its current month are evaluated with them.
+     *
+     * @param categoryId the expense category
+     * @param thresholds the thresholds in percent of the budget, an empty array for the default ones
+     * @return the thresholds the category is alerted at, in ascending order
+     */
+    @PutMapping("/alerts/thresholds/{categoryId}")
+    public ResponseEntity<List<Integer>> setBudgetAlertThresholds(@PathVariable int categoryId,
+                                                                  @RequestBody List<Integer> thresholds)
+            throws TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        return ResponseEntity.ok(budgetAlertService.setThresholds(userId, categoryId, thresholds));
+    }
+
+    /**
+     * Marks the budget alerts as read, up to an alert.
+     *
+     * @param upTo the id of the last alert to mark, included
+     */
+    @PostMapping("/alerts/read")
+    public ResponseEntity<Void> markBudgetAlertsRead(@RequestParam int upTo) {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        budgetAlertService.markAlertsRead(userId, upTo);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * @param month the month (1-12), the current month if null
+     * @param year the year, the current year if null
+     * @return the requested month
+     * @throws TransactionException if the month is not between 1 and 12 or the year is out of range
+     */
+    private static YearMonth resolveMonth(Integer month, Integer year) throws TransactionException {
+        LocalDate now = LocalDate.now();
+        int monthValue = month != null ? month : now.getMonthValue();
+        int yearValue = year != null ? year : now.getYear();
+        if (monthValue < 1 || monthValue > 12) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+        try {
+            return YearMonth.of(yearValue, monthValue);
+        } catch (DateTimeException e) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+    }
 }
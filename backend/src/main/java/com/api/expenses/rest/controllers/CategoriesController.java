@@ -5,12 +5,14 @@ import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.models.ExpenseCategory;
 import com.api.expenses.rest.models.IncomeCategory;
 import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import com.api.expenses.rest.models.dtos.CreateExpenseCategoryDto;
 import com.api.expenses.rest.models.dtos.CreateIncomeCategoryDto;
 import com.api.expenses.rest.models.dtos.GetExpenseCategoryDto;
 import com.api.expenses.rest.models.dtos.GetIncomeCategoryDto;
 import com.api.expenses.rest.services.ExpenseCategoryService;
 import com.api.expenses.rest.services.IncomeCategoryService;
+import com.api.expenses.rest.services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -26,21 +28,24 @@ public class CategoriesController {
 
     private final ExpenseCategoryService expenseCategoryService;
     private final IncomeCategoryService incomeCategoryService;
+    private final UserService userService;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
     public CategoriesController(ExpenseCategoryService expenseCategoryService,
-                                IncomeCategoryService incomeCategoryService) {
+                                IncomeCategoryService incomeCategoryService,
+                                UserService userService) {
         this.expenseCategoryService = expenseCategoryService;
         this.incomeCategoryService = incomeCategoryService;
+        this.userService = userService;
     }
 
     @GetMapping("/expense/get/{categoryId}")
     public ResponseEntity<GetExpenseCategoryDto> getExpenseCategory(@PathVariable int categoryId) {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<UserPrincipal> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder();
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
+            UserPrincipal user = optionalUser.get();
             Optional<ExpenseCategory> category = expenseCategoryService.getCategoryById(categoryId);
             if (category.isPresent()) {
                 ExpenseCategory expenseCategory = category.get();
@@ -60,7 +65,8 @@ public class CategoriesController {
 
     @PutMapping("/expense/create")
     public ResponseEntity<String> saveExpenseCategory(@RequestBody CreateExpenseCategoryDto expenseCategory) {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<User> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder()
+                .flatMap(principal -> userService.getUserById(principal.id()));
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
             ExpenseCategory category = new ExpenseCategory(
@@ -76,9 +82,9 @@ public class CategoriesController {
 
     @DeleteMapping("/expense/delete/{categoryId}")
     public ResponseEntity<String> saveExpenseCategory(@PathVariable int categoryId) throws TransactionException {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<UserPrincipal> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder();
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
+            UserPrincipal user = optionalUser.get();
             expenseCategoryService.deleteCategory(categoryId);
             return ResponseEntity.noContent().build();
         }
@@ -87,9 +93,9 @@ public class CategoriesController {
 
     @GetMapping("/income/get/{categoryId}")
     public ResponseEntity<GetIncomeCategoryDto> getIncomeCategory(@PathVariable int categoryId) {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<UserPrincipal> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder();
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
+            UserPrincipal user = optionalUser.get();
             Optional<IncomeCategory> category = incomeCategoryService.getCategoryById(categoryId);
             if (category.isPresent()) {
                 IncomeCategory incomeCategory = category.get();
@@ -107,7 +113,8 @@ public class CategoriesController {
 
     @PutMapping("/income/create")
     public ResponseEntity<String> saveIncomeCategory(@RequestBody CreateIncomeCategoryDto incomeCategory) {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<User> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder()
+                .flatMap(principal -> userService.getUserById(principal.id()));
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
             IncomeCategory category = new IncomeCategory(
@@ -122,10 +129,10 @@ public class CategoriesController {
 
     @DeleteMapping("/income/delete/{categoryId}")
     public ResponseEntity<String> saveIncomeCategory(@PathVariable int categoryId) throws TransactionException {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<UserPrincipal> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder();
 
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
+            UserPrincipal user = optionalUser.get();
             incomeCategoryService.deleteCategory(categoryId);
             return ResponseEntity.noContent().build();
         }
@@ -135,10 +142,10 @@ public class CategoriesController {
 
     @GetMapping("/expense/all")
     public ResponseEntity<List<GetExpenseCategoryDto>> getAllExpenseCategories() {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<UserPrincipal> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder();
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            List<ExpenseCategory> categories = expenseCategoryService.getCategoriesForUser(user.getId());
+            UserPrincipal user = optionalUser.get();
+            List<ExpenseCategory> categories = expenseCategoryService.getCategoriesForUser(user.id());
             List<GetExpenseCategoryDto> dtos = categories.stream()
                     .map(category -> new GetExpenseCategoryDto(
                             category.getId(),
@@ -155,10 +162,10 @@ public class CategoriesController {
 
     @GetMapping("/income/all")
     public ResponseEntity<List<GetIncomeCategoryDto>> getAllIncomeCategories() {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        Optional<UserPrincipal> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder();
         if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            List<IncomeCategory> categories = incomeCategoryService.getCategoriesForUser(user.getId());
+            UserPrincipal user = optionalUser.get();
+            List<IncomeCategory> categories = incomeCategoryService.getCategoriesForUser(user.id());
             List<GetIncomeCategoryDto> dtos = categories.stream()
                     .map(category -> new GetIncomeCategoryDto(
                             category.getId(),
@@ -0,0 +1,46 @@
+package com.api.expenses.rest.controllers;
+
+import com.api.expenses.rest.controllers.utils.ControllersHelper;
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.models.dtos.DashboardDto;
+import com.api.expenses.rest.services.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * Controller for the home screen, it bundles the data of several endpoints in one response.
+ */
+@RestController
+@RequestMapping(value = "/dashboard", produces = MediaType.APPLICATION_JSON_VALUE)
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @Autowired
+    public DashboardController(DashboardService dashboardService) {
+        this.dashboardService = dashboardService;
+    }
+
+    /**
+     * Get the expenses, the totals, the categories with their budget, the budget burn-down and the tags
+     * of the current user for a month.
+     *
+     * @param month the month (1-12)
+     * @param year  the year
+     * @return a DashboardDto with every section of the home screen
+     */
+    @GetMapping("/{month}/{year}")
+    public ResponseEntity<DashboardDto> getDashboard(@PathVariable int month, @PathVariable int year)
+            throws TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        return ResponseEntity.ok(dashboardService.getDashboard(userId, month, year));
+    }
+}
@@ -4,13 +4,16 @@ import com.api.expenses.rest.controllers.utils.ControllersHelper;
 import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.exceptions.UserException;
 import com.api.expenses.rest.models.Expense;
-import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto;
 import com.api.expenses.rest.models.dtos.CategoryComparisonResponseDto;
+import com.api.expenses.rest.models.dtos.CategoryTrendDto;
 import com.api.expenses.rest.models.dtos.CreateExpenseDto;
 import com.api.expenses.rest.models.dtos.GetTotalSpentDto;
+import com.api.expenses.rest.models.dtos.RollupConsistencyDto;
+import com.api.expenses.rest.models.dtos.TransactionPageDto;
+import com.api.expenses.rest.services.ExpenseRollupService;
 import com.api.expenses.rest.services.ExpenseService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
@@ -26,55 +29,65 @@ import java.util.UUID;
 public class ExpensesController {
 
     private final ExpenseService expenseService;
-
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExpenseRollupService expenseRollupService;
 
     @Autowired
-    public ExpensesController(ExpenseService expenseService) {
+    public ExpensesController(ExpenseService expenseService, ExpenseRollupService expenseRollupService) {
         this.expenseService = expenseService;
+        this.expenseRollupService = expenseRollupService;
     }
 
     @PostMapping("/add")
-    public ResponseEntity<String> addExpense(@RequestBody CreateExpenseDto expense)
+    public ResponseEntity<Integer> addExpense(@RequestBody CreateExpenseDto expense)
             throws TransactionException { // Tested
-        User user = null;
-        user = ControllersHelper.getUserFromSecurityContextHolder()
+        UserPrincipal user = null;
+        user = ControllersHelper.getPrincipalFromSecurityContextHolder()
                 .orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        int expenseID = expenseService.saveExpense(expense, user.getId());
-        return ResponseEntity.ok().body(String.valueOf(expenseID));
+        int expenseID = expenseService.saveExpense(expense, user.id());
+        return ResponseEntity.ok(expenseID);
+
+    }
+
+    /**
+     * Adds many expenses at once, the invalid ones are skipped.
+     *
+     * @param expenses the expenses to add, at most 5000
+     * @return the id or the error of each expense, in the order of the request
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateResultDto> addExpenses(@RequestBody List<CreateExpenseDto> expenses)
+            throws TransactionException {
+        UUID userId = getUserId();
 
+        return ResponseEntity.ok(expenseService.saveExpenses(expenses, userId));
     }
 
     @GetMapping("/get/{id}")
-    public ResponseEntity<String> getExpenseById(@PathVariable int id)
-            throws JsonProcessingException, TransactionException {
+    public ResponseEntity<Expense> getExpenseById(@PathVariable int id) throws TransactionException {
         Expense expense = expenseService.getExpenseById(id)
                 .orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.EXPENSE_NOT_FOUND));
-        String expenseJson = objectMapper.writeValueAsString(expense);
-        return ResponseEntity.ok().body(expenseJson);
+        return ResponseEntity.ok(expense);
     }
 
     @GetMapping("/monthly/{month}/{year}")
-    public ResponseEntity<String> getExpensesForAMonth(@PathVariable int month, @PathVariable int year)
-            throws UserException, JsonProcessingException { // Tested
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    public ResponseEntity<List<Expense>> getExpensesForAMonth(@PathVariable int month, @PathVariable int year)
+            throws UserException { // Tested
+        UserPrincipal user = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-        List<Expense> expenses = expenseService.getExpensesForAMonthOfAUser(user.getId(), (month), (year));
-        String expensesJson = objectMapper.writeValueAsString(expenses);
-        return ResponseEntity.ok().body(expensesJson);
+        List<Expense> expenses = expenseService.getExpensesForAMonthOfAUser(user.id(), (month), (year));
+        return ResponseEntity.ok(expenses);
 
     }
 
     @GetMapping("/single-type/{month}/{year}") // Tested
-    public ResponseEntity<String> getExpensesOfATypeForAMonth(@PathVariable int month, @PathVariable int year,
-                                                              @RequestParam int categoryId)
-            throws TransactionException, JsonProcessingException {
+    public ResponseEntity<List<Expense>> getExpensesOfATypeForAMonth(@PathVariable int month, @PathVariable int year,
+                                                                     @RequestParam int categoryId)
+            throws TransactionException {
         UUID userId = getUserId();
 
         List<Expense> expenses = expenseService.getExpensesForAMonthOfAUserByCategory(userId, month, year, categoryId);
-        String expensesJson = objectMapper.writeValueAsString(expenses);
-        return ResponseEntity.ok().body(expensesJson);
+        return ResponseEntity.ok(expenses);
     }
 
     @GetMapping("/{month}/{year}/tag/{tagId}")
@@ -102,33 +115,30 @@ public class ExpensesController {
     }
 
     @GetMapping("/yearly/{year}") // Tested
-    public ResponseEntity<String> getExpensesForAYear(@PathVariable int year)
-            throws TransactionException, JsonProcessingException {
+    public ResponseEntity<List<Expense>> getExpensesForAYear(@PathVariable int year) throws TransactionException {
         UUID userId = getUserId();
 
         List<Expense> expenses = expenseService.getExpensesForAYearOfAUser(userId, (year));
-        String expensesJson = objectMapper.writeValueAsString(expenses);
-        return ResponseEntity.ok().body(expensesJson);
+        return ResponseEntity.ok(expenses);
     }
 
     @GetMapping("/single-type") // Tested
-    public ResponseEntity<String> getExpensesForAYearOfAType(@RequestParam int year, @RequestParam int categoryId)
-            throws JsonProcessingException, TransactionException {
+    public ResponseEntity<List<Expense>> getExpensesForAYearOfAType(@RequestParam int year,
+                                                                    @RequestParam int categoryId)
+            throws TransactionException {
         UUID userId = getUserId();
 
         List<Expense> expenses = expenseService.getExpensesForAYearOfAUserByCategory(userId, year, categoryId);
-        String expensesJson = objectMapper.writeValueAsString(expenses);
-        return ResponseEntity.ok().body(expensesJson);
+        return ResponseEntity.ok(expenses);
     }
 
     @GetMapping("/total-spent") // Tested
-    public ResponseEntity<String> getTotalSpentOnAYear(@RequestParam int year) throws TransactionException {
+    public ResponseEntity<GetTotalSpentDto> getTotalSpentOnAYear(@RequestParam int year) throws TransactionException {
         // Get total spent on a year
         UUID userId = getUserId();
 
         float totalSpent = expenseService.getTotalSpentForAYearOfAUser(userId, year);
-        String totalSpentJson = "{\"totalSpent\":" + totalSpent + "}";
-        return ResponseEntity.ok().body(totalSpentJson);
+        return ResponseEntity.ok(new GetTotalSpentDto(totalSpent));
     }
 
     @PostMapping("/modify")
@@ -139,26 +149,24 @@ public class ExpensesController {
     }
 
     @GetMapping("/total-spent/monthly") // Tested
-    public ResponseEntity<String> getTotalSpentOnAMonth(@RequestParam int month, @RequestParam int year)
+    public ResponseEntity<GetTotalSpentDto> getTotalSpentOnAMonth(@RequestParam int month, @RequestParam int year)
             throws TransactionException {
         // in the js implementation we used a query param type=all to denote that we want to get all the expenses
         // this is done now by getTotalSpentOnAMonthForACategory
         UUID userId = getUserId();
 
         float totalSpent = expenseService.getTotalSpentForAMonthOfAUser(userId, month, year);
-        String totalSpentJson = "{\"totalSpent\":" + totalSpent + "}";
-        return ResponseEntity.ok().body(totalSpentJson);
+        return ResponseEntity.ok(new GetTotalSpentDto(totalSpent));
     }
 
     @GetMapping("/total-spent/monthly/category") // Tested
-    public ResponseEntity<String> getTotalSpentOnAMonthForACategory(@RequestParam int month,
-                                                                    @RequestParam int year,
-                                                                    @RequestParam int category)
+    public ResponseEntity<GetTotalSpentDto> getTotalSpentOnAMonthForACategory(@RequestParam int month,
+                                                                              @RequestParam int year,
+                                                                              @RequestParam int category)
             throws TransactionException {
         UUID userId = getUserId();
         float totalSpent = expenseService.getTotalSpentForAMonthOfAUserByCategory(userId, month, year, category);
-        String totalSpentJson = "{\"totalSpent\":" + totalSpent + "}";
-        return ResponseEntity.ok().body(totalSpentJson);
+        return ResponseEntity.ok(new GetTotalSpentDto(totalSpent));
     }
 
     @DeleteMapping("/delete") // Tested
@@ -182,8 +190,8 @@ public class ExpensesController {
     }
 
     private UUID getUserId() {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return user.getId();
+        UserPrincipal user = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return user.id();
     }
 
     /**
@@ -219,4 +227,137 @@ public class ExpensesController {
         );
         return ResponseEntity.ok(comparisonData);
     }
+
+    /**
+     * Gets the spending of every category over consecutive periods, for multi-period trend charts.
+     *
+     * @param periodType The type of the periods ("month" or "year")
+     * @param periods    The number of periods, the last one included
+     * @param month      The month of the last period (required if periodType is "month")
+     * @param year       The year of the last period
+     * @return the amounts of every category, oldest period first
+     */
+    @GetMapping("/compare/trend")
+    public ResponseEntity<CategoryTrendDto> getCategoryTrend(
+            @RequestParam String periodType,
+            @RequestParam int periods,
+            @RequestParam(required = false) Integer month,
+            @RequestParam int year) throws TransactionException {
+
+        UUID userId = getUserId();
+
+        return ResponseEntity.ok(expenseService.getCategoryTrend(userId, periodType, periods, month, year));
+    }
+
+    /**
+     * Checks the daily expense rollup of the current user against the expenses.
+     *
+     * @return the consistency report, listing the mismatching rows
+     */
+    @GetMapping("/rollup/check")
+    public ResponseEntity<RollupConsistencyDto> checkRollup() {
+        UUID userId = getUserId();
+        return ResponseEntity.ok(expenseRollupService.checkConsistency(userId));
+    }
+
+    /**
+     * Rebuilds the daily expense rollup of the current user from the expenses.
+     *
+     * @return the consistency report after the rebuild
+     */
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<RollupConsistencyDto> rebuildRollup() {
+        UUID userId = getUserId();
+        expenseRollupService.rebuildForUser(userId);
+        return ResponseEntity.ok(expenseRollupService.checkConsistency(userId));
+    }
+
+    /**
+     * Gets a page of the expenses of a month, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of expenses
+     */
+    @GetMapping("/page/monthly/{month}/{year}")
+    public ResponseEntity<TransactionPageDto<Expense>> getExpensesPageForAMonth(
+            @PathVariable int month,
+            @PathVariable int year,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = getUserId();
+        return ResponseEntity.ok(expenseService.getExpensesPageForAMonthOfAUser(userId, month, year, cursor, limit));
+    }
+
+    /**
+     * Gets a page of the expenses of a year, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of expenses
+     */
+    @GetMapping("/page/yearly/{year}")
+    public ResponseEntity<TransactionPageDto<Expense>> getExpensesPageForAYear(
+            @PathVariable int year,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = getUserId();
+        return ResponseEntity.ok(expenseService.getExpensesPageForAYearOfAUser(userId, year, cursor, limit));
+    }
+
+    /**
+     * Gets a page of the expenses of a category in a month, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of expenses
+     */
+    @GetMapping("/page/single-type/{month}/{year}")
+    public ResponseEntity<TransactionPageDto<Expense>> getExpensesPageOfATypeForAMonth(
+            @PathVariable int month,
+            @PathVariable int year,
+            @RequestParam int categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = getUserId();
+        return ResponseEntity.ok(expenseService.getExpensesPageForAMonthOfAUserByCategory(
+                userId, month, year, categoryId, cursor, limit));
+    }
+
+    /**
+     * Gets a page of the expenses of a category in a year, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of expenses
+     */
+    @GetMapping("/page/single-type")
+    public ResponseEntity<TransactionPageDto<Expense>> getExpensesPageOfATypeForAYear(
+            @RequestParam int year,
+            @RequestParam int categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = getUserId();
+        return ResponseEntity.ok(expenseService.getExpensesPageForAYearOfAUserByCategory(
+                userId, year, categoryId, cursor, limit));
+    }
+
+    /**
+     * Gets a page of the expenses of a tag in a month, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of expenses
+     */
+    @GetMapping("/page/{month}/{year}/tag/{tagId}")
+    public ResponseEntity<TransactionPageDto<Expense>> getExpensesPageOfATagForAMonth(
+            @PathVariable int month,
+            @PathVariable int year,
+            @PathVariable int tagId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = getUserId();
+        return ResponseEntity.ok(expenseService.getExpensesPageForAMonthOfAUserByTag(
+                userId, month, year, tagId, cursor, limit));
+    }
 }
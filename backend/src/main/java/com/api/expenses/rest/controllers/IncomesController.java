@@ -3,18 +3,21 @@ package com.api.expenses.rest.controllers;
 import com.api.expenses.rest.controllers.utils.ControllersHelper;
 import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.models.Income;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto;
 import com.api.expenses.rest.models.dtos.CreateIncomeDto;
+import com.api.expenses.rest.models.dtos.CreateIncomeResponseDto;
 import com.api.expenses.rest.models.dtos.GetIncomeDto;
+import com.api.expenses.rest.models.dtos.GetMonthlyTotalsDto;
+import com.api.expenses.rest.models.dtos.GetTotalEarnedDto;
+import com.api.expenses.rest.models.dtos.TransactionPageDto;
 import com.api.expenses.rest.services.IncomeService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -24,23 +27,33 @@ import java.util.UUID;
 @RequestMapping("/incomes")
 public class IncomesController {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final IncomeService incomeService;
 
     @Autowired
     public IncomesController(@Lazy IncomeService incomeService) {
-        objectMapper.registerModule(new Jdk8Module());
         this.incomeService = incomeService;
     }
 
 
     @PostMapping("/add")
-    public ResponseEntity<String> addIncome(@RequestBody CreateIncomeDto income) throws TransactionException {
+    public ResponseEntity<CreateIncomeResponseDto> addIncome(@RequestBody CreateIncomeDto income) throws TransactionException {
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
 
         int incomeId = incomeService.saveIncome(income, userId);
-        String incomeIdJson = String.format("{\"incomeId\": %d}", incomeId);
-        return ResponseEntity.ok(incomeIdJson);
+        return ResponseEntity.ok(new CreateIncomeResponseDto(incomeId));
+    }
+
+    /**
+     * Adds many incomes at once, the invalid ones are skipped.
+     *
+     * @param incomes the incomes to add, at most 5000
+     * @return the id or the error of each income, in the order of the request
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateResultDto> addIncomes(@RequestBody List<CreateIncomeDto> incomes) throws TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        return ResponseEntity.ok(incomeService.saveIncomes(incomes, userId));
     }
 
     @DeleteMapping("/delete/{id}")
@@ -92,78 +105,94 @@ public class IncomesController {
     }
 
     @GetMapping("/total-earned/year")
-    public ResponseEntity<String> getTotalEarnedForAYear(@RequestParam int year) {
+    public ResponseEntity<GetTotalEarnedDto> getTotalEarnedForAYear(@RequestParam int year) {
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
         float total = incomeService.getTotalEarnedForAYearForAUser(userId, year);
-        String response = String.format("{\"total\": %.2f}", total);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+        return ResponseEntity.ok(new GetTotalEarnedDto(toTwoDecimals(total)));
 
     }
 
     @GetMapping("/total-earned/month")
-    public ResponseEntity<String> getTotalEarnedInAMonth(@RequestParam int month, @RequestParam int year) {
+    public ResponseEntity<GetTotalEarnedDto> getTotalEarnedInAMonth(@RequestParam int month, @RequestParam int year) {
 
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
         float total = incomeService.getTotalEarnedForAMonthForAUser(userId, month, year);
-        String response = String.format("{\"total\": %.2f}", total);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+        return ResponseEntity.ok(new GetTotalEarnedDto(toTwoDecimals(total)));
 
     }
 
     @GetMapping("/earned/year/monthly")
-    public ResponseEntity<String> getTotalEarnedInAYearInAMonthlyBasis(@RequestParam int year)
-            throws JsonProcessingException {
+    public ResponseEntity<GetMonthlyTotalsDto> getTotalEarnedInAYearInAMonthlyBasis(@RequestParam int year) {
 
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
         List<Float> totals = incomeService.getTotalEarnedInAYearInAMonthlyBasis(userId, year);
         // write each float as string with maximum 2 decimals
         List<String> totalsFormatted = new ArrayList<>();
         for (float total : totals) {
-            totalsFormatted.add(String.format("%.2f", total));
+            totalsFormatted.add(toTwoDecimals(total).toPlainString());
         }
-        String totalsJson = objectMapper.writeValueAsString(totalsFormatted);
-        String response = String.format("{\"totals\": %s}", totalsJson);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(response);
+        return ResponseEntity.ok(new GetMonthlyTotalsDto(totalsFormatted));
     }
 
     @GetMapping("/monthly/{month}/{year}")
-    public ResponseEntity<String> getIncomesForAMonth(@PathVariable int month, @PathVariable int year)
-            throws JsonProcessingException {
+    public ResponseEntity<List<GetIncomeDto>> getIncomesForAMonth(@PathVariable int month, @PathVariable int year) {
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
 
         List<Income> incomes = incomeService.getIncomesForAMonthOfAUser(userId, month, year);
-        List<GetIncomeDto> incomeDtos = new ArrayList<>();
-
-        for (Income income : incomes) {
-            GetIncomeDto incomeDto = new GetIncomeDto(
-                    income.getId(),
-                    income.getUserId(),
-                    income.getAmount(),
-                    income.getCurrencyId(),
-                    income.getDate(),
-                    income.getDescription(),
-                    income.getMonth(),
-                    income.getYear(),
-                    income.getWeek(),
-                    income.getLastUpdate(),
-                    income.getCategoryId(),
-                    income.getTagId() != null ? Optional.of(income.getTagId()) : Optional.empty()
-            );
-            incomeDtos.add(incomeDto);
-        }
-
-        String incomesJson = objectMapper.writeValueAsString(incomeDtos);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(incomesJson);
+        return ResponseEntity.ok(toIncomeDtos(incomes));
     }
 
     @GetMapping("/yearly/{year}")
-    public ResponseEntity<String> getIncomesForAYear(@PathVariable int year) throws JsonProcessingException {
+    public ResponseEntity<List<GetIncomeDto>> getIncomesForAYear(@PathVariable int year) {
         UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
         List<Income> incomes = incomeService.getIncomesForAYearOfAUser(userId, year);
-        List<GetIncomeDto> incomeDtos = new ArrayList<>();
+        return ResponseEntity.ok(toIncomeDtos(incomes));
+    }
 
+    /**
+     * Gets a page of the incomes of a month, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of incomes
+     */
+    @GetMapping("/page/monthly/{month}/{year}")
+    public ResponseEntity<TransactionPageDto<GetIncomeDto>> getIncomesPageForAMonth(
+            @PathVariable int month,
+            @PathVariable int year,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+        TransactionPageDto<Income> page = incomeService.getIncomesPageForAMonthOfAUser(userId, month, year, cursor, limit);
+        return ResponseEntity.ok(toIncomeDtoPage(page));
+    }
+
+    /**
+     * Gets a page of the incomes of a year, newest first.
+     *
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return the page of incomes
+     */
+    @GetMapping("/page/yearly/{year}")
+    public ResponseEntity<TransactionPageDto<GetIncomeDto>> getIncomesPageForAYear(
+            @PathVariable int year,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) throws TransactionException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+        TransactionPageDto<Income> page = incomeService.getIncomesPageForAYearOfAUser(userId, year, cursor, limit);
+        return ResponseEntity.ok(toIncomeDtoPage(page));
+    }
+
+    private static TransactionPageDto<GetIncomeDto> toIncomeDtoPage(TransactionPageDto<Income> page) {
+        return new TransactionPageDto<>(toIncomeDtos(page.items()), page.nextCursor(), page.hasMore());
+    }
+
+    private static List<GetIncomeDto> toIncomeDtos(List<Income> incomes) {
+        List<GetIncomeDto> incomeDtos = new ArrayList<>(incomes.size());
         for (Income income : incomes) {
-            GetIncomeDto incomeDto = new GetIncomeDto(
+            incomeDtos.add(new GetIncomeDto(
                     income.getId(),
                     income.getUserId(),
                     income.getAmount(),
@@ -176,11 +205,16 @@ public class IncomesController {
                     income.getLastUpdate(),
                     income.getCategoryId(),
                     income.getTagId() != null ? Optional.of(income.getTagId()) : Optional.empty()
-            );
-            incomeDtos.add(incomeDto);
+            ));
         }
+        return incomeDtos;
+    }
 
-        String incomesJson = objectMapper.writeValueAsString(incomeDtos);
-        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(incomesJson);
+    /**
+     * Rounds a total to 2 decimals, as the totals were formatted before.
+     * The float is converted through its decimal representation, so 100.32f is 100.32 and not 100.31999...
+     */
+    private static BigDecimal toTwoDecimals(float total) {
+        return new BigDecimal(Float.toString(total)).setScale(2, RoundingMode.HALF_UP);
     }
 }
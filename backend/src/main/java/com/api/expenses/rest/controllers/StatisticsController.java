@@ -3,6 +3,7 @@ package com.api.expenses.rest.controllers;
 import com.api.expenses.rest.controllers.utils.ControllersHelper;
 import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.exceptions.UserException;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto;
 import com.api.expenses.rest.models.dtos.StatisticalSummaryDto;
 import com.api.expenses.rest.services.StatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.UUID;
@@ -40,4 +42,19 @@ public class StatisticsController {
         StatisticalSummaryDto summary = statisticsService.getStatisticalSummary(userId);
         return ResponseEntity.ok(summary);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the budget streaks of the current user, overall and per category.
+     *
+     * @param days the number of days of the window, today included, 365 by default and at most three years
+     * @return a BudgetStreakReportDto with the longest and current streaks
+     */
+    @GetMapping("/budget-streak")
+    public ResponseEntity<BudgetStreakReportDto> getBudgetStreakReport(@RequestParam(defaultValue = "365") int days)
+            throws TransactionException, UserException {
+        UUID userId = ControllersHelper.getUserIdFromSecurityContextHolder();
+
+        BudgetStreakReportDto report = statisticsService.getBudgetStreakReport(userId, days);
+        return ResponseEntity.ok(report);
+    }
+}
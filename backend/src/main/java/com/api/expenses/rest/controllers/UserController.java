@@ -3,23 +3,20 @@ package com.api.expenses.rest.controllers;
 import com.api.expenses.rest.controllers.utils.ControllersHelper;
 import com.api.expenses.rest.models.Currency;
 import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import com.api.expenses.rest.models.dtos.CreateUserDto;
 import com.api.expenses.rest.models.dtos.GetCurrencyDto;
 import com.api.expenses.rest.models.dtos.GetUserDto;
 import com.api.expenses.rest.models.dtos.UpdateUserDto;
 import com.api.expenses.rest.models.requestsModels.UserSignupRequest;
 import com.api.expenses.rest.services.UserService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.servlet.function.EntityResponse;
 
-import javax.swing.text.html.Option;
 import java.io.Serializable;
 import java.util.Optional;
 
@@ -30,17 +27,17 @@ public class UserController implements Serializable {
     Logger LOG = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
-    private final ObjectMapper objectMapper;
 
     public UserController(@Lazy UserService userService) {
 
         this.userService = userService;
-        this.objectMapper = new ObjectMapper();
     }
 
     @PostMapping(value = "/update/{username}", produces = {"application/json", "text/plain"})
     public ResponseEntity<String> update(@RequestBody UpdateUserDto userdata, @PathVariable String username) {
-        Optional<User> optionalUser = ControllersHelper.getUserFromSecurityContextHolder();
+        // The principal is shared between requests, the user is loaded to be modified
+        Optional<User> optionalUser = ControllersHelper.getPrincipalFromSecurityContextHolder()
+                .flatMap(principal -> userService.getUserById(principal.id()));
         if (optionalUser.isEmpty()) {
             return ResponseEntity.badRequest().body("User not found");
         }
@@ -68,8 +65,8 @@ public class UserController implements Serializable {
         }
         User user = fetchedUser.get();
 
-        User userMakingRequest = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (!userMakingRequest.getUsername().equals(user.getUsername())) {
+        UserPrincipal userMakingRequest = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!userMakingRequest.username().equals(user.getUsername())) {
             return ResponseEntity.badRequest().build();
         }
 
@@ -97,7 +94,12 @@ public class UserController implements Serializable {
     @GetMapping(value = "/data", produces = {"application/json", "text/plain"})
     public ResponseEntity<GetUserDto> getUserDataFromJwtToken() {
 
-        User userMakingRequest = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        UserPrincipal principal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Optional<User> fetchedUser = userService.getUserById(principal.id());
+        if (fetchedUser.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        User userMakingRequest = fetchedUser.get();
 
         //Currency currency = userMakingRequest.getCurrency();
 
@@ -129,8 +131,8 @@ public class UserController implements Serializable {
             return ResponseEntity.badRequest().body("User not found");
         }
         User user = fetchedUser.get();
-        User userMakingRequest = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (!userMakingRequest.getUsername().equals(user.getUsername())) {
+        UserPrincipal userMakingRequest = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (!userMakingRequest.username().equals(user.getUsername())) {
             return ResponseEntity.badRequest().body("You are not allowed to delete this user");
         }
         userService.deleteUser(user);
@@ -1,7 +1,7 @@
 package com.api.expenses.rest.controllers.utils;
 
 import com.api.expenses.rest.exceptions.TransactionException;
-import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -10,16 +10,16 @@ import java.util.UUID;
 
 public class ControllersHelper {
 
-    public static Optional<User> getUserFromSecurityContextHolder() {
+    public static Optional<UserPrincipal> getPrincipalFromSecurityContextHolder() {
       Object object =  SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (object instanceof User) {
-            return Optional.of((User) object);
+        if (object instanceof UserPrincipal) {
+            return Optional.of((UserPrincipal) object);
         } else {
             return Optional.empty();
         }
     }
 
     public static UUID getUserIdFromSecurityContextHolder() {
-        return getUserFromSecurityContextHolder().map(User::getId).orElse(null);
+        return getPrincipalFromSecurityContextHolder().map(UserPrincipal::id).orElse(null);
     }
 }
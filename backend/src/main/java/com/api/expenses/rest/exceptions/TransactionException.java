@@ -7,6 +7,14 @@ public class TransactionException extends Exception {
         CURRENCY_NOT_FOUND("Currency not found in the database for the transaction"),
         NEGATIVE_AMOUNT("Amount cannot be negative"),
         INVALID_AMOUNT("Amount is invalid"),
+        INVALID_PERIOD("The requested period is invalid"),
+        INVALID_CURSOR("The pagination cursor is invalid"),
+        INVALID_PAGE_SIZE("The page size must be at least 1"),
+        INVALID_THRESHOLDS("The alert thresholds must be at most 10 percentages between 1 and 1000"),
+        MISSING_DATE("The date of the transaction is required"),
+        MISSING_TRANSACTION("The transaction is missing"),
+        TOO_MANY_TRANSACTIONS("Too many transactions in a single request"),
+        INVALID_IMPORT("The import file is not a valid export"),
         INCOME_NOT_FOUND("Income not found in the database"),
 
         UNAUTHORIZED("User is trying to modify an expense that does not belong to him"),
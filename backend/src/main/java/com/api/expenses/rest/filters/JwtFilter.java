@@ -1,6 +1,6 @@
 package com.api.expenses.rest.filters;
 
-import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import com.api.expenses.rest.services.JwtService;
 import com.api.expenses.rest.services.UserService;
 import jakarta.servlet.FilterChain;
@@ -16,7 +16,6 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.swing.text.html.Option;
 import java.io.IOException;
 import java.util.Optional;
 
@@ -52,16 +51,17 @@ public class JwtFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                if (jwtService.validateToken(token)) {
-                    Optional<User> user = userService.getUserById(jwtService.extractUserId(token));
+                Optional<JwtService.VerifiedToken> verifiedToken = jwtService.verifyToken(token);
+                if (verifiedToken.isPresent()) {
+                    Optional<UserPrincipal> user = userService.getPrincipalById(verifiedToken.get().userId());
                     if (!user.isEmpty()) {
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                user.get(), user.get().getId(), null ); // no authories i.e., roles
+                                user.get(), user.get().id(), user.get().authorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
                     } else {
+                        // the request continues unauthenticated and is rejected by the security filter chain
                         LOG.debug("User sent a valid token but the user was not found in the database");
-                        filterChain.doFilter(request, response);
                     }
 
                 }
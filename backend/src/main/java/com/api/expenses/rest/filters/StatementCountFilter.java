@@ -0,0 +1,102 @@
+package com.api.expenses.rest.filters;
+
+import com.api.expenses.rest.utils.StatementCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements issued while handling each request, the JwtFilter included.
+ * Requests above the threshold are logged, and the count is stored in the COUNT_ATTRIBUTE request attribute.
+ * With the debug profile the count is also sent in the X-Statement-Count header. The header is written when the
+ * body starts, so statements issued while the body is written are only in the log and in the attribute.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_ATTRIBUTE = StatementCountFilter.class.getName() + ".count";
+    public static final String COUNT_HEADER = "X-Statement-Count";
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatementCountFilter.class);
+
+    private final int warnThreshold;
+    private final boolean countHeader;
+
+    public StatementCountFilter(@Value("${application.statements.warn-threshold:20}") int warnThreshold,
+                                Environment environment) {
+        this.warnThreshold = warnThreshold;
+        this.countHeader = environment.matchesProfiles("debug");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AtomicInteger count = StatementCounter.start();
+        try {
+            filterChain.doFilter(request, countHeader ? new CountHeaderResponse(response, count) : response);
+        } finally {
+            StatementCounter.stop();
+            int statements = count.get();
+            request.setAttribute(COUNT_ATTRIBUTE, statements);
+            if (countHeader && !response.isCommitted()) {
+                response.setHeader(COUNT_HEADER, String.valueOf(statements));
+            }
+            if (statements > warnThreshold) {
+                LOG.warn("{} {} issued {} SQL statements", request.getMethod(), request.getRequestURI(), statements);
+            }
+        }
+    }
+
+    /**
+     * Sets the count header right before the body, once the response is committed it can no longer be added.
+     */
+    private static class CountHeaderResponse extends HttpServletResponseWrapper {
+
+        private final AtomicInteger count;
+
+        CountHeaderResponse(HttpServletResponse response, AtomicInteger count) {
+            super(response);
+            this.count = count;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCountHeader();
+            super.flushBuffer();
+        }
+
+        private void setCountHeader() {
+            if (!isCommitted()) {
+                setHeader(COUNT_HEADER, String.valueOf(count.get()));
+            }
+        }
+    }
+}
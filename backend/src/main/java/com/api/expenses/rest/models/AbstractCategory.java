@@ -44,12 +44,14 @@ public abstract class AbstractCategory {
     public AbstractCategory(int id, User user, String name, String description) {
         this.id = id;
         this.user = user;
+        this.userId = user.getId(); // the column is written through the user, the cached entity still needs it
         this.name = name;
         this.description = description;
     }
     public AbstractCategory(User user, String name, String description) {
         this.id = id;
         this.user = user;
+        this.userId = user.getId();
         this.name = name;
         this.description = description;
     }
@@ -0,0 +1,112 @@
+package com.api.expenses.rest.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A budget alert in the inbox of a user.
+ */
+@Entity
+@Table(name = "budget_alerts")
+public class BudgetAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private int id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "category_id", nullable = false)
+    private int categoryId;
+
+    @Column(nullable = false)
+    private int year;
+
+    @Column(nullable = false)
+    private int month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BudgetAlertType type;
+
+    /**
+     * The threshold reached, in percent of the budget, only set for THRESHOLD alerts.
+     */
+    @Column(name = "threshold_percent")
+    private Integer thresholdPercent;
+
+    @Column(nullable = false)
+    private float budget;
+
+    @Column(nullable = false)
+    private double total;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "read_at")
+    private LocalDateTime readAt;
+
+    public BudgetAlert() {
+    }
+
+    public BudgetAlert(UUID userId, int categoryId, int year, int month, BudgetAlertType type,
+                       Integer thresholdPercent, float budget, double total, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.year = year;
+        this.month = month;
+        this.type = type;
+        this.thresholdPercent = thresholdPercent;
+        this.budget = budget;
+        this.total = total;
+        this.createdAt = createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public BudgetAlertType getType() {
+        return type;
+    }
+
+    public Integer getThresholdPercent() {
+        return thresholdPercent;
+    }
+
+    public float getBudget() {
+        return budget;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+}
@@ -0,0 +1,9 @@
+package com.api.expenses.rest.models;
+
+/**
+ * THRESHOLD: the spending of the month reached a share of the budget.
+ * PACE: the spending of the month so far, extended to the whole month, exceeds the budget.
+ */
+public enum BudgetAlertType {
+    THRESHOLD, PACE
+}
@@ -0,0 +1,47 @@
+package com.api.expenses.rest.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Month-to-date spending of a category, with the budget alerts already sent for the month.
+ * The totals are maintained by the ExpenseRollupService on every expense write, the alert state by the
+ * BudgetAlertService.
+ */
+@Entity
+@Table(name = "budget_month_progress")
+public class BudgetMonthProgress {
+
+    @EmbeddedId
+    private BudgetMonthProgressId id;
+
+    @Column(nullable = false)
+    private double total;
+
+    /**
+     * The highest threshold, in percent of the budget, an alert was sent for, 0 if none.
+     */
+    @Column(name = "alerted_percent", nullable = false)
+    private int alertedPercent;
+
+    @Column(name = "pace_alerted", nullable = false)
+    private boolean paceAlerted;
+
+    public BudgetMonthProgress() {
+    }
+
+    public BudgetMonthProgressId getId() {
+        return id;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public int getAlertedPercent() {
+        return alertedPercent;
+    }
+
+    public boolean isPaceAlerted() {
+        return paceAlerted;
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.expenses.rest.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Key of the month-to-date spending of a category.
+ */
+@Embeddable
+public class BudgetMonthProgressId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "category_id", nullable = false)
+    private int categoryId;
+
+    @Column(nullable = false)
+    private int year;
+
+    @Column(nullable = false)
+    private int month;
+
+    public BudgetMonthProgressId() {
+    }
+
+    public BudgetMonthProgressId(UUID userId, int categoryId, int year, int month) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.year = year;
+        this.month = month;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BudgetMonthProgressId that)) return false;
+        return categoryId == that.categoryId && year == that.year && month == that.month &&
+                Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, categoryId, year, month);
+    }
+}
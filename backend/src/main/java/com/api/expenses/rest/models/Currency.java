@@ -4,12 +4,16 @@ import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "currencies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 // @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id"), used to return the id only in foreign key relationships... iguess
 public class Currency {
 
@@ -3,6 +3,8 @@ package com.api.expenses.rest.models;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -10,10 +12,18 @@ import java.util.List;
 
 @Entity
 @Table(name = "expense_categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ExpenseCategory extends AbstractCategory implements Serializable {
     @Column(nullable = false)
     private float budget;
 
+    /**
+     * The budget alert thresholds, in percent of the budget and comma separated, null for the default ones.
+     */
+    @Column(name = "alert_thresholds", length = 64)
+    private String alertThresholds;
+
     @JsonIgnore
     @OneToMany(
             mappedBy = "category", // is the instance variable name we'll use in Expense entity to point to the associated ExpenseCategory
@@ -52,6 +62,14 @@ public class ExpenseCategory extends AbstractCategory implements Serializable {
         this.budget = budget;
     }
 
+    public String getAlertThresholds() {
+        return alertThresholds;
+    }
+
+    public void setAlertThresholds(String alertThresholds) {
+        this.alertThresholds = alertThresholds;
+    }
+
     public boolean onlyBudgetWasModified(ExpenseCategory category) {
         return this.getName().equals(category.getName()) &&
                 this.getDescription().equals(category.getDescription()) &&
@@ -0,0 +1,57 @@
+package com.api.expenses.rest.models;
+
+import jakarta.persistence.*;
+
+/**
+ * Total and number of the expenses of a user on a day, per category, tag and currency.
+ * The rows are maintained by the ExpenseRollupService on every expense write.
+ */
+@Entity
+@Table(name = "expense_daily_rollup")
+public class ExpenseDailyRollup {
+
+    @EmbeddedId
+    private ExpenseDailyRollupId id;
+
+    @Column(nullable = false)
+    private int year;
+
+    @Column(nullable = false)
+    private int month;
+
+    @Column(nullable = false)
+    private int week;
+
+    @Column(nullable = false)
+    private double total;
+
+    @Column(name = "expense_count", nullable = false)
+    private int expenseCount;
+
+    public ExpenseDailyRollup() {
+    }
+
+    public ExpenseDailyRollupId getId() {
+        return id;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getWeek() {
+        return week;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+}
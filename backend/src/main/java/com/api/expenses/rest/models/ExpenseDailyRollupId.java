@@ -0,0 +1,75 @@
+package com.api.expenses.rest.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.sql.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Key of a row of the daily expense rollup, expenses without a tag use the tag 0.
+ */
+@Embeddable
+public class ExpenseDailyRollupId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Date date;
+
+    @Column(name = "category_id", nullable = false)
+    private int categoryId;
+
+    @Column(name = "tag_id", nullable = false)
+    private int tagId;
+
+    @Column(name = "currency_id", nullable = false)
+    private int currencyId;
+
+    public ExpenseDailyRollupId() {
+    }
+
+    public ExpenseDailyRollupId(UUID userId, Date date, int categoryId, int tagId, int currencyId) {
+        this.userId = userId;
+        this.date = date;
+        this.categoryId = categoryId;
+        this.tagId = tagId;
+        this.currencyId = currencyId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public int getTagId() {
+        return tagId;
+    }
+
+    public int getCurrencyId() {
+        return currencyId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExpenseDailyRollupId that)) return false;
+        return categoryId == that.categoryId && tagId == that.tagId && currencyId == that.currencyId &&
+                Objects.equals(userId, that.userId) && Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, date, categoryId, tagId, currencyId);
+    }
+}
@@ -2,12 +2,16 @@ package com.api.expenses.rest.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.ColumnDefault;
 
 import java.util.UUID;
 
 @Entity
 @Table(name = "tags")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Tag {
 
     @Id
@@ -49,6 +53,7 @@ public class Tag {
         this.name = name;
         this.description = description;
         this.user = user;
+        this.userId = user.getId(); // the column is written through the user, the cached entity still needs it
         this.color = color;
     }
 
@@ -56,6 +61,7 @@ public class Tag {
         this.name = name;
         this.description = description;
         this.user = user;
+        this.userId = user.getId();
         this.color = color;
     }
 
@@ -89,6 +95,7 @@ public class Tag {
 
     public void setUser(User user) {
         this.user = user;
+        this.userId = user.getId();
     }
 
     public UUID getUserId() {
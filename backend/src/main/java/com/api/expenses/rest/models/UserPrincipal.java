@@ -0,0 +1,26 @@
+package com.api.expenses.rest.models;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The authenticated user of a request, as set by the JwtFilter in the security context.
+ * It is an immutable copy of the fields of the user needed to authenticate and authorize a request, so it can
+ * be cached and shared between requests. The endpoints that need the rest of the user load it by id.
+ */
+public record UserPrincipal(
+    UUID id,
+    String username,
+    Collection<? extends GrantedAuthority> authorities
+) {
+    public UserPrincipal {
+        authorities = authorities == null ? List.of() : List.copyOf(authorities);
+    }
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getAuthorities());
+    }
+}
@@ -0,0 +1,25 @@
+package com.api.expenses.rest.models.dtos;
+
+import com.api.expenses.rest.models.BudgetAlertType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A budget alert of the inbox.
+ *
+ * @param thresholdPercent the threshold reached, in percent of the budget, null for PACE alerts
+ * @param total the month-to-date spending of the category when the alert was sent
+ */
+public record BudgetAlertDto(
+        int id,
+        int categoryId,
+        int year,
+        int month,
+        BudgetAlertType type,
+        Integer thresholdPercent,
+        float budget,
+        double total,
+        LocalDateTime createdAt,
+        boolean read
+) {
+}
@@ -0,0 +1,32 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for the end-of-month spending forecast of the budgeted categories.
+ * The first daysElapsed days of the month are actual spending, the rest of the month is projected.
+ */
+public record BudgetForecastDto(
+    int month,
+    int year,
+    int daysElapsed,
+    List<CategoryForecastDto> categories
+) {
+    /**
+     * DTO for category-specific forecast data.
+     *
+     * @param spent the spending of the elapsed days
+     * @param projectedTotal the projected spending of the whole month
+     * @param projectedOverrunDate the first day the spending exceeds the budget, actual or projected,
+     *                             null if it is not expected to
+     */
+    public record CategoryForecastDto(
+        int categoryId,
+        String categoryName,
+        float budget,
+        float spent,
+        float projectedTotal,
+        LocalDate projectedOverrunDate
+    ) {}
+}
@@ -0,0 +1,37 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * DTO for the budget streaks of a user over a lookback window.
+ * Contains the overall streaks (every budgeted category under budget) and the streaks of each category.
+ */
+public record BudgetStreakReportDto(
+    int windowDays,
+    String windowStartDate,
+    String windowEndDate,
+    StreakDto longestStreak,
+    StreakDto currentStreak,
+    List<CategoryStreakDto> categories
+) {
+    /**
+     * DTO for a streak of consecutive days under budget.
+     * A streak with 0 days has "N/A" as start and end date.
+     */
+    public record StreakDto(
+        int days,
+        String startDate,
+        String endDate
+    ) {}
+
+    /**
+     * DTO for the streaks of a single category.
+     */
+    public record CategoryStreakDto(
+        int categoryId,
+        String categoryName,
+        float budget,
+        StreakDto longestStreak,
+        StreakDto currentStreak
+    ) {}
+}
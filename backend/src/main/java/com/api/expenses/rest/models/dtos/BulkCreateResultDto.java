@@ -0,0 +1,22 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * Response DTO for a bulk creation of transactions.
+ * There is one result per transaction of the request, in the same order.
+ */
+public record BulkCreateResultDto(
+    int created,
+    int failed,
+    List<ItemResultDto> results
+) {
+    /**
+     * DTO for the result of a single transaction: the id it was created with, or the reason it was rejected.
+     */
+    public record ItemResultDto(
+        int index,
+        Integer id,
+        String error
+    ) {}
+}
@@ -0,0 +1,23 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * Response DTO for the spending of every category over consecutive periods, oldest period first.
+ * The amounts of a category and the totals have one entry per period label.
+ */
+public record CategoryTrendDto(
+    String periodType,
+    List<String> periodLabels,
+    List<CategoryTrendSeriesDto> categories,
+    List<Float> totals
+) {
+    /**
+     * DTO for the amounts spent on a single category, one per period.
+     */
+    public record CategoryTrendSeriesDto(
+        int categoryId,
+        String categoryName,
+        List<Float> amounts
+    ) {}
+}
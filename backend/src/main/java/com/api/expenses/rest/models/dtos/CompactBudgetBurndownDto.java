@@ -0,0 +1,25 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * DTO for budget burn-down chart data, with the day series as arrays.
+ * The first entry of every array is the first day of the month.
+ */
+public record CompactBudgetBurndownDto(
+    int month,
+    int year,
+    List<CategoryBurndownDto> categories
+) {
+    /**
+     * DTO for category-specific burn-down data.
+     */
+    public record CategoryBurndownDto(
+        int categoryId,
+        String categoryName,
+        float budget,
+        float totalSpent,
+        float[] dailySpending,
+        float[] remainingBudget
+    ) {}
+}
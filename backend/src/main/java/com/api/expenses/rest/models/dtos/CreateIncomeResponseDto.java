@@ -0,0 +1,7 @@
+package com.api.expenses.rest.models.dtos;
+
+/**
+ * DTO for the id of a created income.
+ */
+public record CreateIncomeResponseDto(int incomeId) {
+}
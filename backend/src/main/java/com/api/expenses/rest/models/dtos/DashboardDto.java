@@ -0,0 +1,21 @@
+package com.api.expenses.rest.models.dtos;
+
+import com.api.expenses.rest.models.Expense;
+
+import java.util.List;
+
+/**
+ * DTO with everything the home screen shows for a month.
+ * The budget of each category is part of expenseCategories.
+ */
+public record DashboardDto(
+    int month,
+    int year,
+    List<Expense> expenses,
+    float totalSpent,
+    float totalEarned,
+    List<GetExpenseCategoryDto> expenseCategories,
+    BudgetBurndownDto burndown,
+    List<GetTagDto> tags
+) {
+}
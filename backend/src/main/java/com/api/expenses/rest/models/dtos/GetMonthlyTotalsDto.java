@@ -0,0 +1,9 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * DTO for the totals of the 12 months of a year, each one formatted with 2 decimals.
+ */
+public record GetMonthlyTotalsDto(List<String> totals) {
+}
@@ -0,0 +1,9 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for a total earned, rounded to 2 decimals.
+ */
+public record GetTotalEarnedDto(BigDecimal total) {
+}
@@ -0,0 +1,16 @@
+package com.api.expenses.rest.models.dtos;
+
+/**
+ * Response DTO for an import of exported data.
+ * The counts are the records of each type read from the file, skipped counts the records that could not be imported.
+ */
+public record ImportResultDto(
+    int currencies,
+    int expenseCategories,
+    int incomeCategories,
+    int tags,
+    int expenses,
+    int incomes,
+    int skipped
+) {
+}
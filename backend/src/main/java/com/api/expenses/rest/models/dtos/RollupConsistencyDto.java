@@ -0,0 +1,28 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * DTO for the result of checking the daily expense rollup of a user against the expenses.
+ * Every key that is missing on either side or has a different total or count is reported as a mismatch.
+ */
+public record RollupConsistencyDto(
+    boolean consistent,
+    int expectedRows,
+    int rollupRows,
+    List<MismatchDto> mismatches
+) {
+    /**
+     * DTO for a rollup row that does not match the expenses, a missing row has a total and a count of 0.
+     */
+    public record MismatchDto(
+        String date,
+        int categoryId,
+        int tagId,
+        int currencyId,
+        double expectedTotal,
+        double rollupTotal,
+        long expectedCount,
+        long rollupCount
+    ) {}
+}
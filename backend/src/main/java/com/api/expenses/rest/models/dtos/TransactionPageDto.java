@@ -0,0 +1,14 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * DTO for a page of transactions, newest first.
+ * The next page is requested by passing nextCursor as the cursor, it is null on the last page.
+ */
+public record TransactionPageDto<T>(
+    List<T> items,
+    String nextCursor,
+    boolean hasMore
+) {
+}
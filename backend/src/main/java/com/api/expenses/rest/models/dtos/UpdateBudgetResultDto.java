@@ -0,0 +1,10 @@
+package com.api.expenses.rest.models.dtos;
+
+import java.util.List;
+
+/**
+ * The result of a budget update: the categories whose budget was changed, the ones that already had the
+ * requested budget or that do not belong to the user are not listed.
+ */
+public record UpdateBudgetResultDto(List<Integer> changedCategoryIds) {
+}
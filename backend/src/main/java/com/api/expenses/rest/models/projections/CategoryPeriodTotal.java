@@ -0,0 +1,16 @@
+package com.api.expenses.rest.models.projections;
+
+/**
+ * Projection of the amount of the expenses of a user grouped by period and category.
+ * The month is 0 when the expenses are grouped by year only.
+ */
+public interface CategoryPeriodTotal {
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    Integer getCategoryId();
+
+    Double getTotal();
+}
@@ -0,0 +1,16 @@
+package com.api.expenses.rest.models.projections;
+
+import java.sql.Date;
+
+/**
+ * Projection of the amount spent by a user on a single day for a single category.
+ * It is the building block of the statistical summary, as every section can be derived from it.
+ */
+public interface DailyCategoryTotal {
+
+    Date getDate();
+
+    Integer getCategoryId();
+
+    Double getTotal();
+}
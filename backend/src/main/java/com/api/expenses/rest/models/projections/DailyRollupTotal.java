@@ -0,0 +1,22 @@
+package com.api.expenses.rest.models.projections;
+
+import java.sql.Date;
+
+/**
+ * Projection of a row of the daily expense rollup: the total and number of the expenses of a user
+ * on a single day for a single category, tag and currency.
+ */
+public interface DailyRollupTotal {
+
+    Date getDate();
+
+    Integer getCategoryId();
+
+    Integer getTagId();
+
+    Integer getCurrencyId();
+
+    Double getTotal();
+
+    Long getExpenseCount();
+}
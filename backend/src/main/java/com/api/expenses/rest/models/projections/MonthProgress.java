@@ -0,0 +1,15 @@
+package com.api.expenses.rest.models.projections;
+
+/**
+ * Projection of the month-to-date spending of a category and of the budget alerts already sent for the month.
+ */
+public interface MonthProgress {
+
+    Integer getCategoryId();
+
+    Double getTotal();
+
+    Integer getAlertedPercent();
+
+    Boolean getPaceAlerted();
+}
@@ -0,0 +1,13 @@
+package com.api.expenses.rest.models.projections;
+
+/**
+ * Projection of the amount of the transactions of a user grouped by the stored month and year.
+ */
+public interface MonthlyTotal {
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    Double getTotal();
+}
@@ -0,0 +1,13 @@
+package com.api.expenses.rest.models.projections;
+
+/**
+ * Projection of the amount of the transactions of a user grouped by the stored week and year.
+ */
+public interface WeeklyTotal {
+
+    Integer getYear();
+
+    Integer getWeek();
+
+    Double getTotal();
+}
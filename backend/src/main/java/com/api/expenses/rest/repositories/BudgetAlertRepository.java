@@ -0,0 +1,28 @@
+package com.api.expenses.rest.repositories;
+
+import com.api.expenses.rest.models.BudgetAlert;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Integer> {
+
+    /**
+     * Seeks on the (user_id, id) index, so polling for new alerts does not depend on the size of the inbox.
+     */
+    @Query(value = "SELECT * FROM budget_alerts WHERE user_id = ?1 AND id > ?2 ORDER BY id LIMIT ?3", nativeQuery = true)
+    public List<BudgetAlert> findByUserIdAfterId(UUID userId, int afterId, int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "budget_alerts"))
+    @Query(value = "UPDATE budget_alerts SET read_at = ?3 WHERE user_id = ?1 AND id <= ?2 AND read_at IS NULL",
+            nativeQuery = true)
+    public int markReadUpToId(UUID userId, int upToId, LocalDateTime readAt);
+}
@@ -0,0 +1,88 @@
+package com.api.expenses.rest.repositories;
+
+import com.api.expenses.rest.models.BudgetMonthProgress;
+import com.api.expenses.rest.models.BudgetMonthProgressId;
+import com.api.expenses.rest.models.projections.MonthProgress;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BudgetMonthProgressRepository extends JpaRepository<BudgetMonthProgress, BudgetMonthProgressId> {
+
+    /**
+     * The native writes declare the only table they touch, otherwise Hibernate has to assume they changed any table
+     * and clears every second-level cache region on each of them.
+     */
+    String PROGRESS_TABLE = "budget_month_progress";
+
+    /**
+     * Sums the daily rollup by month, only for the categories that exist, as the rollup keeps missing ones as 0.
+     */
+    String PROGRESS_REBUILD = "INSERT INTO budget_month_progress (user_id, category_id, year, month, total) " +
+            "SELECT r.user_id, r.category_id, r.year, r.month, SUM(r.total) FROM expense_daily_rollup r " +
+            "JOIN expense_categories c ON c.id = r.category_id ";
+    String PROGRESS_REBUILD_GROUP_BY = " GROUP BY r.user_id, r.category_id, r.year, r.month " +
+            "ON DUPLICATE KEY UPDATE total = VALUES(total)";
+
+    /**
+     * Adds the amount to the month of the category, creating the row if it does not exist.
+     * Removing an expense is adding its negated amount.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROGRESS_TABLE))
+    @Query(value = "INSERT INTO budget_month_progress (user_id, category_id, year, month, total) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5) ON DUPLICATE KEY UPDATE total = total + ?5", nativeQuery = true)
+    public int addToTotal(UUID userId, int categoryId, int year, int month, double amount);
+
+    @Query(value = "SELECT category_id AS categoryId, total AS total, alerted_percent AS alertedPercent, " +
+            "pace_alerted AS paceAlerted FROM budget_month_progress " +
+            "WHERE user_id = ?1 AND category_id = ?2 AND year = ?3 AND month = ?4", nativeQuery = true)
+    public Optional<MonthProgress> findProgress(UUID userId, int categoryId, int year, int month);
+
+    /**
+     * Reads the month of many categories and locks their rows until the end of the transaction, as a write of
+     * their expenses does, so their alerts are not evaluated by two transactions at the same time.
+     */
+    @Query(value = "SELECT category_id AS categoryId, total AS total, alerted_percent AS alertedPercent, " +
+            "pace_alerted AS paceAlerted FROM budget_month_progress " +
+            "WHERE user_id = ?1 AND year = ?2 AND month = ?3 AND category_id IN (?4) FOR UPDATE", nativeQuery = true)
+    public List<MonthProgress> findProgressForUpdate(UUID userId, int year, int month, Collection<Integer> categoryIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROGRESS_TABLE))
+    @Query(value = "UPDATE budget_month_progress SET alerted_percent = ?5, pace_alerted = ?6 " +
+            "WHERE user_id = ?1 AND category_id = ?2 AND year = ?3 AND month = ?4", nativeQuery = true)
+    public int updateAlertState(UUID userId, int categoryId, int year, int month, int alertedPercent, boolean paceAlerted);
+
+    /**
+     * Rebuilds the totals of a user from the daily rollup, the months without expenses are reset to 0.
+     * The alert state is kept.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROGRESS_TABLE))
+    @Query(value = "UPDATE budget_month_progress SET total = 0 WHERE user_id = ?1", nativeQuery = true)
+    public int resetTotalsByUserId(UUID userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROGRESS_TABLE))
+    @Query(value = PROGRESS_REBUILD + "WHERE r.user_id = ?1" + PROGRESS_REBUILD_GROUP_BY, nativeQuery = true)
+    public int rebuildTotalsByUserId(UUID userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROGRESS_TABLE))
+    @Query(value = "UPDATE budget_month_progress SET total = 0", nativeQuery = true)
+    public int resetAllTotals();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = PROGRESS_TABLE))
+    @Query(value = PROGRESS_REBUILD + PROGRESS_REBUILD_GROUP_BY, nativeQuery = true)
+    public int rebuildAllTotals();
+}
@@ -1,7 +1,16 @@
 package com.api.expenses.rest.repositories;
 
 import com.api.expenses.rest.models.Currency;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface CurrencyRepository extends JpaRepository<Currency, Integer> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    public List<Currency> findAll();
 }
@@ -0,0 +1,66 @@
+package com.api.expenses.rest.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes the budgets of many expense categories with a single UPDATE ... CASE statement.
+ * The statement goes through Hibernate with the table declared as its query space, so the cached expense
+ * categories are evicted and the cached category queries invalidated, as for any other write to the table.
+ * The methods must be called in a transaction.
+ */
+@Repository
+public class ExpenseCategoryBudgetWriter {
+
+    private static final String EXPENSE_CATEGORIES_TABLE = "expense_categories";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ExpenseCategoryBudgetWriter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Sets the budgets of categories of a user, the categories of other users are not changed.
+     *
+     * @param userId the owner of the categories
+     * @param budgets the new budget of each category, by category id
+     * @return the number of categories updated
+     */
+    public int updateBudgets(UUID userId, Map<Integer, Float> budgets) {
+        if (budgets.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(EXPENSE_CATEGORIES_TABLE).append(" SET budget = CASE id");
+        for (int i = 0; i < budgets.size(); i++) {
+            sql.append(" WHEN ? THEN ?");
+        }
+        sql.append(" END WHERE user_id = ? AND id IN (");
+        for (int i = 0; i < budgets.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.setHint(HibernateHints.HINT_NATIVE_SPACES, EXPENSE_CATEGORIES_TABLE);
+
+        int position = 1;
+        for (Map.Entry<Integer, Float> budget : budgets.entrySet()) {
+            query.setParameter(position++, budget.getKey());
+            query.setParameter(position++, budget.getValue());
+        }
+        query.setParameter(position++, userId);
+        for (Integer categoryId : budgets.keySet()) {
+            query.setParameter(position++, categoryId);
+        }
+        return query.executeUpdate();
+    }
+}
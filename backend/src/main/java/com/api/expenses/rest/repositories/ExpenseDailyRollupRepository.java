@@ -0,0 +1,92 @@
+package com.api.expenses.rest.repositories;
+
+import com.api.expenses.rest.models.ExpenseDailyRollup;
+import com.api.expenses.rest.models.ExpenseDailyRollupId;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+import com.api.expenses.rest.models.projections.DailyRollupTotal;
+import com.api.expenses.rest.models.projections.WeeklyTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.UUID;
+
+public interface ExpenseDailyRollupRepository extends JpaRepository<ExpenseDailyRollup, ExpenseDailyRollupId> {
+
+    String ROLLUP_SELECT = "SELECT user_id, date, COALESCE(category_id, 0), COALESCE(tag_id, 0), COALESCE(currency_id, 0), " +
+            "MAX(year), MAX(month), MAX(week), SUM(amount), COUNT(*) FROM expenses ";
+    String ROLLUP_GROUP_BY = " GROUP BY user_id, date, COALESCE(category_id, 0), COALESCE(tag_id, 0), COALESCE(currency_id, 0)";
+    String ROLLUP_INSERT = "INSERT INTO expense_daily_rollup " +
+            "(user_id, date, category_id, tag_id, currency_id, year, month, week, total, expense_count) ";
+    /**
+     * The native writes declare the only table they touch, otherwise Hibernate has to assume they changed any table
+     * and clears every second-level cache region on each of them.
+     */
+    String ROLLUP_TABLE = "expense_daily_rollup";
+
+    /**
+     * Adds the amount and the count to the row of the key, creating the row if it does not exist.
+     * Removing an expense is adding its negated amount and a count of -1.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROLLUP_TABLE))
+    @Query(value = ROLLUP_INSERT + "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10) " +
+            "ON DUPLICATE KEY UPDATE total = total + ?9, expense_count = expense_count + ?10", nativeQuery = true)
+    public int addToRollup(UUID userId, Date date, int categoryId, int tagId, int currencyId,
+                           int year, int month, int week, double amount, int count);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROLLUP_TABLE))
+    @Query(value = "DELETE FROM expense_daily_rollup WHERE user_id = ?1 AND date = ?2 AND category_id = ?3 " +
+            "AND tag_id = ?4 AND currency_id = ?5 AND expense_count <= 0", nativeQuery = true)
+    public int deleteEmptyRollup(UUID userId, Date date, int categoryId, int tagId, int currencyId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROLLUP_TABLE))
+    @Query(value = "DELETE FROM expense_daily_rollup WHERE user_id = ?1", nativeQuery = true)
+    public int deleteRollupByUserId(UUID userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROLLUP_TABLE))
+    @Query(value = "DELETE FROM expense_daily_rollup", nativeQuery = true)
+    public int deleteAllRollups();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROLLUP_TABLE))
+    @Query(value = ROLLUP_INSERT + ROLLUP_SELECT + "WHERE user_id = ?1" + ROLLUP_GROUP_BY, nativeQuery = true)
+    public int rebuildRollupByUserId(UUID userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROLLUP_TABLE))
+    @Query(value = ROLLUP_INSERT + ROLLUP_SELECT + "WHERE user_id IS NOT NULL" + ROLLUP_GROUP_BY, nativeQuery = true)
+    public int rebuildAllRollups();
+
+    @Query(value = "SELECT date AS date, category_id AS categoryId, tag_id AS tagId, currency_id AS currencyId, " +
+            "total AS total, expense_count AS expenseCount FROM expense_daily_rollup WHERE user_id = ?1", nativeQuery = true)
+    public List<DailyRollupTotal> findRollupByUserId(UUID userId);
+
+    /**
+     * Aggregates the expenses of the user the same way the rollup does, the rollup is expected to match it.
+     */
+    @Query(value = "SELECT date AS date, COALESCE(category_id, 0) AS categoryId, COALESCE(tag_id, 0) AS tagId, " +
+            "COALESCE(currency_id, 0) AS currencyId, SUM(amount) AS total, COUNT(*) AS expenseCount FROM expenses " +
+            "WHERE user_id = ?1" + ROLLUP_GROUP_BY, nativeQuery = true)
+    public List<DailyRollupTotal> aggregateExpensesByUserId(UUID userId);
+
+    @Query(value = "SELECT date AS date, category_id AS categoryId, SUM(total) AS total FROM expense_daily_rollup " +
+            "WHERE user_id = ?1 GROUP BY date, category_id ORDER BY date", nativeQuery = true)
+    public List<DailyCategoryTotal> findDailyCategoryTotalsByUserId(UUID userId);
+
+    @Query(value = "SELECT date AS date, category_id AS categoryId, SUM(total) AS total FROM expense_daily_rollup " +
+            "WHERE user_id = ?1 AND date BETWEEN ?2 AND ?3 GROUP BY date, category_id ORDER BY date", nativeQuery = true)
+    public List<DailyCategoryTotal> findDailyCategoryTotalsByUserIdAndDateBetween(UUID userId, Date from, Date to);
+
+    @Query(value = "SELECT year AS year, week AS week, SUM(total) AS total FROM expense_daily_rollup " +
+            "WHERE user_id = ?1 AND year BETWEEN ?2 AND ?3 GROUP BY year, week", nativeQuery = true)
+    public List<WeeklyTotal> findWeeklyTotalsByUserIdAndYearBetween(UUID userId, int fromYear, int toYear);
+}
@@ -2,11 +2,13 @@ package com.api.expenses.rest.repositories;
 
 import com.api.expenses.rest.models.Expense;
 import com.api.expenses.rest.models.Tag;
+import com.api.expenses.rest.models.projections.CategoryPeriodTotal;
 import org.hibernate.annotations.NamedNativeQuery;
 import org.hibernate.annotations.NamedQuery;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.sql.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,4 +37,48 @@ public interface ExpenseRepository extends JpaRepository<Expense, Integer> {
 
     @Query(value = "SELECT * FROM expenses WHERE user_id = ?1 AND month = ?2 AND year = ?3 AND tag_id = ?4", nativeQuery = true)
     public List<Expense> findByUserIdAndMonthAndYearAndTagId(UUID userId, int month, int year, int tagId);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND month = ?2 AND year = ?3", nativeQuery = true)
+    public double sumAmountByUserIdAndMonthAndYear(UUID userId, int month, int year);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND year = ?2", nativeQuery = true)
+    public double sumAmountByUserIdAndYear(UUID userId, int year);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND week = ?2 AND year = ?3", nativeQuery = true)
+    public double sumAmountByUserIdAndWeekAndYear(UUID userId, int week, int year);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND year = ?2 AND category_id = ?3", nativeQuery = true)
+    public double sumAmountByUserIdAndYearAndCategoryId(UUID userId, int year, int categoryId);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND month = ?2 AND year = ?3 AND category_id = ?4", nativeQuery = true)
+    public double sumAmountByUserIdAndMonthAndYearAndCategoryId(UUID userId, int month, int year, int categoryId);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND month = ?2 AND year = ?3 AND tag_id = ?4", nativeQuery = true)
+    public double sumAmountByUserIdAndMonthAndYearAndTagId(UUID userId, int month, int year, int tagId);
+
+    @Query(value = "SELECT year AS year, month AS month, category_id AS categoryId, SUM(amount) AS total FROM expenses " +
+            "WHERE user_id = ?1 AND date BETWEEN ?2 AND ?3 GROUP BY year, month, category_id", nativeQuery = true)
+    public List<CategoryPeriodTotal> findMonthlyCategoryTotalsByUserIdAndDateBetween(UUID userId, Date startDate, Date endDate);
+
+    @Query(value = "SELECT year AS year, 0 AS month, category_id AS categoryId, SUM(amount) AS total FROM expenses " +
+            "WHERE user_id = ?1 AND year BETWEEN ?2 AND ?3 GROUP BY year, category_id", nativeQuery = true)
+    public List<CategoryPeriodTotal> findYearlyCategoryTotalsByUserIdAndYearBetween(UUID userId, int fromYear, int toYear);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = ?1 AND week = ?2 AND year = ?3 AND category_id = ?4", nativeQuery = true)
+    public double sumAmountByUserIdAndWeekAndYearAndCategoryId(UUID userId, int week, int year, int categoryId);
+
+    @Query(value = "SELECT * FROM expenses WHERE user_id = ?1 AND date BETWEEN ?2 AND ?3 " +
+            "AND (date < ?4 OR (date = ?4 AND id < ?5)) ORDER BY date DESC, id DESC LIMIT ?6", nativeQuery = true)
+    public List<Expense> findPageByUserIdAndDateBetween(UUID userId, Date from, Date to,
+                                                        Date afterDate, int afterId, int limit);
+
+    @Query(value = "SELECT * FROM expenses WHERE user_id = ?1 AND category_id = ?2 AND date BETWEEN ?3 AND ?4 " +
+            "AND (date < ?5 OR (date = ?5 AND id < ?6)) ORDER BY date DESC, id DESC LIMIT ?7", nativeQuery = true)
+    public List<Expense> findPageByUserIdAndCategoryIdAndDateBetween(UUID userId, int categoryId, Date from, Date to,
+                                                                     Date afterDate, int afterId, int limit);
+
+    @Query(value = "SELECT * FROM expenses WHERE user_id = ?1 AND tag_id = ?2 AND date BETWEEN ?3 AND ?4 " +
+            "AND (date < ?5 OR (date = ?5 AND id < ?6)) ORDER BY date DESC, id DESC LIMIT ?7", nativeQuery = true)
+    public List<Expense> findPageByUserIdAndTagIdAndDateBetween(UUID userId, int tagId, Date from, Date to,
+                                                                Date afterDate, int afterId, int limit);
 }
@@ -1,14 +1,24 @@
 package com.api.expenses.rest.repositories;
 
 import com.api.expenses.rest.models.IncomeCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface IncomeCategoryRepository extends JpaRepository<IncomeCategory, Integer> {
 
+    /**
+     * The result is kept in the query cache, the table is declared so that any write to it invalidates the result.
+     */
     @Query(value = "SELECT * FROM income_categories WHERE user_id = ?1", nativeQuery = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "income_categories")
+    })
     public List<IncomeCategory> findByUserId(UUID userId);
 }
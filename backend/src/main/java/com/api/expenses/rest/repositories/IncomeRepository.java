@@ -1,8 +1,11 @@
 package com.api.expenses.rest.repositories;
 
 import com.api.expenses.rest.models.Income;
+import com.api.expenses.rest.models.projections.MonthlyTotal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.sql.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,4 +24,19 @@ public interface IncomeRepository extends JpaRepository<Income, Integer> {
     public List<Income> findByUserIdAndWeekAndYear(UUID userId, int week, int year);
 
     public List<Income> findByUserId(UUID userId);
+
+    @Query(value = "SELECT year AS year, month AS month, SUM(amount) AS total FROM incomes " +
+            "WHERE user_id = ?1 AND year BETWEEN ?2 AND ?3 GROUP BY year, month", nativeQuery = true)
+    public List<MonthlyTotal> findMonthlyTotalsByUserIdAndYearBetween(UUID userId, int fromYear, int toYear);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM incomes WHERE user_id = ?1 AND month = ?2 AND year = ?3", nativeQuery = true)
+    public double sumAmountByUserIdAndMonthAndYear(UUID userId, int month, int year);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM incomes WHERE user_id = ?1 AND year = ?2", nativeQuery = true)
+    public double sumAmountByUserIdAndYear(UUID userId, int year);
+
+    @Query(value = "SELECT * FROM incomes WHERE user_id = ?1 AND date BETWEEN ?2 AND ?3 " +
+            "AND (date < ?4 OR (date = ?4 AND id < ?5)) ORDER BY date DESC, id DESC LIMIT ?6", nativeQuery = true)
+    public List<Income> findPageByUserIdAndDateBetween(UUID userId, Date from, Date to,
+                                                       Date afterDate, int afterId, int limit);
 }
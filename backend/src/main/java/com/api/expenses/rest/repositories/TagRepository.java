@@ -1,13 +1,17 @@
 package com.api.expenses.rest.repositories;
 
 import com.api.expenses.rest.models.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface TagRepository extends JpaRepository<Tag, Integer> {
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Tag> findByUserId(UUID userId);
     
     boolean existsByNameAndUserId(String name, UUID userId);
@@ -0,0 +1,176 @@
+package com.api.expenses.rest.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Writes transactions with JDBC batches.
+ * The ids are generated by the database (IDENTITY), which keeps Hibernate from batching its inserts, so the
+ * bulk inserts bypass it and read the generated ids back from the batch.
+ * The methods must be called in a transaction, the JdbcTemplate joins the one of the caller.
+ * The datasource URL must set rewriteBatchedStatements=true, otherwise the MySQL driver sends a batch as one
+ * statement per row and the batching only saves the JDBC calls.
+ */
+@Repository
+public class TransactionBatchWriter {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String TRANSACTION_COLUMNS =
+            " (user_id, category_id, currency_id, tag_id, amount, date, description, month, year, week, last_update) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ROLLUP_UPSERT = "INSERT INTO expense_daily_rollup " +
+            "(user_id, date, category_id, tag_id, currency_id, year, month, week, total, expense_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + ?, expense_count = expense_count + ?";
+
+    private static final String MONTH_PROGRESS_UPSERT = "INSERT INTO budget_month_progress " +
+            "(user_id, category_id, year, month, total) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total = total + ?";
+
+    /**
+     * A validated transaction, ready to be inserted.
+     */
+    public record Row(UUID userId, int categoryId, int currencyId, Integer tagId, float amount, Date date,
+                      String description, int month, int year, int week) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TransactionBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the generated ids, in the order of the rows
+     */
+    public List<Integer> insertExpenses(List<Row> rows) {
+        return insert("INSERT INTO expenses" + TRANSACTION_COLUMNS, rows);
+    }
+
+    /**
+     * @return the generated ids, in the order of the rows
+     */
+    public List<Integer> insertIncomes(List<Row> rows) {
+        return insert("INSERT INTO incomes" + TRANSACTION_COLUMNS, rows);
+    }
+
+    /**
+     * Adds expense rows to the daily expense rollup, with one statement per rollup key.
+     */
+    public void addToExpenseRollup(List<Row> rows) {
+        Map<List<Object>, Row> keyRows = new LinkedHashMap<>();
+        Map<List<Object>, double[]> totals = new HashMap<>();
+        for (Row row : rows) {
+            List<Object> key = List.of(row.userId(), row.date(), row.categoryId(),
+                    row.tagId() != null ? row.tagId() : 0, row.currencyId());
+            keyRows.putIfAbsent(key, row);
+            double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+            total[0] += row.amount();
+            total[1]++;
+        }
+
+        List<Object[]> parameters = new ArrayList<>(keyRows.size());
+        keyRows.forEach((key, row) -> {
+            double[] total = totals.get(key);
+            parameters.add(new Object[]{toBytes(row.userId()), row.date(), key.get(2), key.get(3), row.currencyId(),
+                    row.year(), row.month(), row.week(), total[0], (int) total[1], total[0], (int) total[1]});
+        });
+        jdbcTemplate.batchUpdate(ROLLUP_UPSERT, parameters, BATCH_SIZE, (ps, values) -> {
+            for (int i = 0; i < values.length; i++) {
+                ps.setObject(i + 1, values[i]);
+            }
+        });
+    }
+
+    /**
+     * Adds expense rows to the month totals of their categories, with one statement per category and month.
+     */
+    public void addToBudgetMonthProgress(List<Row> rows) {
+        Map<List<Object>, double[]> totals = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (row.categoryId() != 0) {
+                totals.computeIfAbsent(List.of(row.userId(), row.categoryId(), row.year(), row.month()),
+                        k -> new double[1])[0] += row.amount();
+            }
+        }
+
+        List<Object[]> parameters = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> parameters.add(new Object[]{toBytes((UUID) key.get(0)), key.get(1), key.get(2),
+                key.get(3), total[0], total[0]}));
+        jdbcTemplate.batchUpdate(MONTH_PROGRESS_UPSERT, parameters, BATCH_SIZE, (ps, values) -> {
+            for (int i = 0; i < values.length; i++) {
+                ps.setObject(i + 1, values[i]);
+            }
+        });
+    }
+
+    private List<Integer> insert(String sql, List<Row> rows) {
+        List<Integer> ids = new ArrayList<>(rows.size());
+        Date today = Date.valueOf(LocalDate.now());
+
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Row> batch = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Row row = batch.get(i);
+                            ps.setBytes(1, toBytes(row.userId()));
+                            ps.setInt(2, row.categoryId());
+                            ps.setInt(3, row.currencyId());
+                            if (row.tagId() != null) {
+                                ps.setInt(4, row.tagId());
+                            } else {
+                                ps.setNull(4, Types.INTEGER);
+                            }
+                            ps.setFloat(5, row.amount());
+                            ps.setDate(6, row.date());
+                            ps.setString(7, row.description());
+                            ps.setInt(8, row.month());
+                            ps.setInt(9, row.year());
+                            ps.setInt(10, row.week());
+                            ps.setDate(11, today);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keyHolder);
+
+            for (Map<String, Object> keys : keyHolder.getKeyList()) {
+                ids.add(((Number) keys.values().iterator().next()).intValue());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * UUIDs are stored as BINARY(16), most significant bits first.
+     */
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,100 @@
+package com.api.expenses.rest.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads all the data of a user, row by row, for the data export.
+ * The rows are streamed by the MySQL driver, one at a time, so the memory used does not depend on the number
+ * of rows: the driver streams the result set of a forward-only, read-only statement whose fetch size is
+ * Integer.MIN_VALUE, whatever the datasource URL, and buffers the whole result set otherwise.
+ * No other statement can run on the connection while a result set is streamed, so the handler must not query
+ * the database.
+ */
+@Repository
+public class UserDataExportReader {
+
+    /**
+     * The queries of every type of record, in the order they are exported.
+     * The columns are named as the fields of the exported records.
+     */
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("user", "SELECT id, username, email, first_name AS firstName, last_name AS lastName, " +
+                "profile_picture AS profilePicture, creation_date AS creationDate, role, currency_id AS currencyId " +
+                "FROM users WHERE id = ?");
+        QUERIES.put("currency", "SELECT id, code, name, symbol FROM currencies");
+        QUERIES.put("expenseCategory", "SELECT id, name, description, budget, alert_thresholds AS alertThresholds " +
+                "FROM expense_categories WHERE user_id = ?");
+        QUERIES.put("incomeCategory", "SELECT id, name, description FROM income_categories WHERE user_id = ?");
+        QUERIES.put("tag", "SELECT id, name, description, color FROM tags WHERE user_id = ?");
+        QUERIES.put("expense", "SELECT id, category_id AS categoryId, currency_id AS currencyId, tag_id AS tagId, " +
+                "amount, date, description, month, year, week, last_update AS lastUpdate FROM expenses WHERE user_id = ?");
+        QUERIES.put("income", "SELECT id, category_id AS categoryId, currency_id AS currencyId, tag_id AS tagId, " +
+                "amount, date, description, month, year, week, last_update AS lastUpdate FROM incomes WHERE user_id = ?");
+    }
+
+    /**
+     * The fetch size that makes the MySQL driver stream a result set row by row.
+     */
+    static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserDataExportReader(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Handles the rows of one type of record.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(String type, ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Reads every record of the user, one type after the other, and hands each row to the handler.
+     * The result set is only valid during the call to the handler.
+     *
+     * @param userId the user to export
+     * @param handler the handler of each row
+     */
+    public void readUserData(UUID userId, RecordHandler handler) {
+        byte[] userIdBytes = toBytes(userId);
+
+        QUERIES.forEach((type, sql) -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(STREAMING_FETCH_SIZE);
+                    if (sql.contains("?")) {
+                        statement.setBytes(1, userIdBytes);
+                    }
+                    return statement;
+                },
+                (RowCallbackHandler) row -> handler.handle(type, row)));
+    }
+
+    /**
+     * UUIDs are stored as BINARY(16), most significant bits first.
+     */
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
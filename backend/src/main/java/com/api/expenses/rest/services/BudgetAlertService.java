@@ -0,0 +1,258 @@
+package com.api.expenses.rest.services;
+
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.models.BudgetAlert;
+import com.api.expenses.rest.models.BudgetAlertType;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetAlertDto;
+import com.api.expenses.rest.models.projections.MonthProgress;
+import com.api.expenses.rest.repositories.BudgetAlertRepository;
+import com.api.expenses.rest.repositories.BudgetMonthProgressRepository;
+import com.api.expenses.rest.repositories.ExpenseCategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sends budget alerts to the inbox of a user as the expenses of the current month are written, and when the budget
+ * or the alert thresholds of a category change.
+ * <p>
+ * A threshold alert is sent when the month-to-date spending of a category reaches a share of its budget, once per
+ * threshold and month. The thresholds are the ones of the category, or the configured ones when it has none.
+ * When several thresholds are reached by the same expense only the highest one is sent, and when the spending falls
+ * below a threshold again it is re-armed. A pace alert is sent once per month when the spending so far, extended to
+ * the whole month, exceeds the budget before the budget itself is exceeded.
+ * <p>
+ * Every evaluation reads the month total of one category, maintained by the ExpenseRollupService, so its cost does
+ * not depend on the number of expenses. Only the current month is evaluated, writing expenses of other months,
+ * such as an import of past expenses, sends no alert.
+ */
+@Service
+public class BudgetAlertService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_THRESHOLDS = 10;
+    public static final int MAX_THRESHOLD_PERCENT = 1000;
+
+    private final BudgetMonthProgressRepository monthProgressRepository;
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final ExpenseCategoryRepository expenseCategoryRepository;
+    private final int[] defaultThresholds;
+    private final int paceStartDay;
+
+    /**
+     * @param defaultThresholds the thresholds of the categories without their own, in percent of the budget
+     * @param paceStartDay the first day of the month pace alerts are sent on, the projection of the first days
+     *                     depends too much on single expenses
+     */
+    @Autowired
+    public BudgetAlertService(BudgetMonthProgressRepository monthProgressRepository,
+                              BudgetAlertRepository budgetAlertRepository,
+                              ExpenseCategoryRepository expenseCategoryRepository,
+                              @Value("${application.budget-alerts.thresholds:50,80,100}") int[] defaultThresholds,
+                              @Value("${application.budget-alerts.pace-start-day:7}") int paceStartDay) {
+        this.monthProgressRepository = monthProgressRepository;
+        this.budgetAlertRepository = budgetAlertRepository;
+        this.expenseCategoryRepository = expenseCategoryRepository;
+        this.defaultThresholds = Arrays.stream(defaultThresholds).filter(threshold -> threshold > 0).sorted().toArray();
+        this.paceStartDay = paceStartDay;
+    }
+
+    /**
+     * Evaluates the alerts of a category after one of its expenses was written.
+     * It must run in the transaction of the write, after the month total was updated: the row of the total stays
+     * locked until the transaction ends, so concurrent writes to the category are evaluated one after the other.
+     *
+     * @param userId the user of the expense
+     * @param category the category of the expense, may be null
+     * @param date the date of the expense
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void evaluate(UUID userId, ExpenseCategory category, Date date) {
+        LocalDate today = LocalDate.now();
+        YearMonth month = YearMonth.from(date.toLocalDate());
+        if (category == null || category.getBudget() <= 0 || !month.equals(YearMonth.from(today))) {
+            return;
+        }
+
+        Optional<MonthProgress> progress = monthProgressRepository.findProgress(userId, category.getId(),
+                month.getYear(), month.getMonthValue());
+        if (progress.isPresent()) {
+            evaluate(userId, category.getId(), category.getBudget(), thresholdsOf(category), today, progress.get());
+        }
+    }
+
+    /**
+     * Evaluates the alerts of the current month of categories after their budget or their thresholds changed:
+     * a lower budget or threshold may be reached by the spending so far, a higher one is re-armed.
+     * It must run in the transaction of the change, the months of the categories are locked until it ends.
+     *
+     * @param userId the user of the categories
+     * @param categories the categories that changed
+     * @param budgets the new budgets, by category id, the categories without one keep their budget
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void evaluateCurrentMonth(UUID userId, List<ExpenseCategory> categories, Map<Integer, Float> budgets) {
+        LocalDate today = LocalDate.now();
+        Map<Integer, ExpenseCategory> categoriesById = new HashMap<>();
+        for (ExpenseCategory category : categories) {
+            categoriesById.put(category.getId(), category);
+        }
+        if (categoriesById.isEmpty()) {
+            return;
+        }
+
+        List<MonthProgress> progresses = monthProgressRepository.findProgressForUpdate(userId, today.getYear(),
+                today.getMonthValue(), categoriesById.keySet());
+        for (MonthProgress progress : progresses) {
+            ExpenseCategory category = categoriesById.get(progress.getCategoryId());
+            float budget = budgets.getOrDefault(category.getId(), category.getBudget());
+            if (budget > 0) {
+                evaluate(userId, category.getId(), budget, thresholdsOf(category), today, progress);
+            }
+        }
+    }
+
+    /**
+     * Sends the alerts of the current month of a category that are due, and saves which ones were sent.
+     */
+    private void evaluate(UUID userId, int categoryId, float budget, int[] thresholds, LocalDate today,
+                          MonthProgress progress) {
+        YearMonth month = YearMonth.from(today);
+        double total = progress.getTotal();
+        int alertedPercent = progress.getAlertedPercent();
+        boolean paceAlerted = Boolean.TRUE.equals(progress.getPaceAlerted());
+
+        int reachedPercent = 0;
+        for (int threshold : thresholds) {
+            if (total * 100 >= (double) budget * threshold) {
+                reachedPercent = threshold;
+            }
+        }
+
+        List<BudgetAlert> alerts = new ArrayList<>(2);
+        LocalDateTime now = LocalDateTime.now();
+        if (reachedPercent > alertedPercent) {
+            alerts.add(new BudgetAlert(userId, categoryId, month.getYear(), month.getMonthValue(),
+                    BudgetAlertType.THRESHOLD, reachedPercent, budget, total, now));
+        }
+
+        double projectedTotal = total * month.lengthOfMonth() / today.getDayOfMonth();
+        if (!paceAlerted && today.getDayOfMonth() >= paceStartDay && total < budget && projectedTotal > budget) {
+            alerts.add(new BudgetAlert(userId, categoryId, month.getYear(), month.getMonthValue(),
+                    BudgetAlertType.PACE, null, budget, total, now));
+            paceAlerted = true;
+        }
+
+        if (reachedPercent != alertedPercent || !alerts.isEmpty()) {
+            monthProgressRepository.updateAlertState(userId, categoryId, month.getYear(), month.getMonthValue(),
+                    reachedPercent, paceAlerted);
+        }
+        if (!alerts.isEmpty()) {
+            budgetAlertRepository.saveAll(alerts);
+        }
+    }
+
+    /**
+     * Sets the alert thresholds of a category, and evaluates the alerts of its current month with them.
+     *
+     * @param userId the user id
+     * @param categoryId the expense category
+     * @param thresholds the thresholds in percent of the budget, in any order, empty for the default ones
+     * @return the thresholds the category is alerted at, in ascending order
+     * @throws TransactionException if the category is not one of the user, or if there are more than
+     *                              MAX_THRESHOLDS thresholds or one is not between 1 and MAX_THRESHOLD_PERCENT
+     */
+    @Transactional
+    public List<Integer> setThresholds(UUID userId, int categoryId, List<Integer> thresholds)
+            throws TransactionException {
+        ExpenseCategory category = expenseCategoryRepository.findById(categoryId)
+                .filter(expenseCategory -> userId.equals(expenseCategory.getUserId()))
+                .orElseThrow(() -> new TransactionException(
+                        TransactionException.TransactionExceptionType.CATEGORY_NOT_FOUND));
+        if (thresholds == null || thresholds.size() > MAX_THRESHOLDS || thresholds.stream()
+                .anyMatch(threshold -> threshold == null || threshold < 1 || threshold > MAX_THRESHOLD_PERCENT)) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_THRESHOLDS);
+        }
+
+        int[] sortedThresholds = thresholds.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+        category.setAlertThresholds(sortedThresholds.length == 0 ? null : Arrays.stream(sortedThresholds)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",")));
+        evaluateCurrentMonth(userId, List.of(category), Map.of());
+        return Arrays.stream(thresholdsOf(category)).boxed().toList();
+    }
+
+    /**
+     * @return the thresholds of the category, the default ones when it has none
+     */
+    private int[] thresholdsOf(ExpenseCategory category) {
+        String thresholds = category.getAlertThresholds();
+        if (thresholds == null) {
+            return defaultThresholds;
+        }
+        // They are validated and sorted when they are set
+        return Arrays.stream(thresholds.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Gets the alerts of a user sent after an alert, oldest first.
+     * The client polls with the id of the last alert it received, 0 the first time.
+     *
+     * @param userId the user id
+     * @param afterId the id of the last alert received
+     * @param limit the maximum number of alerts, capped to MAX_PAGE_SIZE
+     * @return the alerts
+     * @throws TransactionException if the limit is not positive
+     */
+    public List<BudgetAlertDto> getAlerts(UUID userId, int afterId, int limit) throws TransactionException {
+        if (limit < 1) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PAGE_SIZE);
+        }
+
+        List<BudgetAlert> alerts = budgetAlertRepository.findByUserIdAfterId(userId, afterId, Math.min(limit, MAX_PAGE_SIZE));
+        List<BudgetAlertDto> alertDtos = new ArrayList<>(alerts.size());
+        for (BudgetAlert alert : alerts) {
+            alertDtos.add(new BudgetAlertDto(
+                    alert.getId(),
+                    alert.getCategoryId(),
+                    alert.getYear(),
+                    alert.getMonth(),
+                    alert.getType(),
+                    alert.getThresholdPercent(),
+                    alert.getBudget(),
+                    alert.getTotal(),
+                    alert.getCreatedAt(),
+                    alert.getReadAt() != null
+            ));
+        }
+        return alertDtos;
+    }
+
+    /**
+     * Marks the alerts of a user as read, up to an alert.
+     *
+     * @param userId the user id
+     * @param upToId the id of the last alert to mark, included
+     * @return the number of alerts marked
+     */
+    @Transactional
+    public int markAlertsRead(UUID userId, int upToId) {
+        return budgetAlertRepository.markReadUpToId(userId, upToId, LocalDateTime.now());
+    }
+}
@@ -1,32 +1,56 @@
 package com.api.expenses.rest.services;
 
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.exceptions.UserException;
 import com.api.expenses.rest.models.Expense;
 import com.api.expenses.rest.models.ExpenseCategory;
 import com.api.expenses.rest.models.dtos.BudgetBurndownDto;
-import com.api.expenses.rest.models.dtos.BudgetBurndownDto.CategoryBurndownDto;
+import com.api.expenses.rest.models.dtos.BudgetForecastDto;
+import com.api.expenses.rest.models.dtos.CompactBudgetBurndownDto;
 import com.api.expenses.rest.models.dtos.GetBudgetDto;
+import com.api.expenses.rest.models.dtos.UpdateBudgetDto;
+import com.api.expenses.rest.models.dtos.UpdateBudgetResultDto;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+import com.api.expenses.rest.repositories.ExpenseCategoryBudgetWriter;
+import com.api.expenses.rest.repositories.ExpenseDailyRollupRepository;
+import com.api.expenses.rest.services.budget.MonthBurndown;
+import com.api.expenses.rest.services.budget.MonthBurndownRange;
+import com.api.expenses.rest.services.budget.MonthForecast;
 import com.api.expenses.rest.utils.DateUtils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class BudgetService {
 
+    /**
+     * Maximum number of months of a burn-down range.
+     */
+    public static final int MAX_BURNDOWN_RANGE_MONTHS = 24;
+
     private final UserService userService;
-    private final ExpenseService expenseService;
+    private final ExpenseDailyRollupRepository expenseRollupRepository;
+    private final ExpenseCategoryBudgetWriter expenseCategoryBudgetWriter;
+    private final BudgetAlertService budgetAlertService;
 
     @Autowired
-    public BudgetService(UserService userService, ExpenseService expenseService) {
+    public BudgetService(UserService userService, ExpenseDailyRollupRepository expenseRollupRepository,
+                         ExpenseCategoryBudgetWriter expenseCategoryBudgetWriter,
+                         BudgetAlertService budgetAlertService) {
         this.userService = userService;
-        this.expenseService = expenseService;
+        this.expenseRollupRepository = expenseRollupRepository;
+        this.expenseCategoryBudgetWriter = expenseCategoryBudgetWriter;
+        this.budgetAlertService = budgetAlertService;
     }
 
     /**
@@ -61,6 +85,48 @@ public class BudgetService {
     }
 
 
+    /**
+     * Sets the budgets of categories of a user.
+     * The requested budgets are compared with the current ones by category id, and only the categories whose
+     * budget changes are written, with a single statement. Categories that do not belong to the user are ignored,
+     * and when a category is requested more than once the last budget wins.
+     * The budget alerts of the current month of the changed categories are evaluated with their new budget.
+     *
+     * @param userId the user id
+     * @param budgets the new budgets
+     * @return the ids of the categories whose budget was changed, in the order they were requested
+     */
+    @Transactional
+    public UpdateBudgetResultDto updateBudgets(UUID userId, List<UpdateBudgetDto> budgets) {
+        Map<Integer, ExpenseCategory> categoriesById = new HashMap<>();
+        for (ExpenseCategory category : userService.getUserExpenseCategories(userId)) {
+            categoriesById.put(category.getId(), category);
+        }
+
+        Map<Integer, Float> requestedBudgets = new LinkedHashMap<>();
+        for (UpdateBudgetDto budget : budgets) {
+            if (budget.newBudget() != null && categoriesById.containsKey(budget.categoryId())) {
+                requestedBudgets.put(budget.categoryId(), budget.newBudget());
+            }
+        }
+
+        Map<Integer, Float> changedBudgets = new LinkedHashMap<>();
+        requestedBudgets.forEach((categoryId, newBudget) -> {
+            if (categoriesById.get(categoryId).getBudget() != newBudget) {
+                changedBudgets.put(categoryId, newBudget);
+            }
+        });
+
+        expenseCategoryBudgetWriter.updateBudgets(userId, changedBudgets);
+        if (!changedBudgets.isEmpty()) {
+            List<ExpenseCategory> changedCategories = changedBudgets.keySet().stream()
+                    .map(categoriesById::get)
+                    .toList();
+            budgetAlertService.evaluateCurrentMonth(userId, changedCategories, changedBudgets);
+        }
+        return new UpdateBudgetResultDto(new ArrayList<>(changedBudgets.keySet()));
+    }
+
     private String convertExpenseCategoriesToJSON(List<ExpenseCategory> categories) {
 
         StringBuilder json = new StringBuilder();
@@ -93,119 +159,118 @@ public class BudgetService {
      * @param month the month (1-12)
      * @param year the year
      * @return a BudgetBurndownDto containing budget burn-down data for each category
-     * @throws com.api.expenses.rest.exceptions.UserException if the user is not found
+     * @throws UserException if the user is not found
      */
-    public BudgetBurndownDto getBudgetBurndown(UUID userId, int month, int year) throws com.api.expenses.rest.exceptions.UserException {
-        // Get all expense categories with budgets for the user
-        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
-
-        // Get all expenses for the user for the specified month and year
-        List<Expense> monthlyExpenses = expenseService.getExpensesForAMonthOfAUser(userId, month, year);
-
-        // Calculate the number of days in the month
-        YearMonth yearMonth = YearMonth.of(year, month);
-        int daysInMonth = yearMonth.lengthOfMonth();
-
-        // Create a list to hold category burn-down data
-        List<CategoryBurndownDto> categoryBurndowns = new ArrayList<>();
+    public BudgetBurndownDto getBudgetBurndown(UUID userId, int month, int year) throws UserException {
+        return loadMonthBurndown(userId, month, year).toDto();
+    }
 
-        // Variables for "All Categories" calculation
-        float totalBudget = 0f;
-        float totalSpent = 0f;
-        Map<Integer, Float> totalDailySpending = new HashMap<>();
-        Map<Integer, Float> totalRemainingBudget = new HashMap<>();
+    /**
+     * Get budget burn-down data for a user for a specific month and year, with the day series as arrays.
+     *
+     * @param userId the user ID
+     * @param month the month (1-12)
+     * @param year the year
+     * @return a CompactBudgetBurndownDto containing budget burn-down data for each category
+     * @throws UserException if the user is not found
+     */
+    public CompactBudgetBurndownDto getCompactBudgetBurndown(UUID userId, int month, int year) throws UserException {
+        return loadMonthBurndown(userId, month, year).toCompactDto();
+    }
 
-        // Initialize with zero spending for all days in the total maps
-        for (int day = 1; day <= daysInMonth; day++) {
-            totalDailySpending.put(day, 0f);
-            totalRemainingBudget.put(day, 0f);
+    /**
+     * Get the budget burn-down of every month in a range, computed from a single grouped scan of the daily
+     * expense rollup over the whole range. The months are only built when the result is iterated, one at a time.
+     *
+     * @param userId the user ID
+     * @param from the first month, formatted as YYYY-MM
+     * @param to the last month, included, formatted as YYYY-MM
+     * @return the burn-down of every month of the range, oldest first
+     * @throws UserException if the user is not found
+     * @throws TransactionException if the months are invalid, in the wrong order or the range is too long
+     */
+    public MonthBurndownRange getBudgetBurndownRange(UUID userId, String from, String to)
+            throws UserException, TransactionException {
+        YearMonth fromMonth = parseMonth(from);
+        YearMonth toMonth = parseMonth(to);
+        if (toMonth.isBefore(fromMonth) || fromMonth.until(toMonth, ChronoUnit.MONTHS) >= MAX_BURNDOWN_RANGE_MONTHS) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
         }
 
-        // Process each category
-        for (ExpenseCategory category : categories) {
-            // Skip categories with no budget
-            if (category.getBudget() <= 0) {
-                continue;
-            }
+        if (!userService.userExists(userId)) {
+            throw new UserException(UserException.UserExceptionType.USER_NOT_FOUND);
+        }
 
-            // Filter expenses for this category
-            List<Expense> categoryExpenses = monthlyExpenses.stream()
-                .filter(expense -> expense.getCategoryId() == category.getId())
-                .collect(Collectors.toList());
+        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
+        List<DailyCategoryTotal> dailyTotals = expenseRollupRepository.findDailyCategoryTotalsByUserIdAndDateBetween(
+            userId, Date.valueOf(fromMonth.atDay(1)), Date.valueOf(toMonth.atEndOfMonth()));
 
-            // Calculate total spent for this category
-            float categoryTotalSpent = categoryExpenses.stream()
-                .map(Expense::getAmount)
-                .reduce(0f, Float::sum);
+        return new MonthBurndownRange(fromMonth, toMonth, categories, dailyTotals);
+    }
 
-            // Create maps for daily spending and remaining budget
-            Map<Integer, Float> dailySpending = new HashMap<>();
-            Map<Integer, Float> remainingBudget = new HashMap<>();
+    /**
+     * Get the end-of-month spending forecast of every budgeted category for a specific month and year.
+     * It is computed from a single grouped scan of the daily expense rollup, which is kept up to date as the
+     * expenses are written, over the month and the MonthForecast.HISTORY_MONTHS months before it, so its cost
+     * does not depend on the number of expenses.
+     *
+     * @param userId the user ID
+     * @param month the month (1-12)
+     * @param year the year
+     * @return a BudgetForecastDto containing the forecast of each category
+     * @throws UserException if the user is not found
+     */
+    public BudgetForecastDto getBudgetForecast(UUID userId, int month, int year) throws UserException {
+        if (!userService.userExists(userId)) {
+            throw new UserException(UserException.UserExceptionType.USER_NOT_FOUND);
+        }
 
-            // Initialize with zero spending for all days
-            for (int day = 1; day <= daysInMonth; day++) {
-                dailySpending.put(day, 0f);
-            }
+        YearMonth yearMonth = YearMonth.of(year, month);
+        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
+        List<DailyCategoryTotal> dailyTotals = expenseRollupRepository.findDailyCategoryTotalsByUserIdAndDateBetween(
+            userId, Date.valueOf(MonthForecast.firstHistoryMonth(yearMonth).atDay(1)),
+            Date.valueOf(yearMonth.atEndOfMonth()));
 
-            // Calculate daily spending
-            for (Expense expense : categoryExpenses) {
-                Date expenseDate = expense.getDate();
-                LocalDate localDate = expenseDate.toLocalDate();
-                int day = localDate.getDayOfMonth();
+        return MonthForecast.fromDailyTotals(yearMonth, LocalDate.now(), categories, dailyTotals).toDto();
+    }
 
-                // Add expense amount to the corresponding day
-                dailySpending.put(day, dailySpending.get(day) + expense.getAmount());
+    /**
+     * Get budget burn-down data from categories and expenses that were already loaded,
+     * so callers that need them for other purposes do not query them twice.
+     *
+     * @param categories the expense categories of the user
+     * @param monthlyExpenses the expenses of the user in the month
+     * @param month the month (1-12)
+     * @param year the year
+     * @return a BudgetBurndownDto containing budget burn-down data for each category
+     */
+    public BudgetBurndownDto getBudgetBurndown(List<ExpenseCategory> categories, List<Expense> monthlyExpenses,
+                                               int month, int year) {
+        return MonthBurndown.fromExpenses(YearMonth.of(year, month), categories, monthlyExpenses).toDto();
+    }
 
-                // Also add to the total daily spending
-                totalDailySpending.put(day, totalDailySpending.get(day) + expense.getAmount());
-            }
+    /**
+     * Loads the burn-down of a month from the daily expense rollup, grouped by day and category,
+     * so the work depends on the number of days and categories and not on the number of expenses.
+     */
+    private MonthBurndown loadMonthBurndown(UUID userId, int month, int year) throws UserException {
+        if (!userService.userExists(userId)) {
+            throw new UserException(UserException.UserExceptionType.USER_NOT_FOUND);
+        }
 
-            // Calculate remaining budget for each day
-            float runningTotal = 0f;
-            for (int day = 1; day <= daysInMonth; day++) {
-                runningTotal += dailySpending.get(day);
-                remainingBudget.put(day, category.getBudget() - runningTotal);
-            }
+        YearMonth yearMonth = YearMonth.of(year, month);
+        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
+        List<DailyCategoryTotal> dailyTotals = expenseRollupRepository.findDailyCategoryTotalsByUserIdAndDateBetween(
+            userId, Date.valueOf(yearMonth.atDay(1)), Date.valueOf(yearMonth.atEndOfMonth()));
 
-            // Create CategoryBurndownDto
-            CategoryBurndownDto categoryBurndown = new CategoryBurndownDto(
-                category.getId(),
-                category.getName(),
-                category.getBudget(),
-                categoryTotalSpent,
-                dailySpending,
-                remainingBudget
-            );
-
-            // Add to the list if there's spending in this category
-            categoryBurndowns.add(categoryBurndown);
-
-            // Update totals for "All Categories"
-            totalBudget += category.getBudget();
-            totalSpent += categoryTotalSpent;
-        }
+        return MonthBurndown.fromDailyTotals(yearMonth, categories, dailyTotals);
+    }
 
-        // Calculate total remaining budget for each day
-        float totalRunningSpent = 0f;
-        for (int day = 1; day <= daysInMonth; day++) {
-            totalRunningSpent += totalDailySpending.get(day);
-            totalRemainingBudget.put(day, totalBudget - totalRunningSpent);
+    private static YearMonth parseMonth(String month) throws TransactionException {
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
         }
-
-        // Create "All Categories" burndown data
-        CategoryBurndownDto allCategoriesBurndown = new CategoryBurndownDto(
-            -1, // Special ID for "All Categories"
-            "All Categories",
-            totalBudget,
-            totalSpent,
-            totalDailySpending,
-            totalRemainingBudget
-        );
-
-        // Add "All Categories" to the beginning of the list
-        categoryBurndowns.add(0, allCategoriesBurndown);
-
-        // Create and return BudgetBurndownDto
-        return new BudgetBurndownDto(month, year, categoryBurndowns);
     }
 }
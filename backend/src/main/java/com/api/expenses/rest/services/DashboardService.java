@@ -0,0 +1,116 @@
+package com.api.expenses.rest.services;
+
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.models.Expense;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetBurndownDto;
+import com.api.expenses.rest.models.dtos.DashboardDto;
+import com.api.expenses.rest.models.dtos.GetExpenseCategoryDto;
+import com.api.expenses.rest.models.dtos.GetTagDto;
+import com.api.expenses.rest.repositories.ExpenseRepository;
+import com.api.expenses.rest.utils.DateUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+@Service
+public class DashboardService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseCategoryService expenseCategoryService;
+    private final IncomeService incomeService;
+    private final TagService tagService;
+    private final BudgetService budgetService;
+    private final Executor executor;
+
+    @Autowired
+    public DashboardService(ExpenseRepository expenseRepository,
+                            ExpenseCategoryService expenseCategoryService,
+                            IncomeService incomeService,
+                            TagService tagService,
+                            BudgetService budgetService,
+                            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        this.expenseRepository = expenseRepository;
+        this.expenseCategoryService = expenseCategoryService;
+        this.incomeService = incomeService;
+        this.tagService = tagService;
+        this.budgetService = budgetService;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets everything the home screen shows for a month in a single call.
+     * The categories, the tags and the income total are loaded in parallel while the expenses of the month are
+     * loaded on the calling thread. The expenses and the categories are then shared by the list, the total spent
+     * and the burndown, so each of them is queried once.
+     * The user is not checked again, the caller is the authenticated user.
+     *
+     * @param userId the id of the authenticated user
+     * @param month the month (1-12)
+     * @param year the year
+     * @return the dashboard of the month
+     * @throws TransactionException if the month or the year is invalid
+     */
+    public DashboardDto getDashboard(UUID userId, int month, int year) throws TransactionException {
+        // Validated before any section is submitted
+        DateUtils.toYearMonth(month, year);
+
+        CompletableFuture<List<ExpenseCategory>> categoriesFuture = CompletableFuture.supplyAsync(
+                () -> expenseCategoryService.getCategoriesForUser(userId), executor);
+        CompletableFuture<List<GetTagDto>> tagsFuture = CompletableFuture.supplyAsync(
+                () -> tagService.getTagsByUserId(userId), executor);
+        CompletableFuture<Float> totalEarnedFuture = CompletableFuture.supplyAsync(
+                () -> incomeService.getTotalEarnedForAMonthForAUser(userId, month, year), executor);
+
+        List<Expense> expenses = expenseRepository.findByUserIdAndMonthAndYear(userId, month, year);
+        // Accumulated in double precision like the SQL SUM of /expenses/total-spent/monthly
+        double totalSpent = 0;
+        for (Expense expense : expenses) {
+            totalSpent += expense.getAmount();
+        }
+
+        List<ExpenseCategory> categories = join(categoriesFuture);
+        List<GetExpenseCategoryDto> categoryDtos = categories.stream()
+                .map(category -> new GetExpenseCategoryDto(
+                        category.getId(),
+                        category.getUserId(),
+                        category.getName(),
+                        category.getDescription(),
+                        category.getBudget()
+                ))
+                .toList();
+        BudgetBurndownDto burndown = budgetService.getBudgetBurndown(categories, expenses, month, year);
+
+        return new DashboardDto(
+                month,
+                year,
+                expenses,
+                (float) totalSpent,
+                join(totalEarnedFuture),
+                categoryDtos,
+                burndown,
+                join(tagsFuture)
+        );
+    }
+
+    /**
+     * Waits for a section and rethrows its failure as it was thrown on the worker thread.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
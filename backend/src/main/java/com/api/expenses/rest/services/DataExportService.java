@@ -0,0 +1,103 @@
+package com.api.expenses.rest.services;
+
+import com.api.expenses.rest.repositories.UserDataExportReader;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports all the data of a user as NDJSON: one JSON object per line, with a "type" field naming the record
+ * (user, currency, expenseCategory, incomeCategory, tag, expense or income) followed by its columns.
+ * Each row is written to the output as soon as it is read, nothing is collected in memory.
+ */
+@Service
+public class DataExportService {
+
+    private final UserDataExportReader userDataExportReader;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public DataExportService(UserDataExportReader userDataExportReader, ObjectMapper objectMapper) {
+        this.userDataExportReader = userDataExportReader;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the data of the user to the output stream, the stream is not closed.
+     *
+     * @param userId the user to export
+     * @param outputStream where the NDJSON is written
+     * @param gzip whether to gzip the NDJSON
+     * @throws IOException if the output cannot be written
+     */
+    @Transactional(readOnly = true)
+    public void exportUserData(UUID userId, OutputStream outputStream, boolean gzip) throws IOException {
+        GZIPOutputStream gzipOutputStream = gzip ? new GZIPOutputStream(outputStream) : null;
+        OutputStream target = gzip ? gzipOutputStream : outputStream;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            userDataExportReader.readUserData(userId, (type, row) -> writeRecord(generator, type, row));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (gzipOutputStream != null) {
+            gzipOutputStream.finish();
+        }
+        outputStream.flush();
+    }
+
+    private static void writeRecord(JsonGenerator generator, String type, ResultSet row) throws SQLException {
+        try {
+            ResultSetMetaData metaData = row.getMetaData();
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                generator.writeFieldName(metaData.getColumnLabel(column));
+                writeValue(generator, row, column, metaData.getColumnType(column));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeValue(JsonGenerator generator, ResultSet row, int column, int sqlType)
+            throws SQLException, IOException {
+        Object value = row.getObject(column);
+        if (value == null) {
+            generator.writeNull();
+            return;
+        }
+        switch (sqlType) {
+            case Types.BINARY, Types.VARBINARY -> {
+                // UUIDs are stored as BINARY(16), most significant bits first
+                ByteBuffer buffer = ByteBuffer.wrap(row.getBytes(column));
+                generator.writeString(new UUID(buffer.getLong(), buffer.getLong()).toString());
+            }
+            case Types.DATE -> generator.writeString(row.getDate(column).toString());
+            case Types.FLOAT, Types.REAL -> generator.writeNumber(row.getFloat(column));
+            case Types.DOUBLE -> generator.writeNumber(row.getDouble(column));
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> generator.writeNumber(row.getInt(column));
+            case Types.BIGINT -> generator.writeNumber(row.getLong(column));
+            case Types.BIT, Types.BOOLEAN -> generator.writeBoolean(row.getBoolean(column));
+            default -> generator.writeString(row.getString(column));
+        }
+    }
+}
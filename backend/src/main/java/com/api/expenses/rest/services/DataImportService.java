@@ -0,0 +1,284 @@
+package com.api.expenses.rest.services;
+
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.IncomeCategory;
+import com.api.expenses.rest.models.Tag;
+import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.dtos.ImportResultDto;
+import com.api.expenses.rest.repositories.CurrencyRepository;
+import com.api.expenses.rest.repositories.ExpenseCategoryRepository;
+import com.api.expenses.rest.repositories.IncomeCategoryRepository;
+import com.api.expenses.rest.repositories.TagRepository;
+import com.api.expenses.rest.repositories.TransactionBatchWriter;
+import com.api.expenses.rest.utils.DateUtils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports the records of a data export into the account of a user.
+ * The file is read record by record with a streaming parser, either as NDJSON (one record per line, as written by
+ * the export) or as a JSON array of the same records, so its size does not matter.
+ * <p>
+ * The ids of the file are remapped: currencies are matched by code, categories and tags by name. Categories and
+ * tags that do not exist are created. Currencies are shared by every user, so an unknown one is skipped, and so
+ * are the transactions in it. Expenses and incomes are inserted in batches of BATCH_SIZE, each batch in its own
+ * transaction. The user record of the file is ignored, the data is always imported into the given user.
+ */
+@Service
+public class DataImportService {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataImportService.class);
+    private static final String DEFAULT_TAG_COLOR = "#8c8c88";
+
+    private final UserService userService;
+    private final CurrencyRepository currencyRepository;
+    private final ExpenseCategoryRepository expenseCategoryRepository;
+    private final IncomeCategoryRepository incomeCategoryRepository;
+    private final TagRepository tagRepository;
+    private final TransactionBatchWriter transactionBatchWriter;
+    private final ExpenseRollupService expenseRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public DataImportService(UserService userService, CurrencyRepository currencyRepository,
+                             ExpenseCategoryRepository expenseCategoryRepository,
+                             IncomeCategoryRepository incomeCategoryRepository, TagRepository tagRepository,
+                             TransactionBatchWriter transactionBatchWriter, ExpenseRollupService expenseRollupService,
+                             PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.userService = userService;
+        this.currencyRepository = currencyRepository;
+        this.expenseCategoryRepository = expenseCategoryRepository;
+        this.incomeCategoryRepository = incomeCategoryRepository;
+        this.tagRepository = tagRepository;
+        this.transactionBatchWriter = transactionBatchWriter;
+        this.expenseRollupService = expenseRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports the records of the input stream into the account of the user.
+     * The batches that were inserted before an invalid record are kept.
+     *
+     * @param userId the user to import the data into
+     * @param inputStream the NDJSON or JSON array of exported records
+     * @return the number of records imported of every type
+     * @throws TransactionException if the user is not found or the file is not a valid export
+     * @throws IOException if the input stream cannot be read
+     */
+    public ImportResultDto importUserData(UUID userId, InputStream inputStream) throws TransactionException, IOException {
+        User user = userService.getUserById(userId).orElseThrow(
+                () -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+
+        Import userImport = new Import(user);
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_IMPORT);
+                }
+                userImport.importRecord(objectMapper.readTree(parser));
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            LOG.debug("Invalid import file: {}", e.getMessage());
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_IMPORT);
+        }
+
+        userImport.flush();
+        return userImport.result();
+    }
+
+    /**
+     * Imports records that were not read from a file, e.g. generated ones, the same way as the records of a file.
+     *
+     * @param userId the user to import the data into
+     * @param records the records of a data export, in the order of an export
+     * @return the number of records imported of every type
+     * @throws TransactionException if the user is not found or a record is not valid
+     */
+    public ImportResultDto importRecords(UUID userId, Iterable<? extends JsonNode> records) throws TransactionException {
+        User user = userService.getUserById(userId).orElseThrow(
+                () -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+
+        Import userImport = new Import(user);
+        for (JsonNode record : records) {
+            userImport.importRecord(record);
+        }
+
+        userImport.flush();
+        return userImport.result();
+    }
+
+    /**
+     * The state of a single import: the id mappings and the transactions waiting to be inserted.
+     */
+    private class Import {
+        private final User user;
+        private final Map<String, Integer> currencyIdsByCode = new HashMap<>();
+        private final Map<String, Integer> expenseCategoryIdsByName = new HashMap<>();
+        private final Map<String, Integer> incomeCategoryIdsByName = new HashMap<>();
+        private final Map<String, Integer> tagIdsByName = new HashMap<>();
+
+        private final Map<Integer, Integer> currencyIds = new HashMap<>();
+        private final Map<Integer, Integer> expenseCategoryIds = new HashMap<>();
+        private final Map<Integer, Integer> incomeCategoryIds = new HashMap<>();
+        private final Map<Integer, Integer> tagIds = new HashMap<>();
+
+        private final List<TransactionBatchWriter.Row> expenses = new ArrayList<>(BATCH_SIZE);
+        private final List<TransactionBatchWriter.Row> incomes = new ArrayList<>(BATCH_SIZE);
+
+        private int currencyCount;
+        private int expenseCategoryCount;
+        private int incomeCategoryCount;
+        private int tagCount;
+        private int expenseCount;
+        private int incomeCount;
+        private int skipped;
+
+        Import(User user) {
+            this.user = user;
+            currencyRepository.findAll().forEach(currency -> currencyIdsByCode.put(currency.getCode(), currency.getId()));
+            expenseCategoryRepository.findByUserId(user.getId())
+                    .forEach(category -> expenseCategoryIdsByName.put(category.getName(), category.getId()));
+            incomeCategoryRepository.findByUserId(user.getId())
+                    .forEach(category -> incomeCategoryIdsByName.put(category.getName(), category.getId()));
+            tagRepository.findByUserId(user.getId()).forEach(tag -> tagIdsByName.put(tag.getName(), tag.getId()));
+        }
+
+        void importRecord(JsonNode record) throws TransactionException {
+            String type = record.path("type").asText();
+            switch (type) {
+                case "user" -> {
+                    // the data is imported into the authenticated user
+                }
+                case "currency" -> {
+                    Integer currencyId = currencyIdsByCode.get(record.path("code").asText());
+                    if (currencyId == null) {
+                        skipped++;
+                    } else {
+                        currencyIds.put(record.path("id").asInt(), currencyId);
+                        currencyCount++;
+                    }
+                }
+                case "expenseCategory" -> {
+                    String name = record.path("name").asText();
+                    Integer categoryId = expenseCategoryIdsByName.get(name);
+                    if (categoryId == null) {
+                        ExpenseCategory category = new ExpenseCategory(user, name,
+                                record.path("budget").floatValue(), textOrNull(record, "description"));
+                        category.setAlertThresholds(textOrNull(record, "alertThresholds"));
+                        categoryId = expenseCategoryRepository.save(category).getId();
+                        expenseCategoryIdsByName.put(name, categoryId);
+                    }
+                    expenseCategoryIds.put(record.path("id").asInt(), categoryId);
+                    expenseCategoryCount++;
+                }
+                case "incomeCategory" -> {
+                    String name = record.path("name").asText();
+                    Integer categoryId = incomeCategoryIdsByName.get(name);
+                    if (categoryId == null) {
+                        categoryId = incomeCategoryRepository.save(new IncomeCategory(user, name,
+                                textOrNull(record, "description"))).getId();
+                        incomeCategoryIdsByName.put(name, categoryId);
+                    }
+                    incomeCategoryIds.put(record.path("id").asInt(), categoryId);
+                    incomeCategoryCount++;
+                }
+                case "tag" -> {
+                    String name = record.path("name").asText();
+                    Integer tagId = tagIdsByName.get(name);
+                    if (tagId == null) {
+                        String color = record.hasNonNull("color") ? record.get("color").asText() : DEFAULT_TAG_COLOR;
+                        tagId = tagRepository.save(new Tag(name, textOrNull(record, "description"), user, color)).getId();
+                        tagIdsByName.put(name, tagId);
+                    }
+                    tagIds.put(record.path("id").asInt(), tagId);
+                    tagCount++;
+                }
+                case "expense" -> addTransaction(record, expenseCategoryIds, expenses);
+                case "income" -> addTransaction(record, incomeCategoryIds, incomes);
+                default -> skipped++;
+            }
+        }
+
+        private void addTransaction(JsonNode record, Map<Integer, Integer> categoryIds,
+                                    List<TransactionBatchWriter.Row> pending) throws TransactionException {
+            Integer categoryId = categoryIds.get(record.path("categoryId").asInt());
+            Integer currencyId = currencyIds.get(record.path("currencyId").asInt());
+            Integer tagId = record.hasNonNull("tagId") ? tagIds.get(record.get("tagId").asInt()) : null;
+            boolean missingTag = record.hasNonNull("tagId") && tagId == null;
+            if (categoryId == null || currencyId == null || missingTag || !record.hasNonNull("date")) {
+                skipped++;
+                return;
+            }
+
+            Date date;
+            try {
+                date = Date.valueOf(record.get("date").asText());
+            } catch (IllegalArgumentException e) {
+                throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_IMPORT);
+            }
+
+            pending.add(new TransactionBatchWriter.Row(user.getId(), categoryId, currencyId, tagId,
+                    record.path("amount").floatValue(), date, textOrNull(record, "description"),
+                    DateUtils.getMonthOfTheYear(date), DateUtils.getYearOfTheDate(date), DateUtils.getWeekOfTheYear(date)));
+            if (pending.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Inserts the pending expenses and incomes, in one transaction.
+         */
+        void flush() {
+            if (expenses.isEmpty() && incomes.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionBatchWriter.insertExpenses(expenses);
+                expenseRollupService.recordExpenses(expenses);
+                transactionBatchWriter.insertIncomes(incomes);
+            });
+            expenseCount += expenses.size();
+            incomeCount += incomes.size();
+            expenses.clear();
+            incomes.clear();
+            LOG.info("Imported {} expenses and {} incomes for user {}", expenseCount, incomeCount, user.getId());
+        }
+
+        ImportResultDto result() {
+            return new ImportResultDto(currencyCount, expenseCategoryCount, incomeCategoryCount, tagCount,
+                    expenseCount, incomeCount, skipped);
+        }
+
+        private static String textOrNull(JsonNode record, String field) {
+            return record.hasNonNull(field) ? record.get(field).asText() : null;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.api.expenses.rest.services;
+
+import com.api.expenses.rest.models.Expense;
+import com.api.expenses.rest.models.dtos.RollupConsistencyDto;
+import com.api.expenses.rest.models.dtos.RollupConsistencyDto.MismatchDto;
+import com.api.expenses.rest.models.projections.DailyRollupTotal;
+import com.api.expenses.rest.repositories.BudgetMonthProgressRepository;
+import com.api.expenses.rest.repositories.ExpenseDailyRollupRepository;
+import com.api.expenses.rest.repositories.TransactionBatchWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.*;
+
+/**
+ * Maintains the daily expense rollup: one row per user, day, category, tag and currency with the total
+ * and the number of expenses, and the month-to-date total of every category the budget alerts are evaluated on.
+ * The record and remove methods must run in the transaction that writes the expense, so that the rollup is
+ * never out of sync with the expenses.
+ */
+@Service
+public class ExpenseRollupService {
+
+    /**
+     * Totals are accumulated in a different order than the database sums them, so they may differ slightly.
+     */
+    private static final double TOTAL_TOLERANCE = 0.005;
+
+    private final ExpenseDailyRollupRepository rollupRepository;
+    private final BudgetMonthProgressRepository monthProgressRepository;
+    private final TransactionBatchWriter transactionBatchWriter;
+
+    @Autowired
+    public ExpenseRollupService(ExpenseDailyRollupRepository rollupRepository,
+                                BudgetMonthProgressRepository monthProgressRepository,
+                                TransactionBatchWriter transactionBatchWriter) {
+        this.rollupRepository = rollupRepository;
+        this.monthProgressRepository = monthProgressRepository;
+        this.transactionBatchWriter = transactionBatchWriter;
+    }
+
+    /**
+     * Adds an expense to the rollup.
+     *
+     * @param expense the expense, with its user, category and currency set
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpense(Expense expense) {
+        RollupKey key = RollupKey.of(expense);
+        rollupRepository.addToRollup(key.userId(), key.date(), key.categoryId(), key.tagId(), key.currencyId(),
+                expense.getYear(), expense.getMonth(), expense.getWeek(), expense.getAmount(), 1);
+        addToMonthTotal(key, expense, expense.getAmount());
+    }
+
+    /**
+     * Adds expenses inserted in bulk to the rollup, with one statement per rollup key.
+     *
+     * @param rows the inserted expenses
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenses(List<TransactionBatchWriter.Row> rows) {
+        transactionBatchWriter.addToExpenseRollup(rows);
+        transactionBatchWriter.addToBudgetMonthProgress(rows);
+    }
+
+    /**
+     * Removes an expense from the rollup, it must be called with the expense as it is stored in the database.
+     *
+     * @param expense the expense, with its user, category and currency set
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeExpense(Expense expense) {
+        RollupKey key = RollupKey.of(expense);
+        rollupRepository.addToRollup(key.userId(), key.date(), key.categoryId(), key.tagId(), key.currencyId(),
+                expense.getYear(), expense.getMonth(), expense.getWeek(), -expense.getAmount(), -1);
+        rollupRepository.deleteEmptyRollup(key.userId(), key.date(), key.categoryId(), key.tagId(), key.currencyId());
+        addToMonthTotal(key, expense, -expense.getAmount());
+    }
+
+    /**
+     * Rebuilds the rollup of a user from the expenses, and the month totals from the rollup.
+     *
+     * @param userId the user ID
+     * @return the number of rollup rows written
+     */
+    @Transactional
+    public int rebuildForUser(UUID userId) {
+        rollupRepository.deleteRollupByUserId(userId);
+        int rows = rollupRepository.rebuildRollupByUserId(userId);
+        monthProgressRepository.resetTotalsByUserId(userId);
+        monthProgressRepository.rebuildTotalsByUserId(userId);
+        return rows;
+    }
+
+    /**
+     * Rebuilds the rollup of every user from the expenses, and the month totals from the rollup.
+     *
+     * @return the number of rollup rows written
+     */
+    @Transactional
+    public int rebuildAll() {
+        rollupRepository.deleteAllRollups();
+        int rows = rollupRepository.rebuildAllRollups();
+        monthProgressRepository.resetAllTotals();
+        monthProgressRepository.rebuildAllTotals();
+        return rows;
+    }
+
+    /**
+     * Compares the rollup of a user with the aggregate of the expenses.
+     *
+     * @param userId the user ID
+     * @return the mismatching rows, if any
+     */
+    @Transactional(readOnly = true)
+    public RollupConsistencyDto checkConsistency(UUID userId) {
+        Map<RollupKey, DailyRollupTotal> expected = indexByKey(userId, rollupRepository.aggregateExpensesByUserId(userId));
+        Map<RollupKey, DailyRollupTotal> actual = indexByKey(userId, rollupRepository.findRollupByUserId(userId));
+
+        Set<RollupKey> keys = new TreeSet<>(Comparator.comparing(RollupKey::date)
+                .thenComparingInt(RollupKey::categoryId)
+                .thenComparingInt(RollupKey::tagId)
+                .thenComparingInt(RollupKey::currencyId));
+        keys.addAll(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        List<MismatchDto> mismatches = new ArrayList<>();
+        for (RollupKey key : keys) {
+            double expectedTotal = total(expected.get(key));
+            double rollupTotal = total(actual.get(key));
+            long expectedCount = count(expected.get(key));
+            long rollupCount = count(actual.get(key));
+
+            if (expectedCount != rollupCount || Math.abs(expectedTotal - rollupTotal) > TOTAL_TOLERANCE) {
+                mismatches.add(new MismatchDto(key.date().toString(), key.categoryId(), key.tagId(), key.currencyId(),
+                        expectedTotal, rollupTotal, expectedCount, rollupCount));
+            }
+        }
+
+        return new RollupConsistencyDto(mismatches.isEmpty(), expected.size(), actual.size(), mismatches);
+    }
+
+    /**
+     * Expenses without a category have no budget, they are only kept in the daily rollup.
+     */
+    private void addToMonthTotal(RollupKey key, Expense expense, double amount) {
+        if (key.categoryId() != 0) {
+            monthProgressRepository.addToTotal(key.userId(), key.categoryId(), expense.getYear(), expense.getMonth(), amount);
+        }
+    }
+
+    private static Map<RollupKey, DailyRollupTotal> indexByKey(UUID userId, List<DailyRollupTotal> rows) {
+        Map<RollupKey, DailyRollupTotal> rowsByKey = new HashMap<>();
+        for (DailyRollupTotal row : rows) {
+            rowsByKey.put(new RollupKey(userId, row.getDate(), row.getCategoryId(), row.getTagId(), row.getCurrencyId()), row);
+        }
+        return rowsByKey;
+    }
+
+    private static double total(DailyRollupTotal row) {
+        return row == null || row.getTotal() == null ? 0d : row.getTotal();
+    }
+
+    private static long count(DailyRollupTotal row) {
+        return row == null || row.getExpenseCount() == null ? 0L : row.getExpenseCount();
+    }
+
+    /**
+     * Key of a rollup row, missing categories, tags and currencies are stored as 0.
+     */
+    private record RollupKey(UUID userId, Date date, int categoryId, int tagId, int currencyId) {
+
+        /**
+         * Reads the key from the relations of the expense, falling back to the id columns when a relation is not set.
+         */
+        static RollupKey of(Expense expense) {
+            UUID userId = expense.getUser() != null ? expense.getUser().getId() : expense.getUserId();
+            int categoryId = expense.getCategory() != null ? expense.getCategory().getId() : expense.getCategoryId();
+            int currencyId = expense.getCurrency() != null ? expense.getCurrency().getId() : expense.getCurrencyId();
+            Integer tagId = expense.getTag() != null ? Integer.valueOf(expense.getTag().getId()) : expense.getTagId();
+            return new RollupKey(userId, expense.getDate(), categoryId, tagId != null ? tagId : 0, currencyId);
+        }
+    }
+}
@@ -3,31 +3,60 @@ package com.api.expenses.rest.services;
 import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.exceptions.UserException;
 import com.api.expenses.rest.models.*;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto.ItemResultDto;
 import com.api.expenses.rest.models.dtos.CategoryComparisonDto;
 import com.api.expenses.rest.models.dtos.CategoryComparisonResponseDto;
+import com.api.expenses.rest.models.dtos.CategoryTrendDto;
+import com.api.expenses.rest.models.dtos.CategoryTrendDto.CategoryTrendSeriesDto;
 import com.api.expenses.rest.models.dtos.CreateExpenseDto;
 import com.api.expenses.rest.models.dtos.GetTagDto;
+import com.api.expenses.rest.models.dtos.TransactionPageDto;
+import com.api.expenses.rest.models.projections.CategoryPeriodTotal;
 import com.api.expenses.rest.repositories.CurrencyRepository;
 import com.api.expenses.rest.repositories.ExpenseCategoryRepository;
 import com.api.expenses.rest.repositories.ExpenseRepository;
 import com.api.expenses.rest.repositories.TagRepository;
+import com.api.expenses.rest.repositories.TransactionBatchWriter;
 import com.api.expenses.rest.utils.DateUtils;
+import com.api.expenses.rest.utils.KeysetPagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Month;
+import java.time.Year;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import java.sql.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ExpenseService {
 
+    /**
+     * Maximum number of expenses of a bulk creation.
+     */
+    public static final int MAX_BULK_SIZE = 5000;
+
+    /**
+     * Maximum number of periods of a category trend.
+     */
+    public static final int MAX_TREND_PERIODS = 60;
+
     private final ExpenseRepository expenseRepository;
 
     private final ExpenseCategoryRepository expenseCategoryRepository;
@@ -38,6 +67,9 @@ public class ExpenseService {
 
     private final UserService userService;
     private final ExpenseCategoryService expenseCategoryService;
+    private final ExpenseRollupService expenseRollupService;
+    private final BudgetAlertService budgetAlertService;
+    private final TransactionBatchWriter transactionBatchWriter;
 
     @Autowired
     public ExpenseService(ExpenseRepository expenseRepository,
@@ -46,7 +78,10 @@ public class ExpenseService {
                           @Lazy UserService userService,
                           ExpenseCategoryService expenseCategoryService,
                           TagRepository tagRepository,
-                          TagService tagService) {
+                          TagService tagService,
+                          ExpenseRollupService expenseRollupService,
+                          BudgetAlertService budgetAlertService,
+                          TransactionBatchWriter transactionBatchWriter) {
         this.expenseRepository = expenseRepository;
         this.expenseCategoryRepository = expenseCategoryRepository;
         this.currencyRepository = currencyRepository;
@@ -54,6 +89,9 @@ public class ExpenseService {
         this.expenseCategoryService = expenseCategoryService;
         this.tagRepository = tagRepository;
         this.tagService = tagService;
+        this.expenseRollupService = expenseRollupService;
+        this.budgetAlertService = budgetAlertService;
+        this.transactionBatchWriter = transactionBatchWriter;
     }
 
     public List<Expense> getExpensesForAMonthOfAUser(UUID userId, int month, int year) throws UserException {
@@ -64,13 +102,14 @@ public class ExpenseService {
     }
 
     /**
-     * Saves an expense
+     * Saves an expense, adds it to the daily rollup and evaluates the budget alerts of its category
      *
      * @param expenseFromRequest
      * @param userId
      * @return the id of the saved expense
      * @throws TransactionException
      */
+    @Transactional(rollbackFor = TransactionException.class)
     public int saveExpense(CreateExpenseDto expenseFromRequest, UUID userId) throws TransactionException {
         User user = userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
@@ -111,7 +150,99 @@ public class ExpenseService {
                 currency,
                 tag
         );
-        return expenseRepository.save(expense).getId();
+        Expense savedExpense = expenseRepository.save(expense);
+        expenseRollupService.recordExpense(savedExpense);
+        budgetAlertService.evaluate(userId, expenseCategory, date);
+        return savedExpense.getId();
+    }
+
+    /**
+     * Saves many expenses at once and adds them to the daily rollup.
+     * The categories, currencies and tags of all the expenses are validated with one query each, the invalid
+     * expenses are reported and skipped, the valid ones are inserted in JDBC batches.
+     *
+     * @param expensesFromRequest the expenses to save, at most MAX_BULK_SIZE
+     * @param userId
+     * @return the id or the error of each expense, in the order of the request
+     * @throws TransactionException if the user is not found or there are too many expenses
+     */
+    @Transactional(rollbackFor = TransactionException.class)
+    public BulkCreateResultDto saveExpenses(List<CreateExpenseDto> expensesFromRequest, UUID userId) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+
+        if (expensesFromRequest.size() > MAX_BULK_SIZE) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.TOO_MANY_TRANSACTIONS);
+        }
+
+        Map<Integer, ExpenseCategory> categoriesById = expenseCategoryRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(ExpenseCategory::getId, category -> category));
+        Set<Integer> categoryIds = categoriesById.keySet();
+        Set<Integer> tagIds = tagRepository.findByUserId(userId).stream()
+                .map(Tag::getId)
+                .collect(Collectors.toSet());
+        Set<Integer> currencyIds = currencyRepository.findAllById(expensesFromRequest.stream()
+                        .filter(Objects::nonNull)
+                        .map(CreateExpenseDto::currencyId)
+                        .collect(Collectors.toSet())).stream()
+                .map(Currency::getId)
+                .collect(Collectors.toSet());
+
+        ItemResultDto[] results = new ItemResultDto[expensesFromRequest.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<TransactionBatchWriter.Row> rows = new ArrayList<>();
+
+        for (int i = 0; i < expensesFromRequest.size(); i++) {
+            CreateExpenseDto expense = expensesFromRequest.get(i);
+            // A null element of the JSON array
+            if (expense == null) {
+                results[i] = new ItemResultDto(i, null,
+                        TransactionException.TransactionExceptionType.MISSING_TRANSACTION.getMessage());
+                continue;
+            }
+            Integer tagId = expense.tagId() != null ? expense.tagId().orElse(null) : null;
+
+            TransactionException.TransactionExceptionType error = null;
+            if (!categoryIds.contains(expense.categoryId())) {
+                error = TransactionException.TransactionExceptionType.CATEGORY_NOT_FOUND;
+            } else if (!currencyIds.contains(expense.currencyId())) {
+                error = TransactionException.TransactionExceptionType.CURRENCY_NOT_FOUND;
+            } else if (tagId != null && !tagIds.contains(tagId)) {
+                error = TransactionException.TransactionExceptionType.TAG_NOT_FOUND;
+            } else if (expense.amount() < 0) {
+                error = TransactionException.TransactionExceptionType.NEGATIVE_AMOUNT;
+            } else if (expense.date() == null) {
+                error = TransactionException.TransactionExceptionType.MISSING_DATE;
+            }
+
+            if (error != null) {
+                results[i] = new ItemResultDto(i, null, error.getMessage());
+                continue;
+            }
+
+            Date date = expense.date();
+            rows.add(new TransactionBatchWriter.Row(userId, expense.categoryId(), expense.currencyId(), tagId,
+                    expense.amount(), date, expense.description(), DateUtils.getMonthOfTheYear(date),
+                    DateUtils.getYearOfTheDate(date), DateUtils.getWeekOfTheYear(date)));
+            validIndexes.add(i);
+        }
+
+        List<Integer> ids = transactionBatchWriter.insertExpenses(rows);
+        expenseRollupService.recordExpenses(rows);
+
+        // Once per category and month, after all the expenses were added to the totals
+        Map<List<Integer>, Date> categoryMonths = new LinkedHashMap<>();
+        for (TransactionBatchWriter.Row row : rows) {
+            categoryMonths.putIfAbsent(List.of(row.categoryId(), row.year(), row.month()), row.date());
+        }
+        categoryMonths.forEach((categoryMonth, date) ->
+                budgetAlertService.evaluate(userId, categoriesById.get(categoryMonth.get(0)), date));
+
+        for (int i = 0; i < validIndexes.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = new ItemResultDto(index, ids.get(i), null);
+        }
+
+        return new BulkCreateResultDto(rows.size(), results.length - rows.size(), Arrays.asList(results));
     }
 
     public List<Expense> getExpensesForAYearOfAUser(UUID userId, int year) throws TransactionException {
@@ -150,87 +281,160 @@ public class ExpenseService {
         return expenseRepository.findByUserIdAndYearAndCategoryId(userId, year, categoryId);
     }
 
+    /**
+     * Gets a page of the expenses of a month, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of expenses of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the user is not found, the period is invalid or the cursor is invalid
+     */
+    public TransactionPageDto<Expense> getExpensesPageForAMonthOfAUser(UUID userId, int month, int year,
+                                                                       String cursor, int pageSize) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+        YearMonth period = DateUtils.toYearMonth(month, year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                expenseRepository.findPageByUserIdAndDateBetween(userId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
+    /**
+     * Gets a page of the expenses of a year, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of expenses of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the user is not found, the year or the cursor is invalid
+     */
+    public TransactionPageDto<Expense> getExpensesPageForAYearOfAUser(UUID userId, int year,
+                                                                      String cursor, int pageSize) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+        Year period = DateUtils.toYear(year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                expenseRepository.findPageByUserIdAndDateBetween(userId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atMonth(12).atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
+    /**
+     * Gets a page of the expenses of a category in a month, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of expenses of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the user is not found, the period is invalid or the cursor is invalid
+     */
+    public TransactionPageDto<Expense> getExpensesPageForAMonthOfAUserByCategory(UUID userId, int month, int year, int categoryId,
+                                                                                 String cursor, int pageSize) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+        YearMonth period = DateUtils.toYearMonth(month, year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                expenseRepository.findPageByUserIdAndCategoryIdAndDateBetween(userId, categoryId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
+    /**
+     * Gets a page of the expenses of a category in a year, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of expenses of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the user is not found, the year or the cursor is invalid
+     */
+    public TransactionPageDto<Expense> getExpensesPageForAYearOfAUserByCategory(UUID userId, int year, int categoryId,
+                                                                                String cursor, int pageSize) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+        Year period = DateUtils.toYear(year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                expenseRepository.findPageByUserIdAndCategoryIdAndDateBetween(userId, categoryId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atMonth(12).atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
+    /**
+     * Gets a page of the expenses of a tag in a month, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of expenses of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the user is not found, the period is invalid or the cursor is invalid
+     */
+    public TransactionPageDto<Expense> getExpensesPageForAMonthOfAUserByTag(UUID userId, int month, int year, int tagId,
+                                                                            String cursor, int pageSize) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+        YearMonth period = DateUtils.toYearMonth(month, year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                expenseRepository.findPageByUserIdAndTagIdAndDateBetween(userId, tagId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
     public float getTotalSpentForAMonthOfAUser(UUID userId, int month, int year) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndMonthAndYear(userId, month, year);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndMonthAndYear(userId, month, year);
     }
 
     public float getTotalSpentForAYearOfAUser(UUID userId, int year) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndYear(userId, year);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndYear(userId, year);
     }
 
     public float getTotalSpentForAWeekOfAUser(UUID userId, int week, int year) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndWeekAndYear(userId, week, year);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndWeekAndYear(userId, week, year);
     }
 
     public float getTotalSpentForAYearOfAUserByCategory(UUID userId, int year, int categoryId) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndYearAndCategoryId(userId, year, categoryId);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndYearAndCategoryId(userId, year, categoryId);
     }
 
     public float getTotalSpentForAMonthOfAUserByCategory(UUID userId, int month, int year, int categoryId) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndMonthAndYearAndCategoryId(userId, month, year, categoryId);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndMonthAndYearAndCategoryId(userId, month, year, categoryId);
     }
 
     public float getTotalSpentForAMonthOfAUserByTag(UUID userId, int month, int year, int tagId) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndMonthAndYearAndTagId(userId, month, year, tagId);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndMonthAndYearAndTagId(userId, month, year, tagId);
     }
 
     public float getTotalSpentForAWeekOfAUserByCategory(UUID userId, int week, int year, int categoryId) throws TransactionException {
         userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
 
-        List<Expense> expenses = expenseRepository.findByUserIdAndWeekAndYearAndCategoryId(userId, week, year, categoryId);
-        float totalSpent = 0;
-        for (Expense expense : expenses) {
-            totalSpent += expense.getAmount();
-        }
-        return totalSpent;
+        return (float) expenseRepository.sumAmountByUserIdAndWeekAndYearAndCategoryId(userId, week, year, categoryId);
     }
 
+    /**
+     * Deletes an expense, removes it from the daily rollup and re-evaluates the budget alerts of its category
+     *
+     * @param expenseId
+     */
+    @Transactional
     public void deleteExpense(int expenseId) {
+        expenseRepository.findById(expenseId).ifPresent(expense -> {
+            expenseRollupService.removeExpense(expense);
+            budgetAlertService.evaluate(expense.getUserId(), expense.getCategory(), expense.getDate());
+        });
         expenseRepository.deleteById(expenseId);
     }
 
+    /**
+     * Updates an expense, moves its amount in the daily rollup from the stored values to the new ones and
+     * re-evaluates the budget alerts of the categories it was moved from and to
+     *
+     * @param expense
+     * @throws TransactionException
+     */
+    @Transactional(rollbackFor = TransactionException.class)
     public void updateExpense(Expense expense) throws TransactionException {
         ExpenseCategory expenseCategory = expenseCategoryService.
                 getCategoryById(expense.getCategoryId()).
@@ -264,7 +468,21 @@ public class ExpenseService {
         expense.setMonth(month);
         expense.setYear(year);
 
-        expenseRepository.save(expense);
+        // The stored expense must leave the rollup before the save merges the new values into it
+        Optional<Expense> storedExpense = expenseRepository.findById(expense.getId());
+        storedExpense.ifPresent(expenseRollupService::removeExpense);
+        ExpenseCategory previousCategory = storedExpense.map(Expense::getCategory).orElse(null);
+        Date previousDate = storedExpense.map(Expense::getDate).orElse(null);
+
+        Expense savedExpense = expenseRepository.save(expense);
+        expenseRollupService.recordExpense(savedExpense);
+
+        budgetAlertService.evaluate(user.getId(), expenseCategory, date);
+        // The month the expense was moved out of may fall below a threshold again
+        if (previousCategory != null && (previousCategory.getId() != expenseCategory.getId()
+                || !YearMonth.from(previousDate.toLocalDate()).equals(YearMonth.from(date.toLocalDate())))) {
+            budgetAlertService.evaluate(user.getId(), previousCategory, previousDate);
+        }
     }
 
     public boolean expenseExists(int expenseId) {
@@ -302,7 +520,7 @@ public class ExpenseService {
      * @param currentYear The year of the current period (required if currentPeriodType is "month")
      * @param previousYear The year of the previous period (required if previousPeriodType is "month")
      * @return A DTO containing the comparison data
-     * @throws TransactionException If the user is not found
+     * @throws TransactionException If the user is not found or a period is invalid
      */
     public CategoryComparisonResponseDto compareCategoriesBetweenPeriods(
             UUID userId,
@@ -325,46 +543,19 @@ public class ExpenseService {
         float totalCurrentPeriod = 0;
         float totalPreviousPeriod = 0;
 
+        // One grouped query per period gives the totals of every category, the periods are validated first
+        Map<Integer, Double> currentPeriodTotals = getCategoryTotalsOfPeriod(
+                userId, currentPeriodType, currentPeriodValue, currentYear);
+        Map<Integer, Double> previousPeriodTotals = getCategoryTotalsOfPeriod(
+                userId, previousPeriodType, previousPeriodValue, previousYear);
+
         // Generate period labels
         String currentPeriodLabel = generatePeriodLabel(currentPeriodType, currentPeriodValue, currentYear);
         String previousPeriodLabel = generatePeriodLabel(previousPeriodType, previousPeriodValue, previousYear);
 
-        // For each category, get expenses for both periods and calculate comparison data
         for (ExpenseCategory category : categories) {
-            List<Expense> currentPeriodExpenses;
-            List<Expense> previousPeriodExpenses;
-
-            // Get expenses for current period
-            if ("month".equals(currentPeriodType)) {
-                if (currentYear == null) {
-                    throw new IllegalArgumentException("Current year is required when period type is month");
-                }
-                currentPeriodExpenses = expenseRepository.findByUserIdAndMonthAndYearAndCategoryId(
-                        userId, currentPeriodValue, currentYear, category.getId());
-            } else if ("year".equals(currentPeriodType)) {
-                currentPeriodExpenses = expenseRepository.findByUserIdAndYearAndCategoryId(
-                        userId, currentPeriodValue, category.getId());
-            } else {
-                throw new IllegalArgumentException("Invalid current period type: " + currentPeriodType);
-            }
-
-            // Get expenses for previous period
-            if ("month".equals(previousPeriodType)) {
-                if (previousYear == null) {
-                    throw new IllegalArgumentException("Previous year is required when period type is month");
-                }
-                previousPeriodExpenses = expenseRepository.findByUserIdAndMonthAndYearAndCategoryId(
-                        userId, previousPeriodValue, previousYear, category.getId());
-            } else if ("year".equals(previousPeriodType)) {
-                previousPeriodExpenses = expenseRepository.findByUserIdAndYearAndCategoryId(
-                        userId, previousPeriodValue, category.getId());
-            } else {
-                throw new IllegalArgumentException("Invalid previous period type: " + previousPeriodType);
-            }
-
-            // Calculate totals for this category
-            float currentPeriodTotal = calculateTotal(currentPeriodExpenses);
-            float previousPeriodTotal = calculateTotal(previousPeriodExpenses);
+            float currentPeriodTotal = currentPeriodTotals.getOrDefault(category.getId(), 0d).floatValue();
+            float previousPeriodTotal = previousPeriodTotals.getOrDefault(category.getId(), 0d).floatValue();
 
             // Skip categories with no expenses in either period
             if (currentPeriodTotal == 0 && previousPeriodTotal == 0) {
@@ -427,13 +618,106 @@ public class ExpenseService {
     }
 
     /**
-     * Calculates the total amount for a list of expenses.
+     * Gets the spending of every category over consecutive periods ending with the given one, with one grouped query.
+     *
+     * @param userId The ID of the user
+     * @param periodType The type of the periods ("month" or "year")
+     * @param periods The number of periods, at most MAX_TREND_PERIODS
+     * @param month The month of the last period (required if periodType is "month")
+     * @param year The year of the last period
+     * @return the amounts of every category with expenses in any of the periods, oldest period first
+     * @throws TransactionException If the user is not found or the periods are invalid
      */
-    private float calculateTotal(List<Expense> expenses) {
-        float total = 0;
-        for (Expense expense : expenses) {
-            total += expense.getAmount();
+    public CategoryTrendDto getCategoryTrend(UUID userId, String periodType, int periods, Integer month, int year)
+            throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() ->
+            new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+
+        if (periods < 1 || periods > MAX_TREND_PERIODS) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+
+        List<String> periodLabels = new ArrayList<>(periods);
+        Map<Integer, double[]> amountsByCategory = new HashMap<>();
+
+        if ("month".equals(periodType)) {
+            if (month == null) {
+                throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+            }
+            YearMonth lastMonth = DateUtils.toYearMonth(month, year);
+            YearMonth firstMonth = lastMonth.minusMonths(periods - 1);
+            for (YearMonth period = firstMonth; !period.isAfter(lastMonth); period = period.plusMonths(1)) {
+                periodLabels.add(generatePeriodLabel(periodType, period.getMonthValue(), period.getYear()));
+            }
+
+            for (CategoryPeriodTotal row : expenseRepository.findMonthlyCategoryTotalsByUserIdAndDateBetween(
+                    userId, Date.valueOf(firstMonth.atDay(1)), Date.valueOf(lastMonth.atEndOfMonth()))) {
+                int index = (int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.of(row.getYear(), row.getMonth()));
+                amountsByCategory.computeIfAbsent(row.getCategoryId(), id -> new double[periods])[index] += row.getTotal();
+            }
+        } else if ("year".equals(periodType)) {
+            int firstYear = year - periods + 1;
+            for (int period = firstYear; period <= year; period++) {
+                periodLabels.add(generatePeriodLabel(periodType, period, null));
+            }
+
+            for (CategoryPeriodTotal row : expenseRepository.findYearlyCategoryTotalsByUserIdAndYearBetween(userId, firstYear, year)) {
+                amountsByCategory.computeIfAbsent(row.getCategoryId(), id -> new double[periods])[row.getYear() - firstYear] += row.getTotal();
+            }
+        } else {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+
+        List<CategoryTrendSeriesDto> series = new ArrayList<>();
+        double[] totals = new double[periods];
+        for (ExpenseCategory category : expenseCategoryRepository.findByUserId(userId)) {
+            double[] amounts = amountsByCategory.get(category.getId());
+            // Skip categories with no expenses in any period
+            if (amounts == null) {
+                continue;
+            }
+            List<Float> categoryAmounts = new ArrayList<>(periods);
+            for (int i = 0; i < periods; i++) {
+                categoryAmounts.add((float) amounts[i]);
+                totals[i] += amounts[i];
+            }
+            series.add(new CategoryTrendSeriesDto(category.getId(), category.getName(), categoryAmounts));
+        }
+
+        List<Float> periodTotals = new ArrayList<>(periods);
+        for (double total : totals) {
+            periodTotals.add((float) total);
+        }
+        return new CategoryTrendDto(periodType, periodLabels, series, periodTotals);
+    }
+
+    /**
+     * Gets the total spent per category in a period with a single grouped query.
+     *
+     * @return the total of every category with expenses in the period
+     * @throws TransactionException if the period type is unknown, or the month or the year is invalid
+     */
+    private Map<Integer, Double> getCategoryTotalsOfPeriod(UUID userId, String periodType, int periodValue,
+                                                           Integer year) throws TransactionException {
+        List<CategoryPeriodTotal> rows;
+        if ("month".equals(periodType)) {
+            if (year == null) {
+                throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+            }
+            YearMonth month = DateUtils.toYearMonth(periodValue, year);
+            rows = expenseRepository.findMonthlyCategoryTotalsByUserIdAndDateBetween(
+                    userId, Date.valueOf(month.atDay(1)), Date.valueOf(month.atEndOfMonth()));
+        } else if ("year".equals(periodType)) {
+            int periodYear = DateUtils.toYear(periodValue).getValue();
+            rows = expenseRepository.findYearlyCategoryTotalsByUserIdAndYearBetween(userId, periodYear, periodYear);
+        } else {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+
+        Map<Integer, Double> totals = new HashMap<>();
+        for (CategoryPeriodTotal row : rows) {
+            totals.merge(row.getCategoryId(), row.getTotal(), Double::sum);
         }
-        return total;
+        return totals;
     }
 }
@@ -2,37 +2,56 @@ package com.api.expenses.rest.services;
 
 import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.models.*;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto.ItemResultDto;
 import com.api.expenses.rest.models.dtos.CreateIncomeDto;
 import com.api.expenses.rest.models.dtos.GetTagDto;
+import com.api.expenses.rest.models.dtos.TransactionPageDto;
+import com.api.expenses.rest.models.projections.MonthlyTotal;
 import com.api.expenses.rest.repositories.IncomeRepository;
+import com.api.expenses.rest.repositories.TransactionBatchWriter;
 import com.api.expenses.rest.utils.DateUtils;
+import com.api.expenses.rest.utils.KeysetPagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
+import java.time.Year;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class IncomeService {
 
+    /**
+     * Maximum number of incomes of a bulk creation.
+     */
+    public static final int MAX_BULK_SIZE = 5000;
+
     private final IncomeRepository incomeRepository;
     private final UserService userService;
     private final IncomeCategoryService incomeCategoryService;
     private final CurrencyService currencyService;
     private final TagService tagService;
+    private final TransactionBatchWriter transactionBatchWriter;
 
     @Autowired
     public IncomeService(IncomeRepository incomeRepository, UserService userService,
                          IncomeCategoryService incomeCategoryService, CurrencyService currencyService,
-                         TagService tagService) {
+                         TagService tagService, TransactionBatchWriter transactionBatchWriter) {
         this.incomeRepository = incomeRepository;
         this.userService = userService;
         this.incomeCategoryService = incomeCategoryService;
         this.currencyService = currencyService;
         this.tagService = tagService;
+        this.transactionBatchWriter = transactionBatchWriter;
     }
 
     public boolean incomeExists(int incomeId) {
@@ -98,6 +117,83 @@ public class IncomeService {
         return incomeRepository.save(income).getId();
     }
 
+    /**
+     * Saves many incomes at once.
+     * The categories, currencies and tags of all the incomes are validated with one query each, the invalid
+     * incomes are reported and skipped, the valid ones are inserted in JDBC batches.
+     *
+     * @param incomesFromRequest the incomes to save, at most MAX_BULK_SIZE
+     * @param userId
+     * @return the id or the error of each income, in the order of the request
+     * @throws TransactionException if the user is not found or there are too many incomes
+     */
+    @Transactional(rollbackFor = TransactionException.class)
+    public BulkCreateResultDto saveIncomes(List<CreateIncomeDto> incomesFromRequest, UUID userId) throws TransactionException {
+        userService.getUserById(userId).orElseThrow(() -> new TransactionException(TransactionException.TransactionExceptionType.USER_NOT_FOUND));
+
+        if (incomesFromRequest.size() > MAX_BULK_SIZE) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.TOO_MANY_TRANSACTIONS);
+        }
+
+        Set<Integer> categoryIds = incomeCategoryService.getCategoriesForUser(userId).stream()
+                .map(IncomeCategory::getId)
+                .collect(Collectors.toSet());
+        Set<Integer> tagIds = tagService.getTagsByUserId(userId).stream()
+                .map(GetTagDto::id)
+                .collect(Collectors.toSet());
+        Set<Integer> currencyIds = currencyService.getAllCurrencies().stream()
+                .map(Currency::getId)
+                .collect(Collectors.toSet());
+
+        ItemResultDto[] results = new ItemResultDto[incomesFromRequest.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<TransactionBatchWriter.Row> rows = new ArrayList<>();
+
+        for (int i = 0; i < incomesFromRequest.size(); i++) {
+            CreateIncomeDto income = incomesFromRequest.get(i);
+            // A null element of the JSON array
+            if (income == null) {
+                results[i] = new ItemResultDto(i, null,
+                        TransactionException.TransactionExceptionType.MISSING_TRANSACTION.getMessage());
+                continue;
+            }
+            Integer tagId = income.tagId() != null ? income.tagId().orElse(null) : null;
+
+            TransactionException.TransactionExceptionType error = null;
+            if (!categoryIds.contains(income.categoryId())) {
+                error = TransactionException.TransactionExceptionType.CATEGORY_NOT_FOUND;
+            } else if (!currencyIds.contains(income.currencyId())) {
+                error = TransactionException.TransactionExceptionType.CURRENCY_NOT_FOUND;
+            } else if (tagId != null && !tagIds.contains(tagId)) {
+                error = TransactionException.TransactionExceptionType.TAG_NOT_FOUND;
+            } else if (income.amount() <= 0) {
+                error = TransactionException.TransactionExceptionType.INVALID_AMOUNT;
+            } else if (income.date() == null) {
+                error = TransactionException.TransactionExceptionType.MISSING_DATE;
+            }
+
+            if (error != null) {
+                results[i] = new ItemResultDto(i, null, error.getMessage());
+                continue;
+            }
+
+            Date date = income.date();
+            rows.add(new TransactionBatchWriter.Row(userId, income.categoryId(), income.currencyId(), tagId,
+                    income.amount(), date, income.description(), DateUtils.getMonthOfTheYear(date),
+                    DateUtils.getYearOfTheDate(date), DateUtils.getWeekOfTheYear(date)));
+            validIndexes.add(i);
+        }
+
+        List<Integer> ids = transactionBatchWriter.insertIncomes(rows);
+
+        for (int i = 0; i < validIndexes.size(); i++) {
+            int index = validIndexes.get(i);
+            results[index] = new ItemResultDto(index, ids.get(i), null);
+        }
+
+        return new BulkCreateResultDto(rows.size(), results.length - rows.size(), Arrays.asList(results));
+    }
+
     public void deleteIncome(int incomeId) {
         incomeRepository.deleteById(incomeId);
     }
@@ -114,30 +210,63 @@ public class IncomeService {
         return incomeRepository.findByUserIdAndYear(userId, year);
     }
 
+    /**
+     * Gets a page of the incomes of a month, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of incomes of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the period or the cursor is invalid
+     */
+    public TransactionPageDto<Income> getIncomesPageForAMonthOfAUser(UUID userId, int month, int year,
+                                                                     String cursor, int pageSize) throws TransactionException {
+        YearMonth period = DateUtils.toYearMonth(month, year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                incomeRepository.findPageByUserIdAndDateBetween(userId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
+    /**
+     * Gets a page of the incomes of a year, newest first
+     *
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param pageSize the maximum number of incomes of the page
+     * @return the page and the cursor of the next one
+     * @throws TransactionException if the year or the cursor is invalid
+     */
+    public TransactionPageDto<Income> getIncomesPageForAYearOfAUser(UUID userId, int year,
+                                                                    String cursor, int pageSize) throws TransactionException {
+        Year period = DateUtils.toYear(year);
+
+        return KeysetPagination.fetchPage(cursor, pageSize, (afterDate, afterId, fetchSize) ->
+                incomeRepository.findPageByUserIdAndDateBetween(userId, Date.valueOf(period.atDay(1)),
+                        Date.valueOf(period.atMonth(12).atEndOfMonth()), afterDate, afterId, fetchSize));
+    }
+
     public float getTotalEarnedForAYearForAUser(UUID userId, int year) {
-        List<Income> incomes = getIncomesForAYearOfAUser(userId, year);
-        float total = 0;
-        for (Income income : incomes) {
-            total += income.getAmount();
-        }
-        return total;
+        return (float) incomeRepository.sumAmountByUserIdAndYear(userId, year);
     }
 
     public float getTotalEarnedForAMonthForAUser(UUID userId, int month, int year) {
-        List<Income> incomes = getIncomesForAMonthOfAUser(userId, month, year);
-        float total = 0;
-        for (Income income : incomes) {
-            total += income.getAmount();
-        }
-        return total;
+        return (float) incomeRepository.sumAmountByUserIdAndMonthAndYear(userId, month, year);
     }
 
+    /**
+     * Gets the total earned in each month of a year with a single grouped query
+     *
+     * @param userId
+     * @param year
+     * @return the twelve monthly totals, January first
+     */
     public List<Float> getTotalEarnedInAYearInAMonthlyBasis(UUID userId, int year) {
+        float[] monthlyTotals = new float[12];
+        for (MonthlyTotal monthlyTotal : incomeRepository.findMonthlyTotalsByUserIdAndYearBetween(userId, year, year)) {
+            monthlyTotals[monthlyTotal.getMonth() - 1] = monthlyTotal.getTotal().floatValue();
+        }
         List<Float> totals = new ArrayList<>();
-        for (int i = 1; i <= 12; i++) {
-            float total = getTotalEarnedForAMonthForAUser(userId, i, year);
+        for (float total : monthlyTotals) {
             totals.add(total);
-//            System.out.println("Month: " + i + " Total: " + total);
         }
         return totals;
     }
@@ -1,21 +1,26 @@
 package com.api.expenses.rest.services;
 
 import com.api.expenses.rest.models.User;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwt;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -28,37 +33,66 @@ public class JwtService {
     Logger LOG = LoggerFactory.getLogger(JwtService.class);
 
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey; // read the value from application.properties
+    private final long expiration;
 
-    @Value("${application.security.jwt.expiration}")
-    private long expiration;
+    private final Counter expiredTokens;
+    private final Counter invalidTokens;
 
-    public boolean validateToken(String token) {
+    private final SecretKey signKey;
+    private final JwtParser parser;
 
-        try {
-            String userIdAsString = (String) Jwts.parser()
-                    .verifyWith(getSignKey())
-                    .build()
-                    .parseSignedClaims(token).getPayload().get("userId");
-            UUID userId = UUID.fromString(userIdAsString);
+    /**
+     * Decodes the secret key once and builds the parser, which is immutable and thread-safe
+     * @param secretKey the Base64 encoded secret key, read from application.properties
+     * @param expiration the lifetime of a token in milliseconds
+     * @param meterRegistry
+     */
+    public JwtService(@Value("${application.security.jwt.secret-key}") String secretKey,
+                      @Value("${application.security.jwt.expiration}") long expiration,
+                      MeterRegistry meterRegistry) {
+        this.expiration = expiration;
+        this.expiredTokens = validationFailures(meterRegistry, "expired");
+        this.invalidTokens = validationFailures(meterRegistry, "invalid");
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser()
+                .verifyWith(signKey)
+                .build();
+    }
+
+    /**
+     * The result of a verified token
+     * @param userId the id of the user the token was issued to
+     * @param expiresAt when the token expires
+     */
+    public record VerifiedToken(UUID userId, Instant expiresAt) {}
 
+    /**
+     * Verifies the signature and the expiration of the token, parsing it only once
+     * @param token
+     * @return the user id and the expiration of the token, or empty if the token is invalid or expired
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            UUID userId = UUID.fromString(claims.get("userId", String.class));
+            LOG.debug("Extracted userId for authentication: {}", userId);
+            return Optional.of(new VerifiedToken(userId, claims.getExpiration().toInstant()));
         } catch (ExpiredJwtException e) {
-            return false; // TODO: add custom return value
+            LOG.debug("Expired token: {}", e.getMessage());
+            expiredTokens.increment();
+            return Optional.empty();
         } catch (Exception e) {
-            return false; // TODO: add custom return value
+            LOG.debug("Invalid token: {}", e.getMessage());
+            invalidTokens.increment();
+            return Optional.empty();
         }
-        return true; // TODO: add custom return value
     }
 
-    public UUID extractUserId(String token) {
-       String userIdA = (String) Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token).getPayload().get("userId");
-       LOG.debug("Extracted userId for authentication: {}", userIdA);
-
-        return UUID.fromString(userIdA);
+    private static Counter validationFailures(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("jwt.validation.failures")
+                .description("Tokens rejected by the JwtFilter")
+                .tag("reason", reason)
+                .register(meterRegistry);
     }
 
 
@@ -82,12 +116,7 @@ public class JwtService {
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256) // sign it with the secret key
+                .signWith(signKey, SignatureAlgorithm.HS256) // sign it with the secret key
                 .compact();
     }
-
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
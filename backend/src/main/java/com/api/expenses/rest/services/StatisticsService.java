@@ -2,10 +2,17 @@ package com.api.expenses.rest.services;
 
 import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.exceptions.UserException;
-import com.api.expenses.rest.models.Expense;
 import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto.StreakDto;
 import com.api.expenses.rest.models.dtos.StatisticalSummaryDto;
 import com.api.expenses.rest.models.dtos.StatisticalSummaryDto.*;
+import com.api.expenses.rest.models.projections.MonthlyTotal;
+import com.api.expenses.rest.models.projections.WeeklyTotal;
+import com.api.expenses.rest.repositories.ExpenseDailyRollupRepository;
+import com.api.expenses.rest.repositories.IncomeRepository;
+import com.api.expenses.rest.services.statistics.BudgetStreakCalculator;
+import com.api.expenses.rest.services.statistics.SpendingAggregates;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,27 +21,36 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class StatisticsService {
 
-    private final ExpenseService expenseService;
-    private final IncomeService incomeService;
-    private final BudgetService budgetService;
+    private static final int SUMMARY_STREAK_DAYS = 365;
+
+    /**
+     * Maximum number of days of a budget streak window, three years, the calculator holds arrays of a month at
+     * a time but walks every day of the window.
+     */
+    public static final int MAX_STREAK_DAYS = 3 * 366;
+
+    private final ExpenseDailyRollupRepository expenseRollupRepository;
+    private final IncomeRepository incomeRepository;
     private final UserService userService;
 
     @Autowired
-    public StatisticsService(ExpenseService expenseService, IncomeService incomeService, 
-                            BudgetService budgetService, UserService userService) {
-        this.expenseService = expenseService;
-        this.incomeService = incomeService;
-        this.budgetService = budgetService;
+    public StatisticsService(ExpenseDailyRollupRepository expenseRollupRepository, IncomeRepository incomeRepository,
+                            UserService userService) {
+        this.expenseRollupRepository = expenseRollupRepository;
+        this.incomeRepository = incomeRepository;
         this.userService = userService;
     }
 
     /**
      * Get statistical summaries for a user.
+     * Every section is derived from a fixed number of grouped scans, independently of how many
+     * transactions the user has: the user check, the expense categories, the daily per-category
+     * expense totals, the weekly expense totals and the monthly income totals.
+     * The expense totals are read from the daily expense rollup, so they scale with the number of days.
      *
      * @param userId the user ID
      * @return a StatisticalSummaryDto containing various financial statistics
@@ -43,23 +59,32 @@ public class StatisticsService {
      */
     public StatisticalSummaryDto getStatisticalSummary(UUID userId) throws UserException, TransactionException {
         // Validate user exists
-        userService.getUserById(userId).orElseThrow(() -> new UserException(UserException.UserExceptionType.USER_NOT_FOUND));
+        if (!userService.userExists(userId)) {
+            throw new UserException(UserException.UserExceptionType.USER_NOT_FOUND);
+        }
+
+        LocalDate today = LocalDate.now();
+        int currentYear = today.getYear();
+        int previousYear = currentYear - 1;
+
+        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
+        SpendingAggregates spending = SpendingAggregates.fromDailyCategoryTotals(
+                expenseRollupRepository.findDailyCategoryTotalsByUserId(userId));
+        List<WeeklyTotal> weeklyExpenses = expenseRollupRepository.findWeeklyTotalsByUserIdAndYearBetween(userId, previousYear, currentYear);
+        List<MonthlyTotal> monthlyIncomes = incomeRepository.findMonthlyTotalsByUserIdAndYearBetween(userId, previousYear, currentYear);
 
-        // Get all expenses for the user
-        List<Expense> allExpenses = expenseService.getAllExpensesOfAUser(userId);
-        
         // Calculate highest spending statistics
-        HighestSpendingDto highestSpending = calculateHighestSpending(userId, allExpenses);
-        
+        HighestSpendingDto highestSpending = calculateHighestSpending(today, spending, categories);
+
         // Calculate savings statistics
-        SavingsDto savings = calculateSavings(userId);
-        
+        SavingsDto savings = calculateSavings(today, spending, monthlyIncomes);
+
         // Calculate average spending statistics
-        AverageSpendingDto averageSpending = calculateAverageSpending(userId, allExpenses);
-        
+        AverageSpendingDto averageSpending = calculateAverageSpending(today, spending, weeklyExpenses);
+
         // Calculate budget streak statistics
-        BudgetStreakDto budgetStreak = calculateBudgetStreak(userId);
-        
+        BudgetStreakDto budgetStreak = calculateBudgetStreak(today, spending, categories);
+
         // Create and return the complete DTO
         return new StatisticalSummaryDto(
             highestSpending,
@@ -69,19 +94,53 @@ public class StatisticsService {
         );
     }
 
+    /**
+     * Get the budget streaks of a user over a lookback window ending today.
+     * The overall streaks count the days on which every budgeted category was under its prorated budget,
+     * the category streaks count the days on which that single category was.
+     * The spending of the window is loaded with a single grouped scan of the daily expense rollup.
+     *
+     * @param userId the user ID
+     * @param lookbackDays the number of days of the window, today included, from 1 to MAX_STREAK_DAYS
+     * @return a BudgetStreakReportDto with the overall and the per-category streaks
+     * @throws UserException if the user is not found
+     * @throws TransactionException if the lookback window is not positive or too long
+     */
+    public BudgetStreakReportDto getBudgetStreakReport(UUID userId, int lookbackDays) throws UserException, TransactionException {
+        if (lookbackDays < 1 || lookbackDays > MAX_STREAK_DAYS) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+
+        if (!userService.userExists(userId)) {
+            throw new UserException(UserException.UserExceptionType.USER_NOT_FOUND);
+        }
+
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(lookbackDays - 1);
+
+        BudgetStreakCalculator calculator = new BudgetStreakCalculator(userService.getUserExpenseCategories(userId));
+        // Spending is loaded from the start of the first month, the month-to-date totals need it
+        SpendingAggregates spending = SpendingAggregates.fromDailyCategoryTotals(
+                expenseRollupRepository.findDailyCategoryTotalsByUserIdAndDateBetween(
+                        userId, Date.valueOf(startDate.withDayOfMonth(1)), Date.valueOf(endDate)));
+
+        return calculator.calculate(startDate, endDate, spending);
+    }
+
     /**
      * Calculate highest spending day, month, and category.
      */
-    private HighestSpendingDto calculateHighestSpending(UUID userId, List<Expense> allExpenses) throws TransactionException {
+    private HighestSpendingDto calculateHighestSpending(LocalDate today, SpendingAggregates spending,
+                                                       List<ExpenseCategory> categories) {
         // Find highest spending day
-        DaySpendingDto highestSpendingDay = findHighestSpendingDay(allExpenses);
-        
+        DaySpendingDto highestSpendingDay = findHighestSpendingDay(spending);
+
         // Find highest spending month
-        MonthSpendingDto highestSpendingMonth = findHighestSpendingMonth(userId);
-        
+        MonthSpendingDto highestSpendingMonth = findHighestSpendingMonth(today, spending);
+
         // Find highest spending category
-        CategorySpendingDto highestSpendingCategory = findHighestSpendingCategory(userId, allExpenses);
-        
+        CategorySpendingDto highestSpendingCategory = findHighestSpendingCategory(spending, categories);
+
         return new HighestSpendingDto(
             highestSpendingDay,
             highestSpendingMonth,
@@ -92,327 +151,171 @@ public class StatisticsService {
     /**
      * Find the day with the highest total spending.
      */
-    private DaySpendingDto findHighestSpendingDay(List<Expense> allExpenses) {
-        // Group expenses by date and sum amounts
-        Map<Date, Float> dailyTotals = new HashMap<>();
-        
-        for (Expense expense : allExpenses) {
-            Date date = expense.getDate();
-            dailyTotals.put(date, dailyTotals.getOrDefault(date, 0f) + expense.getAmount());
-        }
-        
-        // Find the date with the highest total
-        Map.Entry<Date, Float> highestEntry = null;
-        for (Map.Entry<Date, Float> entry : dailyTotals.entrySet()) {
-            if (highestEntry == null || entry.getValue() > highestEntry.getValue()) {
-                highestEntry = entry;
-            }
-        }
-        
+    private DaySpendingDto findHighestSpendingDay(SpendingAggregates spending) {
+        Optional<Map.Entry<LocalDate, Float>> highestEntry = spending.getHighestSpendingDay();
+
         // If no expenses, return null values
-        if (highestEntry == null) {
+        if (highestEntry.isEmpty()) {
             return new DaySpendingDto("N/A", 0f);
         }
-        
+
         // Format the date as a string
-        String dateStr = highestEntry.getKey().toLocalDate().format(DateTimeFormatter.ISO_LOCAL_DATE);
-        
-        return new DaySpendingDto(dateStr, highestEntry.getValue());
+        String dateStr = highestEntry.get().getKey().format(DateTimeFormatter.ISO_LOCAL_DATE);
+
+        return new DaySpendingDto(dateStr, highestEntry.get().getValue());
     }
 
     /**
-     * Find the month with the highest total spending.
+     * Find the month with the highest total spending in the current and the previous year.
      */
-    private MonthSpendingDto findHighestSpendingMonth(UUID userId) throws TransactionException {
-        // Get current year and previous year
-        int currentYear = LocalDate.now().getYear();
-        int previousYear = currentYear - 1;
-        
-        // Check last 24 months (2 years)
+    private MonthSpendingDto findHighestSpendingMonth(LocalDate today, SpendingAggregates spending) {
         float highestAmount = 0f;
         int highestMonth = 0;
         int highestYear = 0;
-        
-        // Check current year
-        for (int month = 1; month <= 12; month++) {
-            try {
-                float total = expenseService.getTotalSpentForAMonthOfAUser(userId, month, currentYear);
-                if (total > highestAmount) {
-                    highestAmount = total;
-                    highestMonth = month;
-                    highestYear = currentYear;
-                }
-            } catch (Exception e) {
-                // Skip if no data for this month
-            }
-        }
-        
-        // Check previous year
-        for (int month = 1; month <= 12; month++) {
-            try {
-                float total = expenseService.getTotalSpentForAMonthOfAUser(userId, month, previousYear);
+
+        // Check the current year first, then the previous one
+        for (int year : new int[]{today.getYear(), today.getYear() - 1}) {
+            for (int month = 1; month <= 12; month++) {
+                float total = spending.getTotalForMonth(YearMonth.of(year, month));
                 if (total > highestAmount) {
                     highestAmount = total;
                     highestMonth = month;
-                    highestYear = previousYear;
+                    highestYear = year;
                 }
-            } catch (Exception e) {
-                // Skip if no data for this month
             }
         }
-        
+
         // If no expenses found, return default values
         if (highestMonth == 0) {
             return new MonthSpendingDto(0, 0, 0f);
         }
-        
+
         return new MonthSpendingDto(highestMonth, highestYear, highestAmount);
     }
 
     /**
      * Find the category with the highest total spending.
      */
-    private CategorySpendingDto findHighestSpendingCategory(UUID userId, List<Expense> allExpenses) throws TransactionException {
-        // Get all expense categories for the user
-        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
-        
-        // Calculate total spent per category
-        Map<Integer, Float> categoryTotals = new HashMap<>();
-        Map<Integer, String> categoryNames = new HashMap<>();
-        
-        // Populate category names map
-        for (ExpenseCategory category : categories) {
-            categoryNames.put(category.getId(), category.getName());
-        }
-        
-        // Calculate totals
-        for (Expense expense : allExpenses) {
-            int categoryId = expense.getCategoryId();
-            categoryTotals.put(categoryId, categoryTotals.getOrDefault(categoryId, 0f) + expense.getAmount());
-        }
-        
-        // Find the category with the highest total
-        Map.Entry<Integer, Float> highestEntry = null;
-        for (Map.Entry<Integer, Float> entry : categoryTotals.entrySet()) {
-            if (highestEntry == null || entry.getValue() > highestEntry.getValue()) {
-                highestEntry = entry;
-            }
-        }
-        
+    private CategorySpendingDto findHighestSpendingCategory(SpendingAggregates spending, List<ExpenseCategory> categories) {
+        Optional<Map.Entry<Integer, Float>> highestEntry = spending.getHighestSpendingCategory();
+
         // If no expenses, return null values
-        if (highestEntry == null) {
+        if (highestEntry.isEmpty()) {
             return new CategorySpendingDto(0, "N/A", 0f);
         }
-        
-        int categoryId = highestEntry.getKey();
-        String categoryName = categoryNames.getOrDefault(categoryId, "Unknown");
-        
-        return new CategorySpendingDto(categoryId, categoryName, highestEntry.getValue());
+
+        int categoryId = highestEntry.get().getKey();
+        String categoryName = categories.stream()
+            .filter(category -> category.getId() == categoryId)
+            .map(ExpenseCategory::getName)
+            .findFirst()
+            .orElse("Unknown");
+
+        return new CategorySpendingDto(categoryId, categoryName, highestEntry.get().getValue());
     }
 
     /**
-     * Calculate savings statistics.
+     * Calculate savings statistics for the current and the previous year.
      */
-    private SavingsDto calculateSavings(UUID userId) throws TransactionException {
-        // Get current year and previous year
-        LocalDate now = LocalDate.now();
-        int currentYear = now.getYear();
-        int currentMonth = now.getMonthValue();
-        int previousYear = currentYear - 1;
-        
+    private SavingsDto calculateSavings(LocalDate today, SpendingAggregates spending, List<MonthlyTotal> monthlyIncomes) {
+        int currentYear = today.getYear();
+        int currentMonth = today.getMonthValue();
+
+        Map<YearMonth, Float> incomeTotals = new HashMap<>();
+        for (MonthlyTotal monthlyIncome : monthlyIncomes) {
+            incomeTotals.put(YearMonth.of(monthlyIncome.getYear(), monthlyIncome.getMonth()), monthlyIncome.getTotal().floatValue());
+        }
+
         // Calculate monthly savings percentages for the last 24 months
         Map<String, Float> monthlySavingsPercentage = new HashMap<>();
         float totalSavingsRate = 0f;
         int monthsWithData = 0;
-        
+
         // Process current and previous year
-        for (int year : new int[]{currentYear, previousYear}) {
+        for (int year : new int[]{currentYear, currentYear - 1}) {
             for (int month = 1; month <= 12; month++) {
-                try {
-                    if (year == currentYear && month == currentMonth) {
-                        continue; // Exclude the current month from the analytics
-                    }
-                    float income = incomeService.getTotalEarnedForAMonthForAUser(userId, month, year);
-                    float expenses = expenseService.getTotalSpentForAMonthOfAUser(userId, month, year);
-                    
-                    // Skip months with no income, mainly to avoid adding months in the future, TODO: Fix this and use the actual last 24 months
-                    if (income <= 0) {
-                        continue;
-                    }
-                    
-                    float savings = income - expenses;
-                    float savingsPercentage = (savings / income) * 100;
-                    
-                    // Format key as "MM-YYYY"
-                    String key = String.format("%02d-%d", month, year);
-                    monthlySavingsPercentage.put(key, savingsPercentage);
-                    
-                    // Add to total for average calculation
-                    totalSavingsRate += savingsPercentage;
-                    monthsWithData++;
-                } catch (Exception e) {
-                    // Skip if no data for this month
+                if (year == currentYear && month == currentMonth) {
+                    continue; // Exclude the current month from the analytics
+                }
+                YearMonth yearMonth = YearMonth.of(year, month);
+                float income = incomeTotals.getOrDefault(yearMonth, 0f);
+                float expenses = spending.getTotalForMonth(yearMonth);
+
+                // Skip months with no income, mainly to avoid adding months in the future, TODO: Fix this and use the actual last 24 months
+                if (income <= 0) {
+                    continue;
                 }
+
+                float savings = income - expenses;
+                float savingsPercentage = (savings / income) * 100;
+
+                // Format key as "MM-YYYY"
+                String key = String.format("%02d-%d", month, year);
+                monthlySavingsPercentage.put(key, savingsPercentage);
+
+                // Add to total for average calculation
+                totalSavingsRate += savingsPercentage;
+                monthsWithData++;
             }
         }
-        
+
         // Calculate average monthly savings rate
         float averageMonthlySavingsRate = monthsWithData > 0 ? totalSavingsRate / monthsWithData : 0f;
-        
+
         return new SavingsDto(averageMonthlySavingsRate, monthlySavingsPercentage);
     }
 
     /**
      * Calculate average spending statistics.
      */
-    private AverageSpendingDto calculateAverageSpending(UUID userId, List<Expense> allExpenses) {
-        // Get current date
-        LocalDate now = LocalDate.now();
-        int currentYear = now.getYear();
-        int currentMonth = now.getMonthValue();
-        
+    private AverageSpendingDto calculateAverageSpending(LocalDate today, SpendingAggregates spending, List<WeeklyTotal> weeklyExpenses) {
+        int currentYear = today.getYear();
+
         // Calculate average daily spend for the current month
-        float totalSpentThisMonth = 0f;
-        try {
-            totalSpentThisMonth = expenseService.getTotalSpentForAMonthOfAUser(userId, currentMonth, currentYear);
-        } catch (Exception e) {
-            // Handle exception
+        YearMonth currentMonth = YearMonth.from(today);
+        float totalSpentThisMonth = spending.getTotalForMonth(currentMonth);
+        float averageDailySpend = totalSpentThisMonth / currentMonth.lengthOfMonth();
+
+        Map<Integer, Map<Integer, Float>> weeklyTotals = new HashMap<>();
+        for (WeeklyTotal weeklyTotal : weeklyExpenses) {
+            weeklyTotals.computeIfAbsent(weeklyTotal.getYear(), y -> new HashMap<>())
+                .put(weeklyTotal.getWeek(), weeklyTotal.getTotal().floatValue());
         }
-        
-        // Get days in current month
-        int daysInMonth = YearMonth.of(currentYear, currentMonth).lengthOfMonth();
-        float averageDailySpend = totalSpentThisMonth / daysInMonth;
-        
+
         // Calculate average weekly spend (last 4 weeks)
         float totalSpentLastFourWeeks = 0f;
-        int currentWeek = now.get(java.time.temporal.WeekFields.ISO.weekOfYear());
-        
+        int currentWeek = today.get(java.time.temporal.WeekFields.ISO.weekOfYear());
+
         for (int i = 0; i < 4; i++) {
             int week = currentWeek - i;
             int year = currentYear;
-            
+
             // Handle week wrapping to previous year
             if (week <= 0) {
                 week += 52;
                 year--;
             }
-            
-            try {
-                totalSpentLastFourWeeks += expenseService.getTotalSpentForAWeekOfAUser(userId, week, year);
-            } catch (Exception e) {
-                // Skip if no data for this week
-            }
+
+            totalSpentLastFourWeeks += weeklyTotals.getOrDefault(year, Collections.emptyMap()).getOrDefault(week, 0f);
         }
-        
+
         float averageWeeklySpend = totalSpentLastFourWeeks / 4;
-        
+
         return new AverageSpendingDto(averageDailySpend, averageWeeklySpend);
     }
 
     /**
-     * Calculate budget streak statistics.
+     * Calculate the longest budget streak over the last 365 days.
      */
-    private BudgetStreakDto calculateBudgetStreak(UUID userId) {
-        // Get all expense categories with budgets
-        List<ExpenseCategory> categories = userService.getUserExpenseCategories(userId);
-        
-        // Filter categories with budgets
-        List<ExpenseCategory> categoriesWithBudgets = categories.stream()
-            .filter(c -> c.getBudget() > 0)
-            .collect(Collectors.toList());
-        
-        if (categoriesWithBudgets.isEmpty()) {
-            return new BudgetStreakDto(0, "N/A", "N/A");
-        }
-        
-        // Get current date and go back up to 365 days
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(365);
-        
-        // Track the current streak and the longest streak
-        int currentStreak = 0;
-        int longestStreak = 0;
-        LocalDate longestStreakStart = null;
-        LocalDate longestStreakEnd = null;
-        LocalDate currentStreakStart = null;
-        
-        // Check each day from start to end
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            boolean underBudget = isDayUnderBudget(userId, date, categoriesWithBudgets);
-            
-            if (underBudget) {
-                // If this is the start of a new streak, record the start date
-                if (currentStreak == 0) {
-                    currentStreakStart = date;
-                }
-                
-                // Increment the current streak
-                currentStreak++;
-                
-                // Check if this is now the longest streak
-                if (currentStreak > longestStreak) {
-                    longestStreak = currentStreak;
-                    longestStreakStart = currentStreakStart;
-                    longestStreakEnd = date;
-                }
-            } else {
-                // Reset the current streak
-                currentStreak = 0;
-            }
-        }
-        
-        // If no streak found, return default values
-        if (longestStreak == 0) {
+    private BudgetStreakDto calculateBudgetStreak(LocalDate today, SpendingAggregates spending, List<ExpenseCategory> categories) {
+        BudgetStreakCalculator calculator = new BudgetStreakCalculator(categories);
+
+        if (!calculator.hasBudgetedCategories()) {
             return new BudgetStreakDto(0, "N/A", "N/A");
         }
-        
-        // Format dates as strings
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-        String startDateStr = longestStreakStart.format(formatter);
-        String endDateStr = longestStreakEnd.format(formatter);
-        
-        return new BudgetStreakDto(longestStreak, startDateStr, endDateStr);
-    }
 
-    /**
-     * Check if a specific day is under budget for all categories.
-     */
-    private boolean isDayUnderBudget(UUID userId, LocalDate date, List<ExpenseCategory> categoriesWithBudgets) {
-        // Get month and year
-        int month = date.getMonthValue();
-        int year = date.getYear();
-        int dayOfMonth = date.getDayOfMonth();
-        
-        // Get days in month to calculate daily budget
-        int daysInMonth = YearMonth.of(year, month).lengthOfMonth();
-        
-        // Check each category
-        for (ExpenseCategory category : categoriesWithBudgets) {
-            try {
-                // Get total spent for this category this month up to this day
-                List<Expense> expenses = expenseService.getExpensesForAMonthOfAUserByCategory(userId, month, year, category.getId());
-                
-                // Filter expenses up to and including the current day
-                float totalSpent = expenses.stream()
-                    .filter(e -> e.getDate().toLocalDate().getDayOfMonth() <= dayOfMonth)
-                    .map(Expense::getAmount)
-                    .reduce(0f, Float::sum);
-                
-                // Calculate prorated budget for this day
-                float dailyBudget = category.getBudget() / daysInMonth;
-                float proratedBudget = dailyBudget * dayOfMonth;
-                
-                // If over budget, return false
-                if (totalSpent > proratedBudget) {
-                    return false;
-                }
-            } catch (Exception e) {
-                // If there's an error, assume over budget
-                return false;
-            }
-        }
-        
-        // If all categories are under budget, return true
-        return true;
+        StreakDto longestStreak = calculator.calculate(today.minusDays(SUMMARY_STREAK_DAYS), today, spending).longestStreak();
+
+        return new BudgetStreakDto(longestStreak.days(), longestStreak.startDate(), longestStreak.endDate());
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,18 @@
 package com.api.expenses.rest.services;
 
+import com.api.expenses.rest.configuration.CacheConfig;
 import com.api.expenses.rest.models.Currency;
 import com.api.expenses.rest.models.ExpenseCategory;
 import com.api.expenses.rest.models.Role;
 import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import com.api.expenses.rest.repositories.CurrencyRepository;
 import com.api.expenses.rest.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,15 +33,20 @@ public class UserService implements UserDetailsService {
     private final ExpenseCategoryService expenseCategoryService;
     private final CurrencyRepository currencyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final Timer passwordVerification;
 
     @Autowired
     public UserService(UserRepository userRepository,
                        ExpenseCategoryService expenseCategoryService,
-                       CurrencyRepository currencyRepository, @Lazy PasswordEncoder passwordEncoder) {
+                       CurrencyRepository currencyRepository, @Lazy PasswordEncoder passwordEncoder,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.expenseCategoryService = expenseCategoryService;
         this.currencyRepository = currencyRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordVerification = Timer.builder("login.password.verification")
+                .description("Time spent comparing the password of a login with its hash")
+                .register(meterRegistry);
     }
 
 
@@ -81,7 +92,7 @@ public class UserService implements UserDetailsService {
      */
     public Optional<User> authenticateUserByUsername(String username, String password) {
         Optional<User> user = userRepository.findByUsername(username);
-        return user.isPresent() && passwordEncoder.matches(password, user.get().getPassword()) ? user : Optional.empty();
+        return user.isPresent() && passwordMatches(password, user.get()) ? user : Optional.empty();
     }
 
     /**
@@ -92,7 +103,14 @@ public class UserService implements UserDetailsService {
      */
     public Optional<User> authenticateUserByEmail(String email, String password) {
         Optional<User> user = userRepository.findByEmail(email);
-        return user.isPresent() && passwordEncoder.matches(password, user.get().getPassword()) ? user : Optional.empty();
+        return user.isPresent() && passwordMatches(password, user.get()) ? user : Optional.empty();
+    }
+
+    /**
+     * Compares the password with the hash of the user, the hashing dominates the time of a login
+     */
+    private boolean passwordMatches(String password, User user) {
+        return passwordVerification.record(() -> passwordEncoder.matches(password, user.getPassword()));
     }
 
     /**
@@ -105,6 +123,7 @@ public class UserService implements UserDetailsService {
         return userRepository.findByUsername(username).isEmpty() && userRepository.findByEmail(email).isEmpty();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#user.id")
     public boolean updateUser(User user) {
 
         // Validate it has a correct currency
@@ -118,6 +137,18 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id);
     }
 
+    /**
+     * Gets the principal of an authenticated request, the database is only queried on a cache miss.
+     * The cache holds immutable copies, never the entity, so nothing a request does to a user can leak into it.
+     * The entry expires after a while and is evicted when the user is updated or deleted.
+     * @param id
+     * @return the principal, or empty if the user does not exist
+     */
+    @Cacheable(cacheNames = CacheConfig.PRINCIPALS_CACHE, unless = "#result == null")
+    public Optional<UserPrincipal> getPrincipalById(UUID id) {
+        return userRepository.findById(id).map(UserPrincipal::of);
+    }
+
     /**
      * Checks if a user exists by id
      * @param id
@@ -149,6 +180,7 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.PRINCIPALS_CACHE, key = "#user.id")
     public void deleteUser(User user) {
         userRepository.delete(user);
     }
@@ -0,0 +1,150 @@
+package com.api.expenses.rest.services.budget;
+
+import com.api.expenses.rest.models.Expense;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetBurndownDto;
+import com.api.expenses.rest.models.dtos.CompactBudgetBurndownDto;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Budget burn-down of a single month.
+ * <p>
+ * The spending of every budgeted category is accumulated into an array indexed by day of month, in a single
+ * pass over the input, whether the input is the grouped daily totals of the month or its expenses.
+ * The "All Categories" series, with the special id -1, only sums the budgeted categories.
+ */
+public class MonthBurndown {
+
+    public static final int ALL_CATEGORIES_ID = -1;
+    public static final String ALL_CATEGORIES_NAME = "All Categories";
+
+    private final YearMonth month;
+    private final List<ExpenseCategory> categories;
+    private final Map<Integer, Integer> categoryIndexes = new HashMap<>();
+    private final double[][] dailySpending;
+
+    /**
+     * @param month the month of the burn-down
+     * @param categories the categories of the user, the ones without a budget are ignored
+     */
+    public MonthBurndown(YearMonth month, List<ExpenseCategory> categories) {
+        this.month = month;
+        this.categories = categories.stream()
+            .filter(category -> category.getBudget() > 0)
+            .toList();
+        for (int i = 0; i < this.categories.size(); i++) {
+            categoryIndexes.put(this.categories.get(i).getId(), i);
+        }
+        this.dailySpending = new double[this.categories.size()][month.lengthOfMonth()];
+    }
+
+    /**
+     * Builds the burn-down from the totals of the month grouped by day and category.
+     */
+    public static MonthBurndown fromDailyTotals(YearMonth month, List<ExpenseCategory> categories,
+                                                List<? extends DailyCategoryTotal> dailyTotals) {
+        MonthBurndown burndown = new MonthBurndown(month, categories);
+        for (DailyCategoryTotal total : dailyTotals) {
+            burndown.add(total.getCategoryId(), total.getDate().toLocalDate().getDayOfMonth(), total.getTotal());
+        }
+        return burndown;
+    }
+
+    /**
+     * Builds the burn-down from expenses that were already loaded, they must all belong to the month.
+     */
+    public static MonthBurndown fromExpenses(YearMonth month, List<ExpenseCategory> categories, List<Expense> expenses) {
+        MonthBurndown burndown = new MonthBurndown(month, categories);
+        for (Expense expense : expenses) {
+            burndown.add(expense.getCategoryId(), expense.getDate().toLocalDate().getDayOfMonth(), expense.getAmount());
+        }
+        return burndown;
+    }
+
+    /**
+     * Adds an amount spent on a day of the month, amounts of categories without a budget are ignored.
+     *
+     * @param categoryId the category of the amount
+     * @param dayOfMonth the day of the month, starting at 1
+     * @param amount the amount spent
+     */
+    public void add(int categoryId, int dayOfMonth, double amount) {
+        Integer index = categoryIndexes.get(categoryId);
+        if (index != null) {
+            dailySpending[index][dayOfMonth - 1] += amount;
+        }
+    }
+
+    /**
+     * @return the burn-down with one array entry per day, the first entry is the first day of the month
+     */
+    public CompactBudgetBurndownDto toCompactDto() {
+        int daysInMonth = month.lengthOfMonth();
+        List<CompactBudgetBurndownDto.CategoryBurndownDto> categoryBurndowns = new ArrayList<>(categories.size() + 1);
+        double totalBudget = 0;
+        double[] totalDailySpending = new double[daysInMonth];
+
+        // Reserve the first position for "All Categories"
+        categoryBurndowns.add(null);
+        for (int i = 0; i < categories.size(); i++) {
+            ExpenseCategory category = categories.get(i);
+            categoryBurndowns.add(toCategoryBurndown(category.getId(), category.getName(), category.getBudget(),
+                dailySpending[i]));
+            totalBudget += category.getBudget();
+            for (int day = 0; day < daysInMonth; day++) {
+                totalDailySpending[day] += dailySpending[i][day];
+            }
+        }
+        categoryBurndowns.set(0, toCategoryBurndown(ALL_CATEGORIES_ID, ALL_CATEGORIES_NAME, totalBudget,
+            totalDailySpending));
+
+        return new CompactBudgetBurndownDto(month.getMonthValue(), month.getYear(), categoryBurndowns);
+    }
+
+    /**
+     * @return the burn-down keyed by day of month, as it was returned before the compact form
+     */
+    public BudgetBurndownDto toDto() {
+        CompactBudgetBurndownDto compact = toCompactDto();
+        List<BudgetBurndownDto.CategoryBurndownDto> categoryBurndowns = new ArrayList<>(compact.categories().size());
+        for (CompactBudgetBurndownDto.CategoryBurndownDto category : compact.categories()) {
+            categoryBurndowns.add(new BudgetBurndownDto.CategoryBurndownDto(
+                category.categoryId(),
+                category.categoryName(),
+                category.budget(),
+                category.totalSpent(),
+                toDayMap(category.dailySpending()),
+                toDayMap(category.remainingBudget())
+            ));
+        }
+        return new BudgetBurndownDto(compact.month(), compact.year(), categoryBurndowns);
+    }
+
+    private static CompactBudgetBurndownDto.CategoryBurndownDto toCategoryBurndown(int categoryId, String categoryName,
+                                                                                   double budget, double[] spending) {
+        float[] dailySpending = new float[spending.length];
+        float[] remainingBudget = new float[spending.length];
+        double runningTotal = 0;
+        for (int day = 0; day < spending.length; day++) {
+            runningTotal += spending[day];
+            dailySpending[day] = (float) spending[day];
+            remainingBudget[day] = (float) (budget - runningTotal);
+        }
+        return new CompactBudgetBurndownDto.CategoryBurndownDto(categoryId, categoryName, (float) budget,
+            (float) runningTotal, dailySpending, remainingBudget);
+    }
+
+    private static Map<Integer, Float> toDayMap(float[] values) {
+        Map<Integer, Float> map = new HashMap<>(values.length * 4 / 3 + 1);
+        for (int day = 0; day < values.length; day++) {
+            map.put(day + 1, values[day]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,74 @@
+package com.api.expenses.rest.services.budget;
+
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Budget burn-downs of consecutive months, from the totals of the whole range grouped by day and category.
+ * <p>
+ * The totals must be ordered by date. They are read once: each month is built when it is iterated, from the rows
+ * of that month only, so a single month is held in memory besides the rows. Months without spending are included.
+ */
+public class MonthBurndownRange implements Iterable<MonthBurndown> {
+
+    private final YearMonth from;
+    private final YearMonth to;
+    private final List<ExpenseCategory> categories;
+    private final List<? extends DailyCategoryTotal> dailyTotals;
+
+    /**
+     * @param from the first month of the range
+     * @param to the last month of the range, included
+     * @param categories the categories of the user, the ones without a budget are ignored
+     * @param dailyTotals the totals of the range grouped by day and category, ordered by date
+     */
+    public MonthBurndownRange(YearMonth from, YearMonth to, List<ExpenseCategory> categories,
+                              List<? extends DailyCategoryTotal> dailyTotals) {
+        this.from = from;
+        this.to = to;
+        this.categories = categories;
+        this.dailyTotals = dailyTotals;
+    }
+
+    @Override
+    public Iterator<MonthBurndown> iterator() {
+        return new Iterator<>() {
+
+            private YearMonth nextMonth = from;
+            private int nextRow = 0;
+
+            @Override
+            public boolean hasNext() {
+                return !nextMonth.isAfter(to);
+            }
+
+            @Override
+            public MonthBurndown next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                MonthBurndown burndown = new MonthBurndown(nextMonth, categories);
+                while (nextRow < dailyTotals.size()) {
+                    DailyCategoryTotal total = dailyTotals.get(nextRow);
+                    YearMonth rowMonth = YearMonth.from(total.getDate().toLocalDate());
+                    if (rowMonth.isAfter(nextMonth)) {
+                        break;
+                    }
+                    if (rowMonth.equals(nextMonth)) {
+                        burndown.add(total.getCategoryId(), total.getDate().toLocalDate().getDayOfMonth(), total.getTotal());
+                    }
+                    nextRow++;
+                }
+
+                nextMonth = nextMonth.plusMonths(1);
+                return burndown;
+            }
+        };
+    }
+}
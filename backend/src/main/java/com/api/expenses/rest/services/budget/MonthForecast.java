@@ -0,0 +1,211 @@
+package com.api.expenses.rest.services.budget;
+
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetForecastDto;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-of-month spending forecast of a single month.
+ * <p>
+ * The days of the month up to today are actual spending. Every remaining day is projected as a blend of the run
+ * rate of the month so far and the average spending on the same day of the month in the previous months, so
+ * recurring expenses such as a rent paid on the 1st are expected on their day. The run rate weighs more as the
+ * month goes on. Expenses already recorded for a later day of the month are added to the projection of their day.
+ * <p>
+ * The input is the daily totals of the month and of the HISTORY_MONTHS months before it, so the work depends on
+ * the number of days and categories and not on the number of expenses. Months that are not over yet are not
+ * used as history. As for the burn-down, only the budgeted categories are forecast and the "All Categories"
+ * series sums them.
+ */
+public class MonthForecast {
+
+    /**
+     * Number of previous months the recurring spending is averaged over.
+     */
+    public static final int HISTORY_MONTHS = 3;
+
+    private final YearMonth month;
+    private final YearMonth currentMonth;
+    private final int daysElapsed;
+    private final List<ExpenseCategory> categories;
+    private final Map<Integer, Integer> categoryIndexes = new HashMap<>();
+    private final double[][] dailySpending;
+    private final double[][][] historySpending;
+
+    /**
+     * @param month the month of the forecast
+     * @param today the current day, the days of the month up to it are elapsed
+     * @param categories the categories of the user, the ones without a budget are ignored
+     */
+    public MonthForecast(YearMonth month, LocalDate today, List<ExpenseCategory> categories) {
+        this.month = month;
+        this.currentMonth = YearMonth.from(today);
+        if (month.isBefore(currentMonth)) {
+            this.daysElapsed = month.lengthOfMonth();
+        } else if (month.equals(currentMonth)) {
+            this.daysElapsed = today.getDayOfMonth();
+        } else {
+            this.daysElapsed = 0;
+        }
+        this.categories = categories.stream()
+            .filter(category -> category.getBudget() > 0)
+            .toList();
+        for (int i = 0; i < this.categories.size(); i++) {
+            categoryIndexes.put(this.categories.get(i).getId(), i);
+        }
+        this.dailySpending = new double[this.categories.size()][month.lengthOfMonth()];
+        this.historySpending = new double[this.categories.size()][HISTORY_MONTHS][month.lengthOfMonth()];
+    }
+
+    /**
+     * @return the first month whose daily totals are used by the forecast of a month
+     */
+    public static YearMonth firstHistoryMonth(YearMonth month) {
+        return month.minusMonths(HISTORY_MONTHS);
+    }
+
+    /**
+     * Builds the forecast from the totals grouped by day and category, from the first history month to the end of
+     * the forecast month.
+     */
+    public static MonthForecast fromDailyTotals(YearMonth month, LocalDate today, List<ExpenseCategory> categories,
+                                                List<? extends DailyCategoryTotal> dailyTotals) {
+        MonthForecast forecast = new MonthForecast(month, today, categories);
+        for (DailyCategoryTotal total : dailyTotals) {
+            forecast.add(total.getCategoryId(), total.getDate().toLocalDate(), total.getTotal());
+        }
+        return forecast;
+    }
+
+    /**
+     * Adds an amount spent on a day, amounts of categories without a budget or of days outside the forecast
+     * month and its history are ignored.
+     * The days of a history month past the end of the forecast month are added to its last day.
+     *
+     * @param categoryId the category of the amount
+     * @param date the day the amount was spent
+     * @param amount the amount spent
+     */
+    public void add(int categoryId, LocalDate date, double amount) {
+        Integer index = categoryIndexes.get(categoryId);
+        if (index == null) {
+            return;
+        }
+
+        YearMonth dateMonth = YearMonth.from(date);
+        int day = Math.min(date.getDayOfMonth(), month.lengthOfMonth()) - 1;
+        if (dateMonth.equals(month)) {
+            dailySpending[index][day] += amount;
+            return;
+        }
+
+        int history = (int) dateMonth.until(month, ChronoUnit.MONTHS) - 1;
+        if (history >= 0 && history < HISTORY_MONTHS && dateMonth.isBefore(currentMonth)) {
+            historySpending[index][history][day] += amount;
+        }
+    }
+
+    /**
+     * @return the forecast of every budgeted category, "All Categories" first
+     */
+    public BudgetForecastDto toDto() {
+        int daysInMonth = month.lengthOfMonth();
+        List<BudgetForecastDto.CategoryForecastDto> categoryForecasts = new ArrayList<>(categories.size() + 1);
+        double totalBudget = 0;
+        double[] totalSpending = new double[daysInMonth];
+        double[] totalProjection = new double[daysInMonth];
+
+        // Reserve the first position for "All Categories"
+        categoryForecasts.add(null);
+        for (int i = 0; i < categories.size(); i++) {
+            ExpenseCategory category = categories.get(i);
+            double[] projection = project(dailySpending[i], historySpending[i]);
+            categoryForecasts.add(toCategoryForecast(category.getId(), category.getName(), category.getBudget(),
+                dailySpending[i], projection));
+            totalBudget += category.getBudget();
+            for (int day = 0; day < daysInMonth; day++) {
+                totalSpending[day] += dailySpending[i][day];
+                totalProjection[day] += projection[day];
+            }
+        }
+        categoryForecasts.set(0, toCategoryForecast(MonthBurndown.ALL_CATEGORIES_ID, MonthBurndown.ALL_CATEGORIES_NAME,
+            totalBudget, totalSpending, totalProjection));
+
+        return new BudgetForecastDto(month.getMonthValue(), month.getYear(), daysElapsed, categoryForecasts);
+    }
+
+    /**
+     * Projects the spending of every remaining day of the month.
+     *
+     * @param spending the spending of the month by day
+     * @param history the spending of the previous months by day, the first one is the month before
+     * @return the spending of every day of the month, actual for the elapsed days and projected for the others
+     */
+    private double[] project(double[] spending, double[][] history) {
+        double[] projection = spending.clone();
+        if (daysElapsed == spending.length) {
+            return projection;
+        }
+
+        double spent = 0;
+        for (int day = 0; day < daysElapsed; day++) {
+            spent += spending[day];
+        }
+        double runRate = daysElapsed > 0 ? spent / daysElapsed : 0;
+
+        // Only the months with spending count, the category may not have existed before them
+        List<double[]> historyMonths = new ArrayList<>(history.length);
+        for (double[] historyMonth : history) {
+            for (double amount : historyMonth) {
+                if (amount != 0) {
+                    historyMonths.add(historyMonth);
+                    break;
+                }
+            }
+        }
+
+        double runRateWeight = (double) daysElapsed / spending.length;
+        for (int day = daysElapsed; day < spending.length; day++) {
+            if (historyMonths.isEmpty()) {
+                projection[day] += runRate;
+                continue;
+            }
+
+            double recurring = 0;
+            for (double[] historyMonth : historyMonths) {
+                recurring += historyMonth[day];
+            }
+            recurring /= historyMonths.size();
+            projection[day] += runRateWeight * runRate + (1 - runRateWeight) * recurring;
+        }
+        return projection;
+    }
+
+    private BudgetForecastDto.CategoryForecastDto toCategoryForecast(int categoryId, String categoryName,
+                                                                     double budget, double[] spending,
+                                                                     double[] projection) {
+        double spent = 0;
+        for (int day = 0; day < daysElapsed; day++) {
+            spent += spending[day];
+        }
+
+        double projectedTotal = 0;
+        LocalDate overrunDate = null;
+        for (int day = 0; day < projection.length; day++) {
+            projectedTotal += projection[day];
+            if (overrunDate == null && projectedTotal > budget) {
+                overrunDate = month.atDay(day + 1);
+            }
+        }
+        return new BudgetForecastDto.CategoryForecastDto(categoryId, categoryName, (float) budget, (float) spent,
+            (float) projectedTotal, overrunDate);
+    }
+}
@@ -0,0 +1,319 @@
+package com.api.expenses.rest.services.generator;
+
+import com.api.expenses.rest.models.Currency;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Generates the data of a synthetic user as the records of a data export, so it can be written to an NDJSON file
+ * or imported with the DataImportService.
+ * <p>
+ * The records are generated one day at a time while they are iterated, only the records of the current day are
+ * held in memory. The same seed and settings always generate the same records:
+ * <ul>
+ *     <li>recurring expenses and incomes on fixed days of every month: rent, utilities, subscriptions, salary
+ *     and interest, with a yearly raise and seasonal utilities</li>
+ *     <li>variable expenses and freelance incomes on random days, more of them in the busy months of their
+ *     category and on weekends for restaurants</li>
+ *     <li>log-normal amounts: many small ones and a long tail of large ones</li>
+ * </ul>
+ * The variable expenses are scaled so that the total number of transactions is close to the requested one,
+ * their budgets are scaled with them.
+ */
+public class SyntheticDataGenerator implements Iterable<ObjectNode> {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final int CURRENCY_ID = 1;
+    private static final double YEARLY_RAISE = 1.03;
+    private static final double FREELANCE_DAILY_RATE = 0.03;
+
+    private static final int SUBSCRIPTION_TAG = 1;
+    private static final int VACATION_TAG = 2;
+    private static final int FAMILY_TAG = 3;
+    private static final int WORK_TAG = 4;
+    private static final List<String> TAGS = List.of("Subscription", "Vacation", "Family", "Work");
+
+    private static final int RENT = 1;
+    private static final int UTILITIES = 2;
+    private static final int SUBSCRIPTIONS = 3;
+    private static final int SALARY = 1;
+    private static final int FREELANCE = 2;
+    private static final int INTEREST = 3;
+
+    private static final double[] FLAT = {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+
+    /**
+     * The expense categories with a fixed budget, their expenses are recurring.
+     */
+    private static final List<RecurringCategory> RECURRING_CATEGORIES = List.of(
+            new RecurringCategory(RENT, "Rent", 1300),
+            new RecurringCategory(UTILITIES, "Utilities", 200),
+            new RecurringCategory(SUBSCRIPTIONS, "Subscriptions", 45));
+
+    /**
+     * The expense categories with expenses on random days, their budgets are close to their mean monthly spending.
+     */
+    private static final List<VariableCategory> VARIABLE_CATEGORIES = List.of(
+            new VariableCategory(4, "Groceries", 700, 0.6, 35, 0.5, 1, FAMILY_TAG, 0.2,
+                    new double[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1.1, 1.3}),
+            new VariableCategory(5, "Restaurants", 350, 0.3, 25, 0.6, 1.8, null, 0, FLAT),
+            new VariableCategory(6, "Transport", 150, 0.5, 8, 0.7, 0.6, WORK_TAG, 0.3,
+                    new double[]{1, 1, 1, 1, 1, 1, 0.7, 0.6, 1, 1, 1, 1}),
+            new VariableCategory(7, "Entertainment", 130, 0.15, 20, 0.8, 1.5, null, 0, FLAT),
+            new VariableCategory(8, "Shopping", 300, 0.15, 40, 1.0, 1.3, null, 0,
+                    new double[]{1.2, 0.8, 0.9, 1, 1, 1, 1.1, 0.9, 1, 1, 1.5, 2}),
+            new VariableCategory(9, "Health", 100, 0.05, 50, 1.0, 0.5, null, 0, FLAT),
+            new VariableCategory(10, "Travel", 400, 0.02, 300, 0.9, 1, VACATION_TAG, 1,
+                    new double[]{0.5, 0.5, 0.8, 1, 1, 1.5, 4, 4, 1, 0.8, 0.5, 1.5}));
+
+    private static final List<String> INCOME_CATEGORIES = List.of("Salary", "Freelance", "Interest");
+
+    private static final Subscription[] SUBSCRIPTION_EXPENSES = {
+            new Subscription(3, "Streaming", 12.99f),
+            new Subscription(9, "Music", 9.99f),
+            new Subscription(20, "Cloud storage", 2.99f)};
+
+    /**
+     * @param seed the seed of every random choice
+     * @param firstDay the first day with transactions
+     * @param lastDay the last day with transactions
+     * @param transactions the approximate number of expenses and incomes, 0 for the volume of a typical person
+     * @param currency the currency of every transaction, it is matched by code when imported
+     */
+    public record Settings(long seed, LocalDate firstDay, LocalDate lastDay, int transactions, Currency currency) {}
+
+    private final Settings settings;
+    private final double volume;
+
+    public SyntheticDataGenerator(Settings settings) {
+        this.settings = settings;
+        this.volume = volume(settings);
+    }
+
+    @Override
+    public Iterator<ObjectNode> iterator() {
+        return new RecordIterator();
+    }
+
+    /**
+     * The factor applied to the daily rate of the variable transactions, so that the recurring and the variable
+     * ones add up to the requested number of transactions.
+     */
+    private static double volume(Settings settings) {
+        if (settings.transactions() <= 0) {
+            return 1;
+        }
+        double recurring = 0;
+        double variable = 0;
+        for (LocalDate day = settings.firstDay(); !day.isAfter(settings.lastDay()); day = day.plusDays(1)) {
+            recurring += recurringOn(day);
+            for (VariableCategory category : VARIABLE_CATEGORIES) {
+                variable += category.rateOn(day);
+            }
+            variable += FREELANCE_DAILY_RATE;
+        }
+        return variable == 0 ? 1 : Math.max(0, settings.transactions() - recurring) / variable;
+    }
+
+    private static int recurringOn(LocalDate day) {
+        int count = 0;
+        if (day.getDayOfMonth() == 1) {
+            count++; // rent
+        }
+        if (day.getDayOfMonth() == 15) {
+            count++; // utilities
+        }
+        for (Subscription subscription : SUBSCRIPTION_EXPENSES) {
+            if (day.getDayOfMonth() == subscription.dayOfMonth()) {
+                count++;
+            }
+        }
+        if (day.getDayOfMonth() == 25) {
+            count++; // salary
+        }
+        if (day.equals(YearMonth.from(day).atEndOfMonth())) {
+            count++; // interest
+        }
+        return count;
+    }
+
+    private class RecordIterator implements Iterator<ObjectNode> {
+
+        private final Random random = new Random(settings.seed());
+        private final ArrayDeque<ObjectNode> pending = new ArrayDeque<>();
+        private LocalDate day = settings.firstDay();
+        private int expenseId;
+        private int incomeId;
+
+        RecordIterator() {
+            addReferenceRecords();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && !day.isAfter(settings.lastDay())) {
+                addRecordsOf(day);
+                day = day.plusDays(1);
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public ObjectNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        private void addReferenceRecords() {
+            Currency currency = settings.currency();
+            pending.add(record("currency", CURRENCY_ID)
+                    .put("code", currency.getCode())
+                    .put("name", currency.getName())
+                    .put("symbol", currency.getSymbol()));
+
+            for (RecurringCategory category : RECURRING_CATEGORIES) {
+                pending.add(record("expenseCategory", category.id())
+                        .put("name", category.name())
+                        .put("budget", category.budget()));
+            }
+            for (VariableCategory category : VARIABLE_CATEGORIES) {
+                pending.add(record("expenseCategory", category.id())
+                        .put("name", category.name())
+                        .put("budget", Math.round(category.budget() * Math.max(volume, 0.1))));
+            }
+            for (int i = 0; i < INCOME_CATEGORIES.size(); i++) {
+                pending.add(record("incomeCategory", i + 1).put("name", INCOME_CATEGORIES.get(i)));
+            }
+            for (int i = 0; i < TAGS.size(); i++) {
+                pending.add(record("tag", i + 1).put("name", TAGS.get(i)));
+            }
+        }
+
+        private void addRecordsOf(LocalDate day) {
+            double raise = Math.pow(YEARLY_RAISE, day.getYear() - settings.firstDay().getYear());
+            int dayOfMonth = day.getDayOfMonth();
+
+            if (dayOfMonth == 1) {
+                addExpense(RENT, null, (float) (1200 * raise), day, "Rent");
+            }
+            if (dayOfMonth == 15) {
+                // Heating in winter, less in summer
+                double season = 1 + 0.35 * Math.cos(2 * Math.PI * (day.getMonthValue() - 1) / 12);
+                addExpense(UTILITIES, null, amount(110 * season, 0.1), day, "Utilities");
+            }
+            for (Subscription subscription : SUBSCRIPTION_EXPENSES) {
+                if (dayOfMonth == subscription.dayOfMonth()) {
+                    addExpense(SUBSCRIPTIONS, SUBSCRIPTION_TAG, subscription.amount(), day, subscription.name());
+                }
+            }
+
+            for (VariableCategory category : VARIABLE_CATEGORIES) {
+                int count = poisson(category.rateOn(day) * volume);
+                for (int i = 0; i < count; i++) {
+                    Integer tagId = category.tagId() != null && random.nextDouble() < category.tagProbability()
+                            ? category.tagId() : null;
+                    addExpense(category.id(), tagId, amount(category.medianAmount(), category.sigma()), day,
+                            category.name());
+                }
+            }
+
+            if (dayOfMonth == 25) {
+                addIncome(SALARY, null, (float) (3500 * raise), day, "Salary");
+            }
+            int freelance = poisson(FREELANCE_DAILY_RATE * volume);
+            for (int i = 0; i < freelance; i++) {
+                addIncome(FREELANCE, WORK_TAG, amount(400, 0.7), day, "Freelance");
+            }
+            if (day.equals(YearMonth.from(day).atEndOfMonth())) {
+                addIncome(INTEREST, null, amount(5, 0.5), day, "Interest");
+            }
+        }
+
+        private void addExpense(int categoryId, Integer tagId, float amount, LocalDate day, String description) {
+            pending.add(transaction("expense", ++expenseId, categoryId, tagId, amount, day, description));
+        }
+
+        private void addIncome(int categoryId, Integer tagId, float amount, LocalDate day, String description) {
+            pending.add(transaction("income", ++incomeId, categoryId, tagId, amount, day, description));
+        }
+
+        /**
+         * A log-normal amount in cents, at least one cent.
+         */
+        private float amount(double median, double sigma) {
+            double amount = median * Math.exp(sigma * random.nextGaussian());
+            return Math.max(1, Math.round(amount * 100)) / 100f;
+        }
+
+        private int poisson(double mean) {
+            if (mean <= 0) {
+                return 0;
+            }
+            if (mean > 30) {
+                // The normal approximation, the product below underflows for large means
+                return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+            }
+            double limit = Math.exp(-mean);
+            double product = random.nextDouble();
+            int count = 0;
+            while (product > limit) {
+                product *= random.nextDouble();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static ObjectNode record(String type, int id) {
+        ObjectNode record = NODES.objectNode();
+        record.put("type", type);
+        record.put("id", id);
+        return record;
+    }
+
+    private static ObjectNode transaction(String type, int id, int categoryId, Integer tagId, float amount,
+                                          LocalDate day, String description) {
+        ObjectNode record = record(type, id)
+                .put("categoryId", categoryId)
+                .put("currencyId", CURRENCY_ID)
+                .put("amount", amount)
+                .put("date", day.toString())
+                .put("description", description);
+        if (tagId != null) {
+            record.put("tagId", tagId);
+        } else {
+            record.putNull("tagId");
+        }
+        return record;
+    }
+
+    private record RecurringCategory(int id, String name, float budget) {}
+
+    private record Subscription(int dayOfMonth, String name, float amount) {}
+
+    /**
+     * @param dailyRate the mean number of expenses per day, before the volume is applied
+     * @param weekendFactor the factor of the rate on saturdays and sundays
+     * @param monthFactors the factor of the rate in every month, January first
+     */
+    private record VariableCategory(int id, String name, float budget, double dailyRate, double medianAmount,
+                                    double sigma, double weekendFactor, Integer tagId, double tagProbability,
+                                    double[] monthFactors) {
+
+        double rateOn(LocalDate day) {
+            boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+            return dailyRate * monthFactors[day.getMonthValue() - 1] * (weekend ? weekendFactor : 1);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.api.expenses.rest.services.statistics;
+
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto.CategoryStreakDto;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto.StreakDto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates budget streaks from daily per-category spending.
+ * <p>
+ * A category is under budget on a day when the amount spent from the start of the month up to and
+ * including that day does not exceed its monthly budget prorated to that day. A day is under budget
+ * when every budgeted category is.
+ * <p>
+ * Each month of the window is processed once: the daily totals of every category are loaded into a
+ * cumulative-sum array, so the month-to-date spending of any day is a single array read.
+ */
+public class BudgetStreakCalculator {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private final List<ExpenseCategory> categories;
+    private final Map<Integer, Integer> categoryIndexes = new HashMap<>();
+
+    /**
+     * @param categories the categories of the user, the ones without a budget are ignored
+     */
+    public BudgetStreakCalculator(List<ExpenseCategory> categories) {
+        this.categories = categories.stream()
+            .filter(category -> category.getBudget() > 0)
+            .toList();
+        for (int i = 0; i < this.categories.size(); i++) {
+            categoryIndexes.put(this.categories.get(i).getId(), i);
+        }
+    }
+
+    /**
+     * @return true if there is at least one category with a budget
+     */
+    public boolean hasBudgetedCategories() {
+        return !categories.isEmpty();
+    }
+
+    /**
+     * Calculates the streaks in the window [startDate, endDate].
+     *
+     * @param startDate the first day of the window
+     * @param endDate the last day of the window
+     * @param spending the daily per-category spending, it must cover the window from the first day of the start month
+     * @return the overall and per-category streaks
+     */
+    public BudgetStreakReportDto calculate(LocalDate startDate, LocalDate endDate, SpendingAggregates spending) {
+        StreakTracker overall = new StreakTracker();
+        StreakTracker[] perCategory = new StreakTracker[categories.size()];
+        for (int i = 0; i < perCategory.length; i++) {
+            perCategory[i] = new StreakTracker();
+        }
+
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            int daysInMonth = month.lengthOfMonth();
+            int lastDay = month.equals(YearMonth.from(endDate)) ? endDate.getDayOfMonth() : daysInMonth;
+            int firstDay = month.equals(YearMonth.from(startDate)) ? startDate.getDayOfMonth() : 1;
+
+            double[][] cumulativeSpending = loadCumulativeSpending(month, lastDay, spending);
+
+            for (int day = firstDay; day <= lastDay; day++) {
+                LocalDate date = month.atDay(day);
+                boolean dayUnderBudget = true;
+
+                for (int i = 0; i < categories.size(); i++) {
+                    // Prorated budget for this day, computed as the original day by day check did
+                    float dailyBudget = categories.get(i).getBudget() / daysInMonth;
+                    float proratedBudget = dailyBudget * day;
+                    boolean categoryUnderBudget = (float) cumulativeSpending[i][day] <= proratedBudget;
+
+                    perCategory[i].record(date, categoryUnderBudget);
+                    dayUnderBudget &= categoryUnderBudget;
+                }
+                overall.record(date, dayUnderBudget && !categories.isEmpty());
+            }
+        }
+
+        List<CategoryStreakDto> categoryStreaks = new ArrayList<>();
+        for (int i = 0; i < categories.size(); i++) {
+            ExpenseCategory category = categories.get(i);
+            categoryStreaks.add(new CategoryStreakDto(
+                category.getId(),
+                category.getName(),
+                category.getBudget(),
+                perCategory[i].longestStreak(),
+                perCategory[i].currentStreak()
+            ));
+        }
+
+        return new BudgetStreakReportDto(
+            // Both ends of the window are included
+            (int) ChronoUnit.DAYS.between(startDate, endDate) + 1,
+            startDate.format(FORMATTER),
+            endDate.format(FORMATTER),
+            overall.longestStreak(),
+            overall.currentStreak(),
+            categoryStreaks
+        );
+    }
+
+    /**
+     * Builds, for every budgeted category, the cumulative spending of the month where index d holds
+     * the amount spent from day 1 up to and including day d.
+     */
+    private double[][] loadCumulativeSpending(YearMonth month, int lastDay, SpendingAggregates spending) {
+        double[][] cumulativeSpending = new double[categories.size()][month.lengthOfMonth() + 1];
+
+        for (int day = 1; day <= lastDay; day++) {
+            for (double[] categorySpending : cumulativeSpending) {
+                categorySpending[day] = categorySpending[day - 1];
+            }
+            for (Map.Entry<Integer, Double> entry : spending.getCategoryTotalsForDay(month.atDay(day)).entrySet()) {
+                Integer index = categoryIndexes.get(entry.getKey());
+                if (index != null) {
+                    cumulativeSpending[index][day] += entry.getValue();
+                }
+            }
+        }
+        return cumulativeSpending;
+    }
+
+    /**
+     * Tracks the longest and the current run of consecutive days under budget.
+     */
+    private static class StreakTracker {
+        private int current;
+        private LocalDate currentStart;
+        private int longest;
+        private LocalDate longestStart;
+        private LocalDate longestEnd;
+        private LocalDate lastDate;
+
+        void record(LocalDate date, boolean underBudget) {
+            lastDate = date;
+            if (!underBudget) {
+                current = 0;
+                return;
+            }
+            if (current == 0) {
+                currentStart = date;
+            }
+            current++;
+            if (current > longest) {
+                longest = current;
+                longestStart = currentStart;
+                longestEnd = date;
+            }
+        }
+
+        StreakDto longestStreak() {
+            return toDto(longest, longestStart, longestEnd);
+        }
+
+        StreakDto currentStreak() {
+            return toDto(current, currentStart, lastDate);
+        }
+
+        private static StreakDto toDto(int days, LocalDate start, LocalDate end) {
+            if (days == 0) {
+                return new StreakDto(0, "N/A", "N/A");
+            }
+            return new StreakDto(days, start.format(FORMATTER), end.format(FORMATTER));
+        }
+    }
+}
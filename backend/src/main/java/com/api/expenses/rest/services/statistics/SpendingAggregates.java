@@ -0,0 +1,97 @@
+package com.api.expenses.rest.services.statistics;
+
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * In-memory view over the daily per-category spending of a user.
+ * It is built from a single grouped scan (one row per day and category) and answers the per-day,
+ * per-category and per-month questions of the statistical summary without going back to the database.
+ */
+public class SpendingAggregates {
+
+    private final NavigableMap<LocalDate, Map<Integer, Double>> dailyCategoryTotals;
+    private final NavigableMap<LocalDate, Double> dailyTotals;
+    private final Map<Integer, Double> categoryTotals;
+    private final Map<YearMonth, Double> monthlyTotals;
+
+    private SpendingAggregates(NavigableMap<LocalDate, Map<Integer, Double>> dailyCategoryTotals,
+                               NavigableMap<LocalDate, Double> dailyTotals,
+                               Map<Integer, Double> categoryTotals,
+                               Map<YearMonth, Double> monthlyTotals) {
+        this.dailyCategoryTotals = dailyCategoryTotals;
+        this.dailyTotals = dailyTotals;
+        this.categoryTotals = categoryTotals;
+        this.monthlyTotals = monthlyTotals;
+    }
+
+    /**
+     * Builds the aggregates from the rows of a daily per-category grouped scan.
+     *
+     * @param rows one row per day and category, in any order
+     * @return the aggregates of the given rows
+     */
+    public static SpendingAggregates fromDailyCategoryTotals(List<? extends DailyCategoryTotal> rows) {
+        NavigableMap<LocalDate, Map<Integer, Double>> dailyCategoryTotals = new TreeMap<>();
+        NavigableMap<LocalDate, Double> dailyTotals = new TreeMap<>();
+        Map<Integer, Double> categoryTotals = new HashMap<>();
+        Map<YearMonth, Double> monthlyTotals = new HashMap<>();
+
+        for (DailyCategoryTotal row : rows) {
+            LocalDate date = row.getDate().toLocalDate();
+            int categoryId = row.getCategoryId();
+            double total = row.getTotal() != null ? row.getTotal() : 0d;
+
+            dailyCategoryTotals.computeIfAbsent(date, d -> new HashMap<>()).merge(categoryId, total, Double::sum);
+            dailyTotals.merge(date, total, Double::sum);
+            categoryTotals.merge(categoryId, total, Double::sum);
+            monthlyTotals.merge(YearMonth.from(date), total, Double::sum);
+        }
+
+        return new SpendingAggregates(dailyCategoryTotals, dailyTotals, categoryTotals, monthlyTotals);
+    }
+
+    /**
+     * @return the day with the highest total spending, the earliest one on ties, or empty if there is no spending
+     */
+    public Optional<Map.Entry<LocalDate, Float>> getHighestSpendingDay() {
+        return highestEntry(dailyTotals);
+    }
+
+    /**
+     * @return the category with the highest total spending, or empty if there is no spending
+     */
+    public Optional<Map.Entry<Integer, Float>> getHighestSpendingCategory() {
+        return highestEntry(categoryTotals);
+    }
+
+    /**
+     * @return the total spent in the given month, 0 if nothing was spent
+     */
+    public float getTotalForMonth(YearMonth month) {
+        return monthlyTotals.getOrDefault(month, 0d).floatValue();
+    }
+
+    /**
+     * @return the total spent per category on the given day, an empty map if nothing was spent
+     */
+    public Map<Integer, Double> getCategoryTotalsForDay(LocalDate date) {
+        return dailyCategoryTotals.getOrDefault(date, Collections.emptyMap());
+    }
+
+    private static <K> Optional<Map.Entry<K, Float>> highestEntry(Map<K, Double> totals) {
+        Map.Entry<K, Double> highestEntry = null;
+        for (Map.Entry<K, Double> entry : totals.entrySet()) {
+            if (highestEntry == null || entry.getValue() > highestEntry.getValue()) {
+                highestEntry = entry;
+            }
+        }
+        if (highestEntry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Map.entry(highestEntry.getKey(), highestEntry.getValue().floatValue()));
+    }
+}
@@ -1,5 +1,10 @@
 package com.api.expenses.rest.utils;
 
+import com.api.expenses.rest.exceptions.TransactionException;
+
+import java.time.DateTimeException;
+import java.time.Year;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.text.ParseException;
@@ -36,4 +41,30 @@ public class DateUtils {
         cal.setTime(inputDate);
         return cal.get(Calendar.YEAR);
     }
+
+    /**
+     * Gets the month of a year, rejecting a month or a year out of range.
+     *
+     * @throws TransactionException if the month or the year is invalid
+     */
+    public static YearMonth toYearMonth(int month, int year) throws TransactionException {
+        try {
+            return YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+    }
+
+    /**
+     * Gets the year, rejecting a year out of range.
+     *
+     * @throws TransactionException if the year is invalid
+     */
+    public static Year toYear(int year) throws TransactionException {
+        try {
+            return Year.of(year);
+        } catch (DateTimeException e) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PERIOD);
+        }
+    }
 }
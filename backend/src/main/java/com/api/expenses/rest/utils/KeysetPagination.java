@@ -0,0 +1,93 @@
+package com.api.expenses.rest.utils;
+
+import com.api.expenses.rest.exceptions.TransactionException;
+import com.api.expenses.rest.models.Transaction;
+import com.api.expenses.rest.models.dtos.TransactionPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset pagination over transactions ordered by date and id, both descending.
+ * A page continues after the (date, id) of the last transaction of the previous page, so the database seeks
+ * straight to it instead of skipping the previous rows, and the pages stay stable while transactions are added.
+ * The position is handed to the client as an opaque Base64 cursor.
+ */
+public class KeysetPagination {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Position before the first transaction, every transaction sorts after it.
+     */
+    private static final Date FIRST_PAGE_DATE = Date.valueOf("9999-12-31");
+    private static final int FIRST_PAGE_ID = Integer.MAX_VALUE;
+
+    /**
+     * Fetches the transactions that sort after (afterDate, afterId), at most fetchSize of them.
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        List<T> fetch(Date afterDate, int afterId, int fetchSize);
+    }
+
+    /**
+     * Fetches a page of transactions.
+     *
+     * @param cursor the cursor returned with the previous page, null or empty for the first page
+     * @param pageSize the number of transactions of the page, capped to MAX_PAGE_SIZE
+     * @param query the seek query
+     * @return the page, with the cursor of the next one if there are more transactions
+     * @throws TransactionException if the cursor cannot be decoded or the page size is not positive
+     */
+    public static <T extends Transaction> TransactionPageDto<T> fetchPage(String cursor, int pageSize, PageQuery<T> query)
+            throws TransactionException {
+        if (pageSize < 1) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_PAGE_SIZE);
+        }
+        int size = Math.min(pageSize, MAX_PAGE_SIZE);
+
+        Date afterDate = FIRST_PAGE_DATE;
+        int afterId = FIRST_PAGE_ID;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            try {
+                afterDate = Date.valueOf(position[0]);
+                afterId = Integer.parseInt(position[1]);
+            } catch (IllegalArgumentException e) {
+                throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_CURSOR);
+            }
+        }
+
+        // One more row than the page holds tells whether there is a next page
+        List<T> rows = query.fetch(afterDate, afterId, size + 1);
+        if (rows.size() <= size) {
+            return new TransactionPageDto<>(rows, null, false);
+        }
+
+        List<T> items = rows.subList(0, size);
+        T last = items.get(size - 1);
+        return new TransactionPageDto<>(items, encodeCursor(last.getDate(), last.getId()), true);
+    }
+
+    private static String encodeCursor(Date date, int id) {
+        String position = date.toString() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) throws TransactionException {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":");
+            if (parts.length != 2) {
+                throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_CURSOR);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new TransactionException(TransactionException.TransactionExceptionType.INVALID_CURSOR);
+        }
+    }
+}
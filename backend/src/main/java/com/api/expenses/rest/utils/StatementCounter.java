@@ -0,0 +1,87 @@
+package com.api.expenses.rest.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements Hibernate prepares while a count is started on the current thread.
+ * The StatementCountFilter starts one count per request, and the tasks of the application executor carry the
+ * count of the thread that submitted them, so the sections of a request that run in parallel are counted too.
+ * Statements issued with a JdbcTemplate do not go through Hibernate and are not counted.
+ * The SQL itself can also be recorded, for the tests that check the plans of the statements a repository issues.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger count = CURRENT.get();
+        if (count != null) {
+            count.incrementAndGet();
+        }
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Records the SQL of the statements prepared on the current thread while the action runs.
+     *
+     * @return the statements, in the order they were prepared
+     */
+    public static List<String> record(Runnable action) {
+        List<String> recorded = new ArrayList<>();
+        RECORDED.set(recorded);
+        try {
+            action.run();
+        } finally {
+            RECORDED.remove();
+        }
+        return recorded;
+    }
+
+    /**
+     * Starts counting the statements of the current thread.
+     *
+     * @return the count, it keeps growing until stop is called
+     */
+    public static AtomicInteger start() {
+        AtomicInteger count = new AtomicInteger();
+        CURRENT.set(count);
+        return count;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task so that it adds its statements to the count of the calling thread, if there is one.
+     */
+    public static Runnable propagate(Runnable task) {
+        AtomicInteger count = CURRENT.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            AtomicInteger previous = CURRENT.get();
+            CURRENT.set(count);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
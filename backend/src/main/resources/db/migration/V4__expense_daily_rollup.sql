@@ -0,0 +1,25 @@
+CREATE TABLE expense_daily_rollup
+(
+    user_id       BINARY(16)         NOT NULL,
+    date          date               NOT NULL,
+    category_id   INT                NOT NULL,
+    tag_id        INT                NOT NULL DEFAULT 0,
+    currency_id   INT                NOT NULL,
+    year          INT                NOT NULL,
+    month         INT                NOT NULL,
+    week          INT                NOT NULL,
+    total         DOUBLE             NOT NULL,
+    expense_count INT                NOT NULL,
+    CONSTRAINT pk_expense_daily_rollup PRIMARY KEY (user_id, date, category_id, tag_id, currency_id)
+);
+
+ALTER TABLE expense_daily_rollup
+    ADD CONSTRAINT fk_expense_daily_rollup_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+
+-- Expenses without a tag are rolled up under tag 0
+INSERT INTO expense_daily_rollup (user_id, date, category_id, tag_id, currency_id, year, month, week, total, expense_count)
+SELECT user_id, date, COALESCE(category_id, 0), COALESCE(tag_id, 0), COALESCE(currency_id, 0),
+       MAX(year), MAX(month), MAX(week), SUM(amount), COUNT(*)
+FROM expenses
+WHERE user_id IS NOT NULL
+GROUP BY user_id, date, COALESCE(category_id, 0), COALESCE(tag_id, 0), COALESCE(currency_id, 0);
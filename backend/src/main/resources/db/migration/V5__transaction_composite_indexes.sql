@@ -0,0 +1,19 @@
+-- Every finder filters on the user and the period, the amount is appended so that the totals are index-only
+
+-- month/year, month/year/tag and year
+CREATE INDEX idx_expenses_user_year_month_tag ON expenses (user_id, year, month, tag_id, amount);
+
+-- year/category and month/year/category
+CREATE INDEX idx_expenses_user_year_category_month ON expenses (user_id, year, category_id, month, amount);
+
+-- week/year and week/year/category
+CREATE INDEX idx_expenses_user_year_week_category ON expenses (user_id, year, week, category_id, amount);
+
+-- month/year, month/year/category, year and the monthly totals
+CREATE INDEX idx_incomes_user_year_month_category ON incomes (user_id, year, month, category_id, amount);
+
+-- week/year
+CREATE INDEX idx_incomes_user_year_week ON incomes (user_id, year, week, amount);
+
+-- weekly totals of the rollup
+CREATE INDEX idx_expense_daily_rollup_user_year_week ON expense_daily_rollup (user_id, year, week, total);
@@ -0,0 +1,8 @@
+-- Keyset pagination seeks on (date, id) descending, InnoDB appends the id to every secondary index
+CREATE INDEX idx_expenses_user_date ON expenses (user_id, date);
+
+CREATE INDEX idx_expenses_user_category_date ON expenses (user_id, category_id, date);
+
+CREATE INDEX idx_expenses_user_tag_date ON expenses (user_id, tag_id, date);
+
+CREATE INDEX idx_incomes_user_date ON incomes (user_id, date);
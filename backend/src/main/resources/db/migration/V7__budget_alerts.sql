@@ -0,0 +1,50 @@
+-- Month-to-date spending of every category, maintained next to the daily rollup on every expense write,
+-- with the budget alerts already sent for the month
+CREATE TABLE budget_month_progress
+(
+    user_id         BINARY(16)         NOT NULL,
+    category_id     INT                NOT NULL,
+    year            INT                NOT NULL,
+    month           INT                NOT NULL,
+    total           DOUBLE             NOT NULL,
+    alerted_percent INT                NOT NULL DEFAULT 0,
+    pace_alerted    BOOLEAN            NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_budget_month_progress PRIMARY KEY (user_id, category_id, year, month)
+);
+
+ALTER TABLE budget_month_progress
+    ADD CONSTRAINT fk_budget_month_progress_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+
+ALTER TABLE budget_month_progress
+    ADD CONSTRAINT fk_budget_month_progress_category FOREIGN KEY (category_id) REFERENCES expense_categories (id) ON DELETE CASCADE;
+
+INSERT INTO budget_month_progress (user_id, category_id, year, month, total)
+SELECT r.user_id, r.category_id, r.year, r.month, SUM(r.total)
+FROM expense_daily_rollup r
+         JOIN expense_categories c ON c.id = r.category_id
+GROUP BY r.user_id, r.category_id, r.year, r.month;
+
+-- The inbox of the budget alerts, polled by id
+CREATE TABLE budget_alerts
+(
+    id                INT AUTO_INCREMENT NOT NULL,
+    user_id           BINARY(16)         NOT NULL,
+    category_id       INT                NOT NULL,
+    year              INT                NOT NULL,
+    month             INT                NOT NULL,
+    type              VARCHAR(16)        NOT NULL,
+    threshold_percent INT                NULL,
+    budget            FLOAT              NOT NULL,
+    total             DOUBLE             NOT NULL,
+    created_at        datetime           NOT NULL,
+    read_at           datetime           NULL,
+    CONSTRAINT pk_budget_alerts PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_budget_alerts_user_id ON budget_alerts (user_id, id);
+
+ALTER TABLE budget_alerts
+    ADD CONSTRAINT fk_budget_alerts_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+
+ALTER TABLE budget_alerts
+    ADD CONSTRAINT fk_budget_alerts_category FOREIGN KEY (category_id) REFERENCES expense_categories (id) ON DELETE CASCADE;
@@ -0,0 +1,4 @@
+-- The budget alert thresholds of a category, in percent of its budget and comma separated,
+-- NULL for the thresholds of the configuration
+ALTER TABLE expense_categories
+    ADD alert_thresholds VARCHAR(64) NULL;
@@ -1,3 +1,4 @@
+DELETE FROM expense_daily_rollup WHERE true;
 DELETE FROM incomes WHERE true;
 DELETE FROM expenses WHERE true;
 DELETE FROM tags WHERE true;
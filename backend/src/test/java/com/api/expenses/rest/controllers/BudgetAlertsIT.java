@@ -0,0 +1,261 @@
+package com.api.expenses.rest.controllers;
+
+import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Writes expenses of the current month to a category with a budget of 100, changes its budget and its thresholds,
+ * and reads the alerts they send.
+ * Pace alerts depend on the day of the month the test runs on, only the threshold alerts are asserted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BudgetAlertsIT {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String bearerToken;
+    private int categoryId;
+    private final List<String> expenseIds = new ArrayList<>();
+
+    @Autowired
+    public BudgetAlertsIT(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        categoryId = Integer.parseInt(mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Alerts category\", \"description\": \"Budget alerts\", \"budget\": \"100\"}")
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (String expenseId : expenseIds) {
+            mockMvc.perform(delete("/expenses/delete?expenseId=" + expenseId)
+                    .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+        expenseIds.clear();
+
+        // The month total and the alerts of the category are deleted with it
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Budget alerts - Thresholds are sent once and re-armed")
+    public void thresholdAlerts() throws Exception {
+        int lastAlertId = lastAlertId();
+
+        addExpense(30);
+        assertTrue(thresholdAlerts(lastAlertId).isEmpty());
+
+        addExpense(25);
+        List<JsonNode> alerts = thresholdAlerts(lastAlertId);
+        assertEquals(1, alerts.size());
+        assertEquals(50, alerts.get(0).get("thresholdPercent").asInt());
+        assertEquals(55, alerts.get(0).get("total").asDouble(), 0.001);
+        assertEquals(100f, alerts.get(0).get("budget").floatValue());
+        assertEquals(LocalDate.now().getMonthValue(), alerts.get(0).get("month").asInt());
+        assertFalse(alerts.get(0).get("read").asBoolean());
+
+        // Only the highest of the thresholds reached at once is sent
+        String overBudgetExpenseId = addExpense(50);
+        alerts = thresholdAlerts(lastAlertId);
+        assertEquals(2, alerts.size());
+        assertEquals(100, alerts.get(1).get("thresholdPercent").asInt());
+
+        // Back to 55%, the thresholds above are re-armed without an alert
+        mockMvc.perform(delete("/expenses/delete?expenseId=" + overBudgetExpenseId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+        expenseIds.remove(overBudgetExpenseId);
+        assertEquals(2, thresholdAlerts(lastAlertId).size());
+
+        addExpense(30);
+        alerts = thresholdAlerts(lastAlertId);
+        assertEquals(3, alerts.size());
+        assertEquals(80, alerts.get(2).get("thresholdPercent").asInt());
+
+        // At most one pace alert per month
+        long paceAlerts = categoryAlerts(lastAlertId).stream()
+                .filter(alert -> alert.get("type").asText().equals("PACE"))
+                .count();
+        assertTrue(paceAlerts <= 1);
+
+        int newestAlertId = alerts.get(2).get("id").asInt();
+        mockMvc.perform(post("/budget/alerts/read")
+                .header("Authorization", bearerToken)
+                .param("upTo", String.valueOf(newestAlertId))
+        ).andExpect(status().isNoContent());
+        assertTrue(thresholdAlerts(lastAlertId).stream().allMatch(alert -> alert.get("read").asBoolean()));
+    }
+
+    @Test
+    @DisplayName("Budget alerts - A category alerts at its own thresholds")
+    public void categoryThresholds() throws Exception {
+        int lastAlertId = lastAlertId();
+
+        assertEquals(List.of(30, 90), setThresholds("[90, 30, 90]"));
+        addExpense(35);
+        List<JsonNode> alerts = thresholdAlerts(lastAlertId);
+        assertEquals(1, alerts.size());
+        assertEquals(30, alerts.get(0).get("thresholdPercent").asInt());
+
+        // 50% is not a threshold of the category
+        addExpense(20);
+        assertEquals(1, thresholdAlerts(lastAlertId).size());
+
+        // Back to the default thresholds, the 50% already reached is sent when they are set
+        assertEquals(List.of(50, 80, 100), setThresholds("[]"));
+        alerts = thresholdAlerts(lastAlertId);
+        assertEquals(2, alerts.size());
+        assertEquals(50, alerts.get(1).get("thresholdPercent").asInt());
+
+        mockMvc.perform(put("/budget/alerts/thresholds/" + categoryId)
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[0, 50]")
+        ).andExpect(status().isBadRequest());
+        mockMvc.perform(put("/budget/alerts/thresholds/" + Integer.MAX_VALUE)
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[50]")
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Budget alerts - Changing the budget evaluates the current month")
+    public void budgetChangeEvaluatesAlerts() throws Exception {
+        int lastAlertId = lastAlertId();
+
+        addExpense(60);
+        assertEquals(1, thresholdAlerts(lastAlertId).size());
+
+        // The spending so far is over the lower budget
+        modifyBudget(50);
+        List<JsonNode> alerts = thresholdAlerts(lastAlertId);
+        assertEquals(2, alerts.size());
+        assertEquals(100, alerts.get(1).get("thresholdPercent").asInt());
+        assertEquals(50f, alerts.get(1).get("budget").floatValue());
+
+        // A higher budget re-arms the thresholds without an alert, the first one is reached again when it is lowered
+        modifyBudget(1000);
+        assertEquals(2, thresholdAlerts(lastAlertId).size());
+        modifyBudget(100);
+        alerts = thresholdAlerts(lastAlertId);
+        assertEquals(3, alerts.size());
+        assertEquals(50, alerts.get(2).get("thresholdPercent").asInt());
+    }
+
+    @Test
+    @DisplayName("Budget alerts - Polling after the newest alert returns nothing")
+    public void pollAfterNewestAlert() throws Exception {
+        addExpense(60);
+        int lastAlertId = lastAlertId();
+
+        JsonNode alerts = getAlerts(lastAlertId, 50);
+        assertEquals(0, alerts.size());
+
+        mockMvc.perform(get("/budget/alerts")
+                .header("Authorization", bearerToken)
+                .param("limit", "0")
+        ).andExpect(status().isBadRequest());
+    }
+
+    private String addExpense(float amount) throws Exception {
+        String expenseJson = "{\"categoryId\": " + categoryId + ", \"amount\": " + amount + ", \"currencyId\": 1, " +
+                "\"date\": \"" + LocalDate.now() + "\", \"description\": \"Budget alert expense\"}";
+        String expenseId = mockMvc.perform(post("/expenses/add")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        expenseIds.add(expenseId);
+        return expenseId;
+    }
+
+    private List<Integer> setThresholds(String thresholds) throws Exception {
+        return objectMapper.readValue(mockMvc.perform(put("/budget/alerts/thresholds/" + categoryId)
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(thresholds)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString(), new TypeReference<>() {});
+    }
+
+    private void modifyBudget(float budget) throws Exception {
+        mockMvc.perform(post("/budget/modify")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"categoryId\": " + categoryId + ", \"newBudget\": " + budget + "}]")
+        ).andExpect(status().isOk());
+    }
+
+    private List<JsonNode> thresholdAlerts(int afterId) throws Exception {
+        return categoryAlerts(afterId).stream()
+                .filter(alert -> alert.get("type").asText().equals("THRESHOLD"))
+                .toList();
+    }
+
+    private List<JsonNode> categoryAlerts(int afterId) throws Exception {
+        List<JsonNode> alerts = new ArrayList<>();
+        for (JsonNode alert : getAlerts(afterId, 500)) {
+            if (alert.get("categoryId").asInt() == categoryId) {
+                alerts.add(alert);
+            }
+        }
+        return alerts;
+    }
+
+    private int lastAlertId() throws Exception {
+        int lastAlertId = 0;
+        JsonNode alerts = getAlerts(lastAlertId, 500);
+        while (!alerts.isEmpty()) {
+            lastAlertId = alerts.get(alerts.size() - 1).get("id").asInt();
+            alerts = getAlerts(lastAlertId, 500);
+        }
+        return lastAlertId;
+    }
+
+    private JsonNode getAlerts(int afterId, int limit) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/budget/alerts")
+                .header("Authorization", bearerToken)
+                .param("after", String.valueOf(afterId))
+                .param("limit", String.valueOf(limit))
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+}
@@ -3,10 +3,16 @@ package com.api.expenses.rest.controllers;
 import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
 import com.api.expenses.rest.models.ExpenseCategory;
 import com.api.expenses.rest.models.dtos.BudgetBurndownDto;
+import com.api.expenses.rest.models.dtos.CompactBudgetBurndownDto;
 import com.api.expenses.rest.models.dtos.GetBudgetDto;
 import com.api.expenses.rest.models.dtos.UpdateBudgetDto;
+import com.api.expenses.rest.models.dtos.UpdateBudgetResultDto;
+import com.api.expenses.rest.services.budget.MonthBurndown;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +20,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.nio.file.Files;
@@ -23,21 +30,33 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.api.expenses.rest.controllers.utils.StatementCountMatchers.statementCount;
+import static com.api.expenses.rest.controllers.utils.StatementCountMatchers.statementCountOf;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 public class BudgetRequestsIT {
 
+    /**
+     * Statements issued by the budget: the categories.
+     * Modifying the budget issues them too, followed by a single update and a single read of the month totals of
+     * the changed categories, for their alerts, when any budget changes.
+     */
+    private static final int BUDGET_QUERY_COUNT = 1;
+
     private final MockMvc mockMvc;
+    private final SessionFactory sessionFactory;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
-    public BudgetRequestsIT(MockMvc mockMvc) {
+    public BudgetRequestsIT(MockMvc mockMvc, EntityManagerFactory entityManagerFactory) {
         this.mockMvc = mockMvc;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
     }
 
     @Test
@@ -75,11 +94,28 @@ public class BudgetRequestsIT {
 
         String json = new ObjectMapper().writeValueAsString(newBudgets);
 
+        // Both budgets change, the categories, a single update and the month totals are queried
+        sessionFactory.getCache().evictAllRegions();
         ResultActions modifyBudgetFetchResult = mockMvc.perform(post("/budget/modify")
                 .header("Authorization",bearerToken)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(json)
-        ).andExpect(status().isNoContent());
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(BUDGET_QUERY_COUNT + 2));
+        UpdateBudgetResultDto modifyResult = objectMapper.readValue(
+                modifyBudgetFetchResult.andReturn().getResponse().getContentAsString(), UpdateBudgetResultDto.class);
+        assertEquals(List.of(categoryId1Int, categoryId2Int), modifyResult.changedCategoryIds());
+
+        // The same budgets again change nothing, only the categories are queried
+        sessionFactory.getCache().evictAllRegions();
+        UpdateBudgetResultDto unchangedResult = objectMapper.readValue(mockMvc.perform(post("/budget/modify")
+                .header("Authorization",bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json)
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(BUDGET_QUERY_COUNT))
+         .andReturn().getResponse().getContentAsString(), UpdateBudgetResultDto.class);
+        assertTrue(unchangedResult.changedCategoryIds().isEmpty());
 
         ResultActions budgetFetchResult = mockMvc.perform(get("/budget")
                 .header("Authorization",bearerToken)
@@ -183,6 +219,346 @@ public class BudgetRequestsIT {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("Budget and burndown - Fixed number of queries")
+    public void budgetAndBurndownRunAFixedNumberOfQueries() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String categoryAsString = new String(Files.readAllBytes(Path.of("src/test/resources/categories/expense/validCategory.json")));
+        String categoryId = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryAsString)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        String expenseJson = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/validExpenseToAdd.json")))
+                .replace("\"categoryId\": 0", "\"categoryId\": " + categoryId);
+        List<String> expenseIds = new ArrayList<>();
+        expenseIds.add(mockMvc.perform(post("/expenses/add")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        // The second-level cache is emptied so that every call issues every query, the user is already cached
+        sessionFactory.getCache().evictAllRegions();
+        mockMvc.perform(get("/budget")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(BUDGET_QUERY_COUNT));
+
+        sessionFactory.getCache().evictAllRegions();
+        int burndownQueries = statementCountOf(mockMvc.perform(get("/budget/burndown")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk()).andReturn());
+
+        // Add more expenses, the number of queries must not change
+        for (int i = 0; i < 5; i++) {
+            expenseIds.add(mockMvc.perform(post("/expenses/add")
+                    .header("Authorization", bearerToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(expenseJson)
+            ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        }
+
+        sessionFactory.getCache().evictAllRegions();
+        mockMvc.perform(get("/budget/burndown")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(burndownQueries));
+
+        // Clean up
+        for (String expenseId : expenseIds) {
+            mockMvc.perform(delete("/expenses/delete?expenseId=" + expenseId)
+                    .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Get Budget Burndown Data - Compact form matches the map form")
+    public void getCompactBudgetBurndownData() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String categoryAsString = new String(Files.readAllBytes(Path.of("src/test/resources/categories/expense/validCategory.json")));
+        String categoryId = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryAsString)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        String expenseJson = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/validExpenseToAdd.json")))
+                .replace("\"categoryId\": 0", "\"categoryId\": " + categoryId);
+        String expenseId = mockMvc.perform(post("/expenses/add")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        BudgetBurndownDto burndownData = objectMapper.readValue(mockMvc.perform(get("/budget/burndown")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString(), BudgetBurndownDto.class);
+
+        CompactBudgetBurndownDto compactData = objectMapper.readValue(mockMvc.perform(get("/budget/burndown/compact")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk())
+         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+         .andReturn().getResponse().getContentAsString(), CompactBudgetBurndownDto.class);
+
+        assertEquals(1, compactData.month());
+        assertEquals(2025, compactData.year());
+        assertEquals(burndownData.categories().size(), compactData.categories().size());
+        for (int i = 0; i < compactData.categories().size(); i++) {
+            BudgetBurndownDto.CategoryBurndownDto category = burndownData.categories().get(i);
+            CompactBudgetBurndownDto.CategoryBurndownDto compactCategory = compactData.categories().get(i);
+            assertEquals(category.categoryId(), compactCategory.categoryId());
+            assertEquals(category.budget(), compactCategory.budget());
+            assertEquals(category.totalSpent(), compactCategory.totalSpent());
+            assertEquals(31, compactCategory.dailySpending().length);
+            assertEquals(31, compactCategory.remainingBudget().length);
+            for (int day = 1; day <= 31; day++) {
+                assertEquals(category.dailySpending().get(day), compactCategory.dailySpending()[day - 1]);
+                assertEquals(category.remainingBudget().get(day), compactCategory.remainingBudget()[day - 1]);
+            }
+        }
+
+        // The expense is on the 5th of January
+        CompactBudgetBurndownDto.CategoryBurndownDto testCategory = compactData.categories().stream()
+                .filter(cat -> cat.categoryId() == Integer.parseInt(categoryId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(100f, testCategory.dailySpending()[4]);
+        assertEquals(1400.25f, testCategory.remainingBudget()[30]);
+
+        // Clean up
+        mockMvc.perform(delete("/expenses/delete?expenseId=" + expenseId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Get Budget Burndown Range - Every month from the queries of a single month")
+    public void getBudgetBurndownRange() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String categoryAsString = new String(Files.readAllBytes(Path.of("src/test/resources/categories/expense/validCategory.json")));
+        String categoryId = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryAsString)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        String expenseJson = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/validExpenseToAdd.json")))
+                .replace("\"categoryId\": 0", "\"categoryId\": " + categoryId);
+        String expenseId = mockMvc.perform(post("/expenses/add")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        sessionFactory.getCache().evictAllRegions();
+        MvcResult monthResult = mockMvc.perform(get("/budget/burndown/compact")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk()).andReturn();
+        CompactBudgetBurndownDto january = objectMapper.readValue(monthResult.getResponse().getContentAsString(),
+                CompactBudgetBurndownDto.class);
+
+        // The whole year costs the queries of a single month
+        sessionFactory.getCache().evictAllRegions();
+        MvcResult rangeResult = mockMvc.perform(get("/budget/burndown/range")
+                .header("Authorization", bearerToken)
+                .param("from", "2025-01")
+                .param("to", "2025-12")
+        ).andExpect(request().asyncStarted())
+         .andExpect(statementCount(statementCountOf(monthResult)))
+         .andReturn();
+        String rangeJson = mockMvc.perform(asyncDispatch(rangeResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        List<CompactBudgetBurndownDto> months = objectMapper.readValue(rangeJson, new TypeReference<>() {});
+
+        assertEquals(12, months.size());
+        for (int i = 0; i < months.size(); i++) {
+            assertEquals(i + 1, months.get(i).month());
+            assertEquals(2025, months.get(i).year());
+        }
+        assertEquals(28, months.get(1).categories().get(0).dailySpending().length);
+
+        // January is the month on its own, written by the same mapper as the other responses
+        assertEquals(objectMapper.readTree(monthResult.getResponse().getContentAsString()),
+                objectMapper.readTree(rangeJson).get(0));
+        CompactBudgetBurndownDto rangeJanuary = months.get(0);
+        assertEquals(january.categories().size(), rangeJanuary.categories().size());
+        for (int i = 0; i < january.categories().size(); i++) {
+            assertEquals(january.categories().get(i).categoryId(), rangeJanuary.categories().get(i).categoryId());
+            assertEquals(january.categories().get(i).totalSpent(), rangeJanuary.categories().get(i).totalSpent());
+            assertArrayEquals(january.categories().get(i).dailySpending(), rangeJanuary.categories().get(i).dailySpending());
+            assertArrayEquals(january.categories().get(i).remainingBudget(), rangeJanuary.categories().get(i).remainingBudget());
+        }
+
+        // Clean up
+        mockMvc.perform(delete("/expenses/delete?expenseId=" + expenseId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Get Budget Burndown Range - Invalid ranges")
+    public void getBudgetBurndownRangeInvalid() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String[][] ranges = {
+                {"2025-06", "2025-01"},
+                {"2023-01", "2025-01"},
+                {"2025-13", "2025-12"},
+                {"January", "2025-12"}
+        };
+        for (String[] range : ranges) {
+            mockMvc.perform(get("/budget/burndown/range")
+                    .header("Authorization", bearerToken)
+                    .param("from", range[0])
+                    .param("to", range[1])
+            ).andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    @DisplayName("Get Budget Forecast - Actual spending of a past month and recurring spending of a future one")
+    public void getBudgetForecast() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String categoryAsString = new String(Files.readAllBytes(Path.of("src/test/resources/categories/expense/validCategory.json")));
+        String categoryId = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryAsString)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        // 1550 spent in January 2025, the budget of 1500.25 is exceeded on the 20th
+        LocalDate previousMonth = LocalDate.now().minusMonths(1);
+        String[][] expenses = {
+                {"2025-01-05", "100"},
+                {"2025-01-20", "1450"},
+                {previousMonth.withDayOfMonth(10).toString(), "1300"},
+                {previousMonth.withDayOfMonth(28).toString(), "300"}
+        };
+        String expenseTemplate = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/validExpenseToAdd.json")))
+                .replace("\"categoryId\": 0", "\"categoryId\": " + categoryId);
+        List<String> expenseIds = new ArrayList<>();
+        for (String[] expense : expenses) {
+            expenseIds.add(mockMvc.perform(post("/expenses/add")
+                    .header("Authorization", bearerToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(expenseTemplate
+                            .replace("\"date\": \"2025-01-05\"", "\"date\": \"" + expense[0] + "\"")
+                            .replace("\"amount\": 100", "\"amount\": " + expense[1]))
+            ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        }
+
+        sessionFactory.getCache().evictAllRegions();
+        int burndownQueries = statementCountOf(mockMvc.perform(get("/budget/burndown/compact")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk()).andReturn());
+
+        // The forecast reads the previous months with the same single rollup query
+        sessionFactory.getCache().evictAllRegions();
+        JsonNode pastForecast = objectMapper.readTree(mockMvc.perform(get("/budget/forecast")
+                .header("Authorization", bearerToken)
+                .param("month", "1")
+                .param("year", "2025")
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(burndownQueries))
+         .andReturn().getResponse().getContentAsString());
+
+        assertEquals(31, pastForecast.get("daysElapsed").asInt());
+        assertEquals(MonthBurndown.ALL_CATEGORIES_ID, pastForecast.get("categories").get(0).get("categoryId").asInt());
+        JsonNode pastCategory = findCategory(pastForecast, Integer.parseInt(categoryId));
+        assertEquals(1550f, pastCategory.get("spent").floatValue());
+        assertEquals(1550f, pastCategory.get("projectedTotal").floatValue());
+        assertEquals("2025-01-20", pastCategory.get("projectedOverrunDate").asText());
+
+        // Nothing is spent yet next month, the spending of the previous month is expected on the same days
+        LocalDate nextMonth = LocalDate.now().plusMonths(1);
+        JsonNode futureForecast = objectMapper.readTree(mockMvc.perform(get("/budget/forecast")
+                .header("Authorization", bearerToken)
+                .param("month", String.valueOf(nextMonth.getMonthValue()))
+                .param("year", String.valueOf(nextMonth.getYear()))
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        assertEquals(0, futureForecast.get("daysElapsed").asInt());
+        JsonNode futureCategory = findCategory(futureForecast, Integer.parseInt(categoryId));
+        assertEquals(0f, futureCategory.get("spent").floatValue());
+        assertEquals(1600f, futureCategory.get("projectedTotal").floatValue());
+        assertEquals(nextMonth.withDayOfMonth(28).toString(), futureCategory.get("projectedOverrunDate").asText());
+
+        mockMvc.perform(get("/budget/forecast")
+                .header("Authorization", bearerToken)
+                .param("month", "13")
+                .param("year", "2025")
+        ).andExpect(status().isBadRequest());
+
+        // Clean up
+        for (String expenseId : expenseIds) {
+            mockMvc.perform(delete("/expenses/delete?expenseId=" + expenseId)
+                    .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    private static JsonNode findCategory(JsonNode forecast, int categoryId) {
+        for (JsonNode category : forecast.get("categories")) {
+            if (category.get("categoryId").asInt() == categoryId) {
+                return category;
+            }
+        }
+        throw new AssertionError("Category " + categoryId + " is not in the forecast");
+    }
+
     @Test
     @DisplayName("Get Budget Burndown Data for Category with No Expenses")
     public void getBudgetBurndownDataForCategoryWithNoExpenses() throws Exception {
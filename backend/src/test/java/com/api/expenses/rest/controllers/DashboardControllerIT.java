@@ -0,0 +1,176 @@
+package com.api.expenses.rest.controllers;
+
+import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DashboardControllerIT {
+
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String bearerToken;
+    private String categoryId;
+    private int tagId;
+    private final List<String> expenseIds = new ArrayList<>();
+
+    @Autowired
+    public DashboardControllerIT(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String categoryJson = new String(Files.readAllBytes(Path.of("src/test/resources/categories/expense/validCategory.json")));
+        ResultActions categoryResult = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryJson)
+        ).andExpect(status().isOk());
+        categoryId = categoryResult.andReturn().getResponse().getContentAsString();
+
+        String expenseJson = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/validExpenseToAdd.json")))
+                .replace("\"categoryId\": 0", "\"categoryId\": " + categoryId);
+        for (int i = 0; i < 2; i++) {
+            ResultActions expenseResult = mockMvc.perform(post("/expenses/add")
+                    .header("Authorization", bearerToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(expenseJson)
+            ).andExpect(status().isOk());
+            expenseIds.add(expenseResult.andReturn().getResponse().getContentAsString());
+        }
+
+        String tagJson = new String(Files.readAllBytes(Path.of("src/test/resources/tags/tag.json")));
+        ResultActions tagResult = mockMvc.perform(post("/tags/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(tagJson)
+        ).andExpect(status().isOk());
+        tagId = objectMapper.readTree(tagResult.andReturn().getResponse().getContentAsString()).get("id").asInt();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (String expenseId : expenseIds) {
+            mockMvc.perform(delete("/expenses/delete?expenseId=" + expenseId)
+                    .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+        expenseIds.clear();
+
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(delete("/tags/delete/" + tagId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Get Dashboard - Matches the separate endpoints")
+    public void getDashboard() throws Exception {
+        ResultActions result = mockMvc.perform(get("/dashboard/1/2025")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk())
+         .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        JsonNode dashboard = objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+
+        assertEquals(1, dashboard.get("month").asInt());
+        assertEquals(2025, dashboard.get("year").asInt());
+
+        // The expenses of the month, created expenses included
+        JsonNode monthlyExpenses = objectMapper.readTree(mockMvc.perform(get("/expenses/monthly/1/2025")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertEquals(monthlyExpenses.size(), dashboard.get("expenses").size());
+        List<String> dashboardExpenseIds = new ArrayList<>();
+        dashboard.get("expenses").forEach(expense -> dashboardExpenseIds.add(expense.get("id").asText()));
+        assertTrue(dashboardExpenseIds.containsAll(expenseIds));
+
+        // The totals
+        JsonNode totalSpent = objectMapper.readTree(mockMvc.perform(get("/expenses/total-spent/monthly?month=1&year=2025")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertEquals(totalSpent.get("totalSpent").floatValue(), dashboard.get("totalSpent").floatValue(), 0.01f);
+
+        JsonNode totalEarned = objectMapper.readTree(mockMvc.perform(get("/incomes/total-earned/month?month=1&year=2025")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertEquals(totalEarned.get("total").floatValue(), dashboard.get("totalEarned").floatValue(), 0.01f);
+
+        // The category with its budget, and its burn-down
+        JsonNode category = findById(dashboard.get("expenseCategories"), "id", Integer.parseInt(categoryId));
+        assertEquals(1500.25f, category.get("budget").floatValue());
+        JsonNode burndown = findById(dashboard.get("burndown").get("categories"), "categoryId", Integer.parseInt(categoryId));
+        assertEquals(200f, burndown.get("totalSpent").floatValue());
+        assertEquals(200f, burndown.get("dailySpending").get("5").floatValue());
+
+        // The tags
+        assertNotNull(findById(dashboard.get("tags"), "id", tagId));
+    }
+
+    @Test
+    @DisplayName("Get Dashboard - Invalid month")
+    public void getDashboardInvalidMonth() throws Exception {
+        mockMvc.perform(get("/dashboard/13/2025")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Get Dashboard - Invalid year")
+    public void getDashboardInvalidYear() throws Exception {
+        mockMvc.perform(get("/dashboard/1/" + Integer.MAX_VALUE)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Get Dashboard - Unauthenticated")
+    public void getDashboardUnauthenticated() throws Exception {
+        mockMvc.perform(get("/dashboard/1/2025"))
+                .andExpect(status().isForbidden());
+    }
+
+    private static JsonNode findById(JsonNode array, String idField, int id) {
+        for (JsonNode node : array) {
+            if (node.get(idField).asInt() == id) {
+                return node;
+            }
+        }
+        fail("No element with " + idField + " " + id);
+        return null;
+    }
+}
@@ -1,6 +1,7 @@
 package com.api.expenses.rest.controllers;
 
 import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.api.expenses.rest.exceptions.TransactionException;
 import com.api.expenses.rest.models.Expense;
 import com.api.expenses.rest.models.dtos.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,12 +16,14 @@ import org.springframework.data.util.Pair;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -890,6 +893,179 @@ public class ExpensesRequestsIT {
         deleteExpenseCategory(bearerToken, newCategoryId);
     }
 
+    @Test
+    public void rollupStaysConsistentWithExpenseWrites() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
+                        "coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        // start from a rollup rebuilt from the expenses
+        RollupConsistencyDto rebuiltRollup = checkRollup(bearerToken, post("/expenses/rollup/rebuild"));
+        assertTrue(rebuiltRollup.consistent());
+
+        int categoryId = createExpenseCategory(bearerToken, "src/test/resources/expenses/category.json");
+        String json = addCategoryIdToExpense(categoryId, "src/test/resources/expenses/modifyCategoryExpense.json");
+
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.post("/expenses/add")
+                        .header("Authorization", bearerToken)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk());
+        String expenseId = result.andReturn().getResponse().getContentAsString();
+
+        RollupConsistencyDto rollupAfterAdd = checkRollup(bearerToken, get("/expenses/rollup/check"));
+        assertTrue(rollupAfterAdd.consistent());
+        assertEquals(rebuiltRollup.expectedRows() + 1, rollupAfterAdd.rollupRows());
+
+        // move the expense to another category with another amount
+        int newCategoryId = createExpenseCategory(bearerToken, "src/test/resources/expenses/category.json");
+        ResultActions expenseResult = mockMvc.perform(MockMvcRequestBuilders.get("/expenses/get/" + expenseId)
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        Expense expense = objectMapper.readValue(expenseResult.andReturn().getResponse().getContentAsString(), Expense.class);
+        expense.setCategoryId(newCategoryId);
+        expense.setAmount(42.5f);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/expenses/modify")
+                        .header("Authorization", bearerToken)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(expense)))
+                .andExpect(status().isNoContent());
+
+        RollupConsistencyDto rollupAfterModify = checkRollup(bearerToken, get("/expenses/rollup/check"));
+        assertTrue(rollupAfterModify.consistent());
+        assertEquals(rollupAfterAdd.rollupRows(), rollupAfterModify.rollupRows());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/expenses/delete?expenseId=" + expenseId)
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+
+        RollupConsistencyDto rollupAfterDelete = checkRollup(bearerToken, get("/expenses/rollup/check"));
+        assertTrue(rollupAfterDelete.consistent());
+        assertEquals(rebuiltRollup.rollupRows(), rollupAfterDelete.rollupRows());
+
+        deleteExpenseCategory(bearerToken, categoryId);
+        deleteExpenseCategory(bearerToken, newCategoryId);
+    }
+
+    @Test
+    public void getExpensesOfACategoryForAMonthInPages() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
+                        "coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        int categoryId = createExpenseCategory(bearerToken, "src/test/resources/expenses/category.json");
+        String json = addCategoryIdToExpense(categoryId, "src/test/resources/expenses/validExpenseToAdd.json");
+
+        List<Integer> expenseIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ResultActions result = mockMvc.perform(MockMvcRequestBuilders.post("/expenses/add")
+                            .header("Authorization", bearerToken)
+                            .contentType("application/json")
+                            .content(json))
+                    .andExpect(status().isOk());
+            expenseIds.add(Integer.parseInt(result.andReturn().getResponse().getContentAsString()));
+        }
+
+        String pageUrl = "/expenses/page/single-type/1/2025?categoryId=" + categoryId + "&limit=2";
+        TransactionPageDto<Expense> firstPage = getExpensesPage(bearerToken, pageUrl);
+        assertEquals(2, firstPage.items().size());
+        assertTrue(firstPage.hasMore());
+        assertNotNull(firstPage.nextCursor());
+
+        TransactionPageDto<Expense> secondPage = getExpensesPage(bearerToken, pageUrl + "&cursor=" + firstPage.nextCursor());
+        assertEquals(1, secondPage.items().size());
+        assertFalse(secondPage.hasMore());
+        assertNull(secondPage.nextCursor());
+
+        // Every expense is on the same day, so they are returned by descending id
+        List<Integer> pagedIds = new ArrayList<>();
+        firstPage.items().forEach(expense -> pagedIds.add(expense.getId()));
+        secondPage.items().forEach(expense -> pagedIds.add(expense.getId()));
+        List<Integer> expectedIds = new ArrayList<>(expenseIds);
+        Collections.reverse(expectedIds);
+        assertEquals(expectedIds, pagedIds);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(pageUrl + "&cursor=not-a-cursor")
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/page/yearly/2025?limit=0")
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/page/yearly/" + Integer.MAX_VALUE)
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/page/single-type?year=" + Integer.MIN_VALUE + "&categoryId=" + categoryId)
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/incomes/page/yearly/" + Integer.MAX_VALUE)
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isBadRequest());
+
+        for (int expenseId : expenseIds) {
+            mockMvc.perform(MockMvcRequestBuilders.delete("/expenses/delete?expenseId=" + expenseId)
+                            .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+        deleteExpenseCategory(bearerToken, categoryId);
+    }
+
+    @Test
+    public void addExpensesInBulk() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
+                        "coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        int categoryId = createExpenseCategory(bearerToken, "src/test/resources/expenses/category.json");
+        String validExpense = addCategoryIdToExpense(categoryId, "src/test/resources/expenses/validExpenseToAdd.json");
+        String foreignCategoryExpense = addCategoryIdToExpense(-1, "src/test/resources/expenses/validExpenseToAdd.json");
+        String json = "[" + validExpense + "," + foreignCategoryExpense + "," + validExpense + ",null]";
+
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.post("/expenses/bulk")
+                        .header("Authorization", bearerToken)
+                        .contentType("application/json")
+                        .content(json))
+                .andExpect(status().isOk());
+        BulkCreateResultDto bulkResult = objectMapper.readValue(result.andReturn().getResponse().getContentAsString(),
+                BulkCreateResultDto.class);
+
+        assertEquals(2, bulkResult.created());
+        assertEquals(2, bulkResult.failed());
+        assertEquals(4, bulkResult.results().size());
+        assertNotNull(bulkResult.results().get(0).id());
+        assertNull(bulkResult.results().get(1).id());
+        assertEquals(TransactionException.TransactionExceptionType.CATEGORY_NOT_FOUND.getMessage(),
+                bulkResult.results().get(1).error());
+        assertNotNull(bulkResult.results().get(2).id());
+        assertNull(bulkResult.results().get(3).id());
+        assertEquals(TransactionException.TransactionExceptionType.MISSING_TRANSACTION.getMessage(),
+                bulkResult.results().get(3).error());
+
+        ResultActions expenseResult = mockMvc.perform(MockMvcRequestBuilders.get("/expenses/get/" + bulkResult.results().get(0).id())
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        Expense expense = objectMapper.readValue(expenseResult.andReturn().getResponse().getContentAsString(), Expense.class);
+        assertEquals(categoryId, expense.getCategoryId());
+
+        // the bulk insert updates the rollup as the single inserts do
+        assertTrue(checkRollup(bearerToken, get("/expenses/rollup/check")).consistent());
+
+        for (BulkCreateResultDto.ItemResultDto item : bulkResult.results()) {
+            if (item.id() != null) {
+                mockMvc.perform(MockMvcRequestBuilders.delete("/expenses/delete?expenseId=" + item.id())
+                                .header("Authorization", bearerToken))
+                        .andExpect(status().isNoContent());
+            }
+        }
+        deleteExpenseCategory(bearerToken, categoryId);
+    }
+
     @Test
     public void addAndDeleteExpenseWithTag() throws Exception {
         String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
@@ -1517,6 +1693,20 @@ public class ExpensesRequestsIT {
         return objectMapper.writeValueAsString(modifiedExpenses);
     }
 
+    private TransactionPageDto<Expense> getExpensesPage(String bearerToken, String url) throws Exception {
+        ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get(url)
+                        .header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        return objectMapper.readValue(result.andReturn().getResponse().getContentAsString(),
+                objectMapper.getTypeFactory().constructParametricType(TransactionPageDto.class, Expense.class));
+    }
+
+    private RollupConsistencyDto checkRollup(String bearerToken, MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions result = mockMvc.perform(request.header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        return objectMapper.readValue(result.andReturn().getResponse().getContentAsString(), RollupConsistencyDto.class);
+    }
+
     private void deleteExpenseCategory(String bearerToken, int categoryId) throws Exception {
         mockMvc.perform(delete("/category/expense/delete/" + categoryId)
                 .header("Authorization", bearerToken)
@@ -1700,4 +1890,128 @@ public class ExpensesRequestsIT {
             deleteExpenseCategory(bearerToken, categoryId);
         }
     }
+
+    @DisplayName("Get the trend of the categories over several months")
+    @Test
+    public void getCategoryTrendOverMonths() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
+                        "coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        List<Integer> categoryIds = createMultipleExpenseCategories(bearerToken,
+                "src/test/resources/expenses/categoryComparison/categories.json");
+
+        List<Pair<Integer, Integer>> categoryPairs = new ArrayList<>();
+        categoryPairs.add(Pair.of(0, categoryIds.get(0)));
+        categoryPairs.add(Pair.of(1, categoryIds.get(0)));
+        categoryPairs.add(Pair.of(2, categoryIds.get(1)));
+        categoryPairs.add(Pair.of(3, categoryIds.get(1)));
+        categoryPairs.add(Pair.of(4, categoryIds.get(2)));
+
+        String januaryExpensesJson = addCategoryToListOfExpensesInSpecificPosition(categoryPairs,
+                "src/test/resources/expenses/categoryComparison/expensesJanuary2025.json");
+        String februaryExpensesJson = addCategoryToListOfExpensesInSpecificPosition(categoryPairs,
+                "src/test/resources/expenses/categoryComparison/expensesFebruary2025.json");
+
+        List<Integer> expenseIds = new ArrayList<>();
+        expenseIds.addAll(sendAndSaveExpenses(bearerToken, januaryExpensesJson, new ArrayList<>()));
+        expenseIds.addAll(sendAndSaveExpenses(bearerToken, februaryExpensesJson, new ArrayList<>()));
+
+        ResultActions compareResult = mockMvc.perform(MockMvcRequestBuilders.get("/expenses/compare")
+                        .header("Authorization", bearerToken)
+                        .param("currentPeriodType", "month")
+                        .param("currentPeriodValue", "2")
+                        .param("previousPeriodType", "month")
+                        .param("previousPeriodValue", "1")
+                        .param("currentYear", "2025")
+                        .param("previousYear", "2025"))
+                .andExpect(status().isOk());
+        CategoryComparisonResponseDto comparison = objectMapper.readValue(
+                compareResult.andReturn().getResponse().getContentAsString(), CategoryComparisonResponseDto.class);
+
+        ResultActions trendResult = mockMvc.perform(MockMvcRequestBuilders.get("/expenses/compare/trend")
+                        .header("Authorization", bearerToken)
+                        .param("periodType", "month")
+                        .param("periods", "3")
+                        .param("month", "2")
+                        .param("year", "2025"))
+                .andExpect(status().isOk());
+        CategoryTrendDto trend = objectMapper.readValue(
+                trendResult.andReturn().getResponse().getContentAsString(), CategoryTrendDto.class);
+
+        assertEquals(List.of("December 2024", "January 2025", "February 2025"), trend.periodLabels());
+        assertEquals(3, trend.totals().size());
+
+        // the last two periods of the trend match the two period comparison
+        for (CategoryComparisonDto categoryComparison : comparison.categories()) {
+            CategoryTrendDto.CategoryTrendSeriesDto series = trend.categories().stream()
+                    .filter(category -> category.categoryId() == categoryComparison.categoryId())
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(categoryComparison.previousPeriodAmount(), series.amounts().get(1), 0.01);
+            assertEquals(categoryComparison.currentPeriodAmount(), series.amounts().get(2), 0.01);
+        }
+        assertEquals(comparison.totalPreviousPeriod(), trend.totals().get(1), 0.01);
+        assertEquals(comparison.totalCurrentPeriod(), trend.totals().get(2), 0.01);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/compare/trend")
+                        .header("Authorization", bearerToken)
+                        .param("periodType", "month")
+                        .param("periods", "0")
+                        .param("month", "2")
+                        .param("year", "2025"))
+                .andExpect(status().isBadRequest());
+
+        for (int expenseId : expenseIds) {
+            mockMvc.perform(MockMvcRequestBuilders.delete("/expenses/delete?expenseId=" + expenseId)
+                            .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+
+        for (int categoryId : categoryIds) {
+            deleteExpenseCategory(bearerToken, categoryId);
+        }
+    }
+
+    @DisplayName("Compare categories with an invalid period")
+    @Test
+    public void compareCategoriesWithAnInvalidPeriod() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
+                        "coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        // the month of the current period has no year
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/compare")
+                        .header("Authorization", bearerToken)
+                        .param("currentPeriodType", "month")
+                        .param("currentPeriodValue", "2")
+                        .param("previousPeriodType", "month")
+                        .param("previousPeriodValue", "1")
+                        .param("previousYear", "2025"))
+                .andExpect(status().isBadRequest());
+
+        // unknown period type
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/compare")
+                        .header("Authorization", bearerToken)
+                        .param("currentPeriodType", "week")
+                        .param("currentPeriodValue", "2")
+                        .param("previousPeriodType", "year")
+                        .param("previousPeriodValue", "2024"))
+                .andExpect(status().isBadRequest());
+
+        // month out of range
+        mockMvc.perform(MockMvcRequestBuilders.get("/expenses/compare")
+                        .header("Authorization", bearerToken)
+                        .param("currentPeriodType", "month")
+                        .param("currentPeriodValue", "13")
+                        .param("previousPeriodType", "month")
+                        .param("previousPeriodValue", "1")
+                        .param("currentYear", "2025")
+                        .param("previousYear", "2025"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -113,7 +113,7 @@ public class IncomesControllerTestsIT {
                 .andExpect(content().json("{\"total\": 1002.49}"));
 
         String totalSpentJson = savedExpense.andReturn().getResponse().getContentAsString();
-        assertEquals("{\"total\": 1002.49}", totalSpentJson);
+        assertEquals("{\"total\":1002.49}", totalSpentJson);
 
         // delete the incomes
         for (int incomeId : incomesIds) {
@@ -146,7 +146,7 @@ public class IncomesControllerTestsIT {
                 .andExpect(content().json("{\"total\": 1002.49}"));
 
         String totalSpentJson = savedExpense.andReturn().getResponse().getContentAsString();
-        assertEquals("{\"total\": 1002.49}", totalSpentJson);
+        assertEquals("{\"total\":1002.49}", totalSpentJson);
 
         // delete the incomes
         for (int incomeId : incomesIds) {
@@ -179,7 +179,7 @@ public class IncomesControllerTestsIT {
                 //.andExpect(content().json("{\"totals\": ["3007.47","6000.03","300.00","3000.96","303.00","0.00","0.00","0.00","0.00","0.00","0.00","0.00"]}"));
 
         String totalSpentJson = savedExpense.andReturn().getResponse().getContentAsString();
-        assertEquals("{\"totals\": [\"1002.49\",\"2000.01\",\"100.00\",\"1000.32\",\"101.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\"]}", totalSpentJson);
+        assertEquals("{\"totals\":[\"1002.49\",\"2000.01\",\"100.00\",\"1000.32\",\"101.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\",\"0.00\"]}", totalSpentJson);
 
         // delete the incomes
         for (int incomeId : incomesIds) {
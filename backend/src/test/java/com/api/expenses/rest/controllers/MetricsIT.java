@@ -0,0 +1,87 @@
+package com.api.expenses.rest.controllers;
+
+import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.api.expenses.rest.models.Currency;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"application.metrics.hibernate-statistics=true", "management.server.port=0"})
+@AutoConfigureMockMvc
+public class MetricsIT {
+
+    private final MockMvc mockMvc;
+    private final TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    public MetricsIT(MockMvc mockMvc, TestRestTemplate restTemplate) {
+        this.mockMvc = mockMvc;
+        this.restTemplate = restTemplate;
+    }
+
+    @Test
+    @DisplayName("Prometheus scrape - Requests, repositories, pool, Hibernate, caches and authentication")
+    public void scrapeMetrics() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+        mockMvc.perform(get("/currency/all")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk());
+        mockMvc.perform(get("/currency/all")
+                .header("Authorization", "Bearer invalid")
+        ).andExpect(status().isForbidden());
+
+        // The actuator is not served on the API port, even with a token
+        mockMvc.perform(get("/actuator/prometheus")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isNotFound());
+
+        // The scrape on the management port needs no token
+        ResponseEntity<String> scrape = restTemplate.getForEntity(managementUrl("/actuator/prometheus"), String.class);
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        String metrics = scrape.getBody();
+
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertTrue(metrics.contains("hikaricp_connections_pending{"));
+        assertTrue(metrics.contains("hibernate_sessions_open_total{"));
+        assertTrue(metrics.contains("cache_gets_total{") && metrics.contains("cache=\"principals\""));
+        assertTrue(metrics.contains("cache=\"" + Currency.class.getName() + "\""));
+        assertTrue(metrics.contains("jwt_validation_failures_total{") && metrics.contains("reason=\"invalid\""));
+        assertTrue(metrics.contains("login_password_verification_seconds_count{"));
+    }
+
+    @Test
+    @DisplayName("Actuator - Other endpoints are not exposed")
+    public void otherEndpointsAreNotExposed() throws Exception {
+        mockMvc.perform(get("/actuator/env"))
+                .andExpect(status().isForbidden());
+        assertTrue(restTemplate.getForEntity(managementUrl("/actuator/env"), String.class)
+                .getStatusCode().is4xxClientError());
+    }
+
+    private String managementUrl(String path) {
+        return "http://127.0.0.1:" + managementPort + path;
+    }
+}
@@ -0,0 +1,196 @@
+package com.api.expenses.rest.controllers;
+
+import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.api.expenses.rest.models.Currency;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.Tag;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads cached categories, tags and currencies before and after they are changed through their controllers,
+ * the reads after a change must never return the cached state.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SecondLevelCacheIT {
+
+    private final MockMvc mockMvc;
+    private final Statistics statistics;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String bearerToken;
+    private boolean statisticsWereEnabled;
+
+    @Autowired
+    public SecondLevelCacheIT(MockMvc mockMvc, EntityManagerFactory entityManagerFactory) {
+        this.mockMvc = mockMvc;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        bearerToken = AuthenticationHelper.loginUser(mockMvc,
+                Optional.of("coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+        statisticsWereEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statistics.setStatisticsEnabled(statisticsWereEnabled);
+    }
+
+    @Test
+    @DisplayName("Expense category - Budget change is read after it was cached")
+    public void expenseCategoryIsNotStaleAfterBudgetChange() throws Exception {
+        String categoryJson = new String(Files.readAllBytes(Path.of("src/test/resources/categories/expense/validCategory.json")));
+        String categoryId = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryJson)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+        // The second read is served by the cache
+        getJson("/category/expense/get/" + categoryId);
+        long hits = statistics.getDomainDataRegionStatistics(ExpenseCategory.class.getName()).getHitCount();
+        JsonNode category = getJson("/category/expense/get/" + categoryId);
+        assertTrue(statistics.getDomainDataRegionStatistics(ExpenseCategory.class.getName()).getHitCount() > hits);
+        assertEquals(1500.25f, category.get("budget").floatValue());
+        assertEquals(1500.25f, findById(getJson("/category/expense/all"), Integer.parseInt(categoryId)).get("budget").floatValue());
+
+        mockMvc.perform(post("/budget/modify")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"categoryId\": " + categoryId + ", \"newBudget\": 300.5}]")
+        ).andExpect(status().isOk());
+
+        assertEquals(300.5f, getJson("/category/expense/get/" + categoryId).get("budget").floatValue());
+        assertEquals(300.5f, findById(getJson("/category/expense/all"), Integer.parseInt(categoryId)).get("budget").floatValue());
+
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/category/expense/get/" + categoryId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isBadRequest());
+        assertNull(findByIdOrNull(getJson("/category/expense/all"), Integer.parseInt(categoryId)));
+    }
+
+    @Test
+    @DisplayName("Tag - Update is read after it was cached")
+    public void tagIsNotStaleAfterUpdate() throws Exception {
+        String tagJson = new String(Files.readAllBytes(Path.of("src/test/resources/tags/tag.json")));
+        JsonNode createdTag = objectMapper.readTree(mockMvc.perform(post("/tags/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(tagJson)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        int tagId = createdTag.get("id").asInt();
+
+        // The second read is served by the cache, with the user of the tag
+        getJson("/tags/" + tagId);
+        long hits = statistics.getDomainDataRegionStatistics(Tag.class.getName()).getHitCount();
+        assertEquals("Test Tag", getJson("/tags/" + tagId).get("name").asText());
+        assertTrue(statistics.getDomainDataRegionStatistics(Tag.class.getName()).getHitCount() > hits);
+        assertEquals("Test Tag", findById(getJson("/tags/user"), tagId).get("name").asText());
+
+        mockMvc.perform(put("/tags/update/" + tagId)
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Renamed Tag\", \"description\": \"Renamed\", \"color\": \"#000000\"}")
+        ).andExpect(status().isNoContent());
+
+        JsonNode tag = getJson("/tags/" + tagId);
+        assertEquals("Renamed Tag", tag.get("name").asText());
+        assertEquals("#000000", tag.get("color").asText());
+        assertEquals("Renamed Tag", findById(getJson("/tags/user"), tagId).get("name").asText());
+
+        mockMvc.perform(delete("/tags/delete/" + tagId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/tags/" + tagId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isBadRequest());
+        assertNull(findByIdOrNull(getJson("/tags/user"), tagId));
+    }
+
+    @Test
+    @DisplayName("Currency - Creation and deletion are read after the currencies were cached")
+    public void currencyIsNotStaleAfterCreationAndDeletion() throws Exception {
+        int currenciesBefore = getJson("/currency/all").size();
+
+        JsonNode createdCurrency = objectMapper.readTree(mockMvc.perform(post("/currency/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Test Currency\", \"symbol\": \"T\", \"description\": \"TST\"}")
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        int currencyId = createdCurrency.get("id").asInt();
+
+        assertEquals(currenciesBefore + 1, getJson("/currency/all").size());
+        getJson("/currency/" + currencyId);
+        long hits = statistics.getDomainDataRegionStatistics(Currency.class.getName()).getHitCount();
+        assertEquals("TST", getJson("/currency/" + currencyId).get("code").asText());
+        assertTrue(statistics.getDomainDataRegionStatistics(Currency.class.getName()).getHitCount() > hits);
+
+        mockMvc.perform(delete("/currency/delete/" + currencyId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/currency/" + currencyId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isNotFound());
+        JsonNode currencies = getJson("/currency/all");
+        assertEquals(currenciesBefore, currencies.size());
+        assertNull(findByIdOrNull(currencies, currencyId));
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String response = mockMvc.perform(get(url)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private static JsonNode findById(JsonNode array, int id) {
+        JsonNode node = findByIdOrNull(array, id);
+        assertNotNull(node, "No element with id " + id);
+        return node;
+    }
+
+    private static JsonNode findByIdOrNull(JsonNode array, int id) {
+        for (JsonNode node : array) {
+            if (node.get("id").asInt() == id) {
+                return node;
+            }
+        }
+        return null;
+    }
+}
@@ -1,8 +1,13 @@
 package com.api.expenses.rest.controllers;
 
 import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto;
+import com.api.expenses.rest.models.dtos.BudgetStreakReportDto.CategoryStreakDto;
 import com.api.expenses.rest.models.dtos.StatisticalSummaryDto;
+import com.api.expenses.rest.services.StatisticsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,10 +22,13 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.api.expenses.rest.controllers.utils.StatementCountMatchers.statementCount;
+import static com.api.expenses.rest.controllers.utils.StatementCountMatchers.statementCountOf;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -32,7 +40,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 public class StatisticsControllerIT {
+    /**
+     * Statements issued by the JwtFilter to load the authenticated user, it was cached by the requests of the setup.
+     */
+    private static final int AUTHENTICATION_QUERY_COUNT = 0;
+    /**
+     * Statements issued by the summary: user check, categories, daily expenses, weekly expenses and monthly incomes.
+     */
+    private static final int SUMMARY_QUERY_COUNT = 5;
+
     private final MockMvc mockMvc;
+    private final EntityManagerFactory entityManagerFactory;
     private String bearerToken;
     private final List<String> expenseCategoryIds = new ArrayList<>();
     private final List<String> incomeCategoryIds = new ArrayList<>();
@@ -41,8 +59,9 @@ public class StatisticsControllerIT {
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
-    public StatisticsControllerIT(MockMvc mockMvc) {
+    public StatisticsControllerIT(MockMvc mockMvc, EntityManagerFactory entityManagerFactory) {
         this.mockMvc = mockMvc;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @BeforeEach
@@ -205,6 +224,85 @@ public class StatisticsControllerIT {
         assertTrue(summary.budgetStreak().longestStreakDays() >= 0);
     }
 
+    @Test
+    @DisplayName("Get Statistical Summary - Fixed number of queries")
+    public void getStatisticalSummaryRunsAFixedNumberOfQueries() throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        // The second-level cache is emptied so that both calls issue every query
+        sessionFactory.getCache().evictAllRegions();
+        int queriesWithData = statementCountOf(mockMvc.perform(get("/statistics/summary")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(AUTHENTICATION_QUERY_COUNT + SUMMARY_QUERY_COUNT))
+         .andReturn());
+
+        // Add more expenses, the number of queries must not change
+        String expenseJson = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/validExpenseToAdd.json")))
+                .replace("\"categoryId\": 0", "\"categoryId\": " + expenseCategoryIds.get(0));
+        for (int i = 0; i < 5; i++) {
+            ResultActions expenseResult = mockMvc.perform(post("/expenses/add")
+                    .header("Authorization", bearerToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(expenseJson)
+            ).andExpect(status().isOk());
+            expenseIds.add(expenseResult.andReturn().getResponse().getContentAsString());
+        }
+
+        sessionFactory.getCache().evictAllRegions();
+        mockMvc.perform(get("/statistics/summary")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk())
+         .andExpect(statementCount(queriesWithData));
+    }
+
+    @Test
+    @DisplayName("Get Budget Streak Report")
+    public void getBudgetStreakReport() throws Exception {
+        ResultActions result = mockMvc.perform(get("/statistics/budget-streak?days=30")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isOk())
+         .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        String resultString = result.andReturn().getResponse().getContentAsString();
+        BudgetStreakReportDto report = objectMapper.readValue(resultString, BudgetStreakReportDto.class);
+
+        // Verify the window
+        assertEquals(30, report.windowDays());
+        assertNotNull(report.windowStartDate());
+        assertNotNull(report.windowEndDate());
+
+        // Verify the window holds 30 days, today included
+        assertEquals(LocalDate.now().minusDays(29).toString(), report.windowStartDate());
+        assertEquals(LocalDate.now().toString(), report.windowEndDate());
+
+        // Verify the overall streaks
+        assertTrue(report.longestStreak().days() >= 0 && report.longestStreak().days() <= 30);
+        assertTrue(report.currentStreak().days() <= report.longestStreak().days());
+
+        // Verify the created categories are reported with their streaks
+        for (String categoryId : expenseCategoryIds) {
+            CategoryStreakDto categoryStreak = report.categories().stream()
+                    .filter(category -> category.categoryId() == Integer.parseInt(categoryId))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(1500.25f, categoryStreak.budget());
+            assertTrue(categoryStreak.longestStreak().days() >= report.longestStreak().days());
+            assertTrue(categoryStreak.currentStreak().days() <= categoryStreak.longestStreak().days());
+        }
+    }
+
+    @Test
+    @DisplayName("Get Budget Streak Report - Invalid window")
+    public void getBudgetStreakReportInvalidWindow() throws Exception {
+        mockMvc.perform(get("/statistics/budget-streak?days=0")
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/statistics/budget-streak?days=" + (StatisticsService.MAX_STREAK_DAYS + 1))
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Get Statistical Summary - Unauthenticated")
     public void getStatisticalSummaryUnauthenticated() throws Exception {
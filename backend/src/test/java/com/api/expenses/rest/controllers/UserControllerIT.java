@@ -1,38 +1,63 @@
 package com.api.expenses.rest.controllers;
 
+import com.api.expenses.rest.configuration.CacheConfig;
 import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
 import com.api.expenses.rest.models.Role;
 import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
 import com.api.expenses.rest.models.dtos.GetUserDto;
+import com.api.expenses.rest.models.dtos.ImportResultDto;
+import com.api.expenses.rest.models.dtos.RollupConsistencyDto;
 import com.api.expenses.rest.models.dtos.UpdateUserDto;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 public class UserControllerIT {
     private final MockMvc mockMvc;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
-    public UserControllerIT(MockMvc mockMvc) {
+    public UserControllerIT(MockMvc mockMvc, CacheManager cacheManager, JdbcTemplate jdbcTemplate) {
         this.mockMvc = mockMvc;
+        this.cacheManager = cacheManager;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Test
@@ -126,4 +151,197 @@ public class UserControllerIT {
                 .header("Authorization", bearerToken))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("The cached principal is evicted when the user is updated or deleted")
+    public void cachedPrincipalIsEvicted() throws Exception {
+        String createUserDtoJson = new String(Files.readAllBytes(Path.of("src/test/resources/user/createUser/createUserDto.json")));
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/signup")
+                .contentType("application/json")
+                .content(createUserDtoJson))
+                .andExpect(status().isOk());
+
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of("test@test.com"), Optional.empty(), "test");
+        Cache principals = cacheManager.getCache(CacheConfig.PRINCIPALS_CACHE);
+
+        // The first request caches the principal, a copy of the user
+        ResultActions result = mockMvc.perform(get("/user/data")
+                .header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        UUID userId = new ObjectMapper().readValue(result.andReturn().getResponse().getContentAsString(), GetUserDto.class).id();
+        UserPrincipal principal = principals.get(userId, UserPrincipal.class);
+        assertNotNull(principal);
+        assertEquals("test", principal.username());
+
+        UpdateUserDto updateUserDto = new UpdateUserDto("Cached", "User", 1);
+        mockMvc.perform(MockMvcRequestBuilders.post("/user/update/test")
+                .header("Authorization", bearerToken)
+                .contentType("application/json")
+                .content(new ObjectMapper().writeValueAsString(updateUserDto)))
+                .andExpect(status().isOk());
+        assertNull(principals.get(userId));
+
+        // The next request caches the principal again and sees the new data
+        result = mockMvc.perform(get("/user/data")
+                .header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        GetUserDto userData = new ObjectMapper().readValue(result.andReturn().getResponse().getContentAsString(), GetUserDto.class);
+        assertEquals("Cached", userData.firstName());
+        assertEquals("User", userData.lastName());
+        assertNotNull(principals.get(userId));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/user/delete/test")
+                .header("Authorization", bearerToken))
+                .andExpect(status().isOk());
+        assertNull(principals.get(userId));
+
+        // The token is still valid, but its user is gone
+        mockMvc.perform(get("/user/data")
+                .header("Authorization", bearerToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Export the data of the authenticated user as NDJSON")
+    public void exportUserData() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of("coding.tamalito@gmail.com"), Optional.empty(), "123456");
+
+        MvcResult result = mockMvc.perform(get("/export")
+                .header("Authorization", bearerToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String export = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : export.split("\n")) {
+            records.add(new ObjectMapper().readTree(line));
+        }
+        assertEquals("user", records.get(0).get("type").asText());
+        assertEquals("coding.tamalito@gmail.com", records.get(0).get("email").asText());
+        assertFalse(records.get(0).has("password"));
+        assertTrue(records.stream().anyMatch(record -> record.get("type").asText().equals("currency")));
+
+        MvcResult gzipResult = mockMvc.perform(get("/export?gzip=true")
+                .header("Authorization", bearerToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] gzipExport = mockMvc.perform(asyncDispatch(gzipResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipExport))) {
+            assertEquals(export, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("Import an NDJSON export into the authenticated user")
+    public void importUserData() throws Exception {
+        String bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of("coding.tamalito@gmail.com"), Optional.empty(), "123456");
+        String suffix = UUID.randomUUID().toString();
+
+        String ndjson = String.join("\n",
+                "{\"type\":\"user\",\"id\":\"" + UUID.randomUUID() + "\",\"username\":\"someone\"}",
+                "{\"type\":\"currency\",\"id\":99,\"code\":\"EUR\",\"name\":\"EUROS\",\"symbol\":\"E\"}",
+                "{\"type\":\"currency\",\"id\":98,\"code\":\"ZZZ\",\"name\":\"UNKNOWN\",\"symbol\":\"Z\"}",
+                "{\"type\":\"expenseCategory\",\"id\":7,\"name\":\"Imported " + suffix + "\",\"description\":null,\"budget\":100.0,\"alertThresholds\":\"50,80\"}",
+                "{\"type\":\"incomeCategory\",\"id\":8,\"name\":\"Imported " + suffix + "\",\"description\":null}",
+                "{\"type\":\"expense\",\"id\":1,\"categoryId\":7,\"currencyId\":99,\"tagId\":null,\"amount\":10.5,\"date\":\"2003-02-01\",\"description\":\"first\"}",
+                "{\"type\":\"expense\",\"id\":2,\"categoryId\":7,\"currencyId\":99,\"tagId\":null,\"amount\":4.5,\"date\":\"2003-02-02\",\"description\":\"second\"}",
+                "{\"type\":\"expense\",\"id\":3,\"categoryId\":12345,\"currencyId\":99,\"tagId\":null,\"amount\":1.0,\"date\":\"2003-02-02\",\"description\":\"unknown category\"}",
+                "{\"type\":\"expense\",\"id\":4,\"categoryId\":7,\"currencyId\":98,\"tagId\":null,\"amount\":1.0,\"date\":\"2003-02-02\",\"description\":\"unknown currency\"}",
+                "{\"type\":\"income\",\"id\":1,\"categoryId\":8,\"currencyId\":99,\"tagId\":null,\"amount\":20.0,\"date\":\"2003-02-03\",\"description\":\"income\"}");
+
+        ResultActions result = mockMvc.perform(post("/import")
+                .header("Authorization", bearerToken)
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+                .andExpect(status().isOk());
+        ImportResultDto importResult = new ObjectMapper().readValue(result.andReturn().getResponse().getContentAsString(), ImportResultDto.class);
+
+        assertEquals(1, importResult.currencies());
+        assertEquals(1, importResult.expenseCategories());
+        assertEquals(1, importResult.incomeCategories());
+        assertEquals(0, importResult.tags());
+        assertEquals(2, importResult.expenses());
+        assertEquals(1, importResult.incomes());
+        // The unknown currency, and the expenses of an unknown category and of the unknown currency
+        assertEquals(3, importResult.skipped());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM currencies WHERE code = 'ZZZ'", Integer.class));
+
+        mockMvc.perform(post("/import")
+                .header("Authorization", bearerToken)
+                .contentType("application/x-ndjson")
+                .content("[1, 2]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/import")
+                .header("Authorization", bearerToken)
+                .param("gzip", "true")
+                .contentType("application/gzip")
+                .content(ndjson))
+                .andExpect(status().isBadRequest());
+
+        // The imported records are found in the export, with the ids of this instance
+        MvcResult exportResult = mockMvc.perform(get("/export")
+                .header("Authorization", bearerToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String export = mockMvc.perform(asyncDispatch(exportResult))
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : export.split("\n")) {
+            records.add(new ObjectMapper().readTree(line));
+        }
+        JsonNode expenseCategory = findImportedRecord(records, "expenseCategory", suffix);
+        int expenseCategoryId = expenseCategory.get("id").asInt();
+        assertEquals("50,80", expenseCategory.get("alertThresholds").asText());
+        int incomeCategoryId = findImportedRecord(records, "incomeCategory", suffix).get("id").asInt();
+        List<JsonNode> expenses = records.stream()
+                .filter(record -> record.get("type").asText().equals("expense") && record.get("categoryId").asInt() == expenseCategoryId)
+                .toList();
+        List<JsonNode> incomes = records.stream()
+                .filter(record -> record.get("type").asText().equals("income") && record.get("categoryId").asInt() == incomeCategoryId)
+                .toList();
+        assertEquals(2, expenses.size());
+        assertEquals(15f, expenses.get(0).get("amount").floatValue() + expenses.get(1).get("amount").floatValue());
+        assertEquals(1, incomes.size());
+
+        // The imported expenses are in the daily rollup and in the month total of their category
+        assertEquals(15f, jdbcTemplate.queryForObject(
+                "SELECT SUM(total) FROM expense_daily_rollup WHERE category_id = ?", Float.class, expenseCategoryId));
+        assertEquals(15f, jdbcTemplate.queryForObject(
+                "SELECT total FROM budget_month_progress WHERE category_id = ? AND year = 2003 AND month = 2",
+                Float.class, expenseCategoryId));
+        RollupConsistencyDto rollup = new ObjectMapper().readValue(mockMvc.perform(get("/expenses/rollup/check")
+                .header("Authorization", bearerToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), RollupConsistencyDto.class);
+        assertTrue(rollup.consistent());
+
+        for (JsonNode expense : expenses) {
+            mockMvc.perform(MockMvcRequestBuilders.delete("/expenses/delete?expenseId=" + expense.get("id").asInt())
+                    .header("Authorization", bearerToken))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(MockMvcRequestBuilders.delete("/incomes/delete/" + incomes.get(0).get("id").asInt())
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/category/expense/delete/" + expenseCategoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/category/income/delete/" + incomeCategoryId)
+                .header("Authorization", bearerToken))
+                .andExpect(status().isNoContent());
+    }
+
+    private static JsonNode findImportedRecord(List<JsonNode> records, String type, String suffix) {
+        return records.stream()
+                .filter(record -> record.get("type").asText().equals(type)
+                        && record.get("name").asText().equals("Imported " + suffix))
+                .findFirst()
+                .orElseThrow();
+    }
 }
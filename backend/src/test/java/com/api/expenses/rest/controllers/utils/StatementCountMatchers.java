@@ -0,0 +1,35 @@
+package com.api.expenses.rest.controllers.utils;
+
+import com.api.expenses.rest.filters.StatementCountFilter;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts the number of SQL statements a request issued, as counted by the StatementCountFilter.
+ * The second-level cache should be emptied before the request, otherwise the count depends on the previous tests.
+ */
+public class StatementCountMatchers {
+
+    public static ResultMatcher statementCount(int expected) {
+        return result -> assertEquals(expected, statementCountOf(result),
+                "SQL statements of " + result.getRequest().getRequestURI());
+    }
+
+    public static ResultMatcher statementCountAtMost(int max) {
+        return result -> {
+            int count = statementCountOf(result);
+            assertTrue(count <= max, result.getRequest().getRequestURI() + " issued " + count +
+                    " SQL statements, at most " + max + " were expected");
+        };
+    }
+
+    public static int statementCountOf(MvcResult result) {
+        Object count = result.getRequest().getAttribute(StatementCountFilter.COUNT_ATTRIBUTE);
+        assertNotNull(count, "The statements of " + result.getRequest().getRequestURI() + " were not counted");
+        return (Integer) count;
+    }
+}
@@ -0,0 +1,212 @@
+package com.api.expenses.rest.repositories;
+
+import com.api.expenses.rest.utils.StatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN on the SQL of every ExpenseRepository, IncomeRepository and ExpenseDailyRollupRepository finder
+ * and fails if any of them does not seek on the index it was written for: a full table scan (ALL) or a full
+ * index scan (index) is a regression, and so is a change of index.
+ * The SQL is the one Hibernate prepares when the repository method is called, recorded by the StatementCounter,
+ * so derived finders and @Query methods are checked as they really run.
+ */
+@SpringBootTest
+public class QueryPlansIT {
+
+    private static final Set<String> SCAN_ACCESS_TYPES = Set.of("ALL", "index");
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?(\\d+)");
+
+    private static final Map<String, Class<?>> REPOSITORIES = Map.of(
+            "expenses", ExpenseRepository.class,
+            "incomes", IncomeRepository.class,
+            "rollup", ExpenseDailyRollupRepository.class
+    );
+
+    private static final String EXPENSES_USER = "FKhpk0n2cbnfiuu5nrgl0ika3hq";
+    private static final String EXPENSES_USER_YEAR_MONTH_TAG = "idx_expenses_user_year_month_tag";
+    private static final String EXPENSES_USER_YEAR_CATEGORY_MONTH = "idx_expenses_user_year_category_month";
+    private static final String EXPENSES_USER_YEAR_WEEK_CATEGORY = "idx_expenses_user_year_week_category";
+    private static final String EXPENSES_USER_DATE = "idx_expenses_user_date";
+    private static final String EXPENSES_USER_CATEGORY_DATE = "idx_expenses_user_category_date";
+    private static final String EXPENSES_USER_TAG_DATE = "idx_expenses_user_tag_date";
+    private static final String INCOMES_USER = "FKfq6qeso6vbt9wu7dyhnx8tpu9";
+    private static final String INCOMES_USER_YEAR_MONTH_CATEGORY = "idx_incomes_user_year_month_category";
+    private static final String INCOMES_USER_YEAR_WEEK = "idx_incomes_user_year_week";
+    private static final String INCOMES_USER_DATE = "idx_incomes_user_date";
+    private static final String ROLLUP_PRIMARY = "PRIMARY";
+    private static final String ROLLUP_USER_YEAR_WEEK = "idx_expense_daily_rollup_user_year_week";
+
+    private static final Date FIRST_DAY = Date.valueOf("2025-01-01");
+    private static final Date LAST_DAY = Date.valueOf("2025-03-31");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationContext applicationContext;
+    private UUID userId;
+
+    @Autowired
+    public QueryPlansIT(JdbcTemplate jdbcTemplate, ApplicationContext applicationContext) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.applicationContext = applicationContext;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // Fresh statistics, so that the optimizer does not pick a scan because of stale row estimates
+        jdbcTemplate.execute("ANALYZE TABLE expenses, incomes, expense_daily_rollup");
+        byte[] userIdBytes = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", byte[].class,
+                "coding.tamalito@gmail.com");
+        ByteBuffer buffer = ByteBuffer.wrap(userIdBytes);
+        userId = new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Every finder takes the user id first, the arguments are the ones after it.
+     */
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                // ExpenseRepository
+                finder("expenses.findByUserIdAndMonthAndYear", EXPENSES_USER_YEAR_MONTH_TAG, 1, 2025),
+                finder("expenses.findByUserIdAndYear", EXPENSES_USER_YEAR_MONTH_TAG, 2025),
+                finder("expenses.findByUserIdAndMonthAndYearAndCategoryId", EXPENSES_USER_YEAR_CATEGORY_MONTH, 1, 2025, 1),
+                finder("expenses.findByUserIdAndWeekAndYear", EXPENSES_USER_YEAR_WEEK_CATEGORY, 1, 2025),
+                finder("expenses.findByUserId", EXPENSES_USER),
+                finder("expenses.findByUserIdAndYearAndCategoryId", EXPENSES_USER_YEAR_CATEGORY_MONTH, 2025, 1),
+                finder("expenses.findByUserIdAndWeekAndYearAndCategoryId", EXPENSES_USER_YEAR_WEEK_CATEGORY, 1, 2025, 1),
+                finder("expenses.findByUserIdAndMonthAndYearAndTagId", EXPENSES_USER_YEAR_MONTH_TAG, 1, 2025, 1),
+                finder("expenses.sumAmountByUserIdAndMonthAndYear", EXPENSES_USER_YEAR_MONTH_TAG, 1, 2025),
+                finder("expenses.sumAmountByUserIdAndYear", EXPENSES_USER_YEAR_MONTH_TAG, 2025),
+                finder("expenses.sumAmountByUserIdAndWeekAndYear", EXPENSES_USER_YEAR_WEEK_CATEGORY, 1, 2025),
+                finder("expenses.sumAmountByUserIdAndYearAndCategoryId", EXPENSES_USER_YEAR_CATEGORY_MONTH, 2025, 1),
+                finder("expenses.sumAmountByUserIdAndMonthAndYearAndCategoryId", EXPENSES_USER_YEAR_CATEGORY_MONTH, 1, 2025, 1),
+                finder("expenses.sumAmountByUserIdAndMonthAndYearAndTagId", EXPENSES_USER_YEAR_MONTH_TAG, 1, 2025, 1),
+                finder("expenses.sumAmountByUserIdAndWeekAndYearAndCategoryId", EXPENSES_USER_YEAR_WEEK_CATEGORY, 1, 2025, 1),
+                finder("expenses.findMonthlyCategoryTotalsByUserIdAndDateBetween", EXPENSES_USER_DATE, FIRST_DAY, LAST_DAY),
+                finder("expenses.findYearlyCategoryTotalsByUserIdAndYearBetween", EXPENSES_USER_YEAR_CATEGORY_MONTH, 2024, 2025),
+                finder("expenses.findPageByUserIdAndDateBetween", EXPENSES_USER_DATE,
+                        FIRST_DAY, LAST_DAY, LAST_DAY, Integer.MAX_VALUE, 50),
+                finder("expenses.findPageByUserIdAndCategoryIdAndDateBetween", EXPENSES_USER_CATEGORY_DATE,
+                        1, FIRST_DAY, LAST_DAY, LAST_DAY, Integer.MAX_VALUE, 50),
+                finder("expenses.findPageByUserIdAndTagIdAndDateBetween", EXPENSES_USER_TAG_DATE,
+                        1, FIRST_DAY, LAST_DAY, LAST_DAY, Integer.MAX_VALUE, 50),
+
+                // IncomeRepository
+                finder("incomes.findByUserIdAndMonthAndYear", INCOMES_USER_YEAR_MONTH_CATEGORY, 1, 2025),
+                finder("incomes.findByUserIdAndYear", INCOMES_USER_YEAR_MONTH_CATEGORY, 2025),
+                finder("incomes.findByUserIdAndMonthAndYearAndCategoryId", INCOMES_USER_YEAR_MONTH_CATEGORY, 1, 2025, 1),
+                finder("incomes.findByUserIdAndWeekAndYear", INCOMES_USER_YEAR_WEEK, 1, 2025),
+                finder("incomes.findByUserId", INCOMES_USER),
+                finder("incomes.findMonthlyTotalsByUserIdAndYearBetween", INCOMES_USER_YEAR_MONTH_CATEGORY, 2024, 2025),
+                finder("incomes.sumAmountByUserIdAndMonthAndYear", INCOMES_USER_YEAR_MONTH_CATEGORY, 1, 2025),
+                finder("incomes.sumAmountByUserIdAndYear", INCOMES_USER_YEAR_MONTH_CATEGORY, 2025),
+                finder("incomes.findPageByUserIdAndDateBetween", INCOMES_USER_DATE,
+                        FIRST_DAY, LAST_DAY, LAST_DAY, Integer.MAX_VALUE, 50),
+
+                // ExpenseDailyRollupRepository
+                finder("rollup.findWeeklyTotalsByUserIdAndYearBetween", ROLLUP_USER_YEAR_WEEK, 2024, 2025),
+                finder("rollup.findRollupByUserId", ROLLUP_PRIMARY),
+                finder("rollup.findDailyCategoryTotalsByUserId", ROLLUP_PRIMARY),
+                finder("rollup.findDailyCategoryTotalsByUserIdAndDateBetween", ROLLUP_PRIMARY, FIRST_DAY, LAST_DAY)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    @DisplayName("Finders seek on their index")
+    public void finderSeeksOnItsIndex(String finder, String expectedIndex, Object[] arguments) throws Exception {
+        String[] repositoryAndMethod = finder.split("\\.");
+        Class<?> repositoryType = REPOSITORIES.get(repositoryAndMethod[0]);
+        Method method = Arrays.stream(repositoryType.getMethods())
+                .filter(candidate -> candidate.getName().equals(repositoryAndMethod[1]))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(finder + " does not exist"));
+        Object repository = applicationContext.getBean(repositoryType);
+
+        Object[] methodArguments = new Object[arguments.length + 1];
+        methodArguments[0] = userId;
+        System.arraycopy(arguments, 0, methodArguments, 1, arguments.length);
+
+        List<String> statements = StatementCounter.record(() -> {
+            try {
+                method.invoke(repository, methodArguments);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(finder + " failed", e);
+            }
+        });
+        assertFalse(statements.isEmpty(), finder + " issued no statement");
+
+        // The finder query is the first statement, the associations of the results may be loaded after it
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statements.get(0),
+                bindings(method, methodArguments));
+
+        assertFalse(plan.isEmpty(), finder + " has no plan");
+        for (Map<String, Object> step : plan) {
+            String accessType = String.valueOf(step.get("type"));
+            String key = (String) step.get("key");
+
+            assertFalse(SCAN_ACCESS_TYPES.contains(accessType), finder + " scans " + step.get("table") + ": " + step);
+            assertEquals(expectedIndex, key, finder + " does not use " + expectedIndex + ": " + step);
+        }
+    }
+
+    private static Arguments finder(String finder, String expectedIndex, Object... arguments) {
+        return Arguments.of(finder, expectedIndex, arguments);
+    }
+
+    /**
+     * The JDBC parameters of the statement: the positional parameters of a @Query in the order they appear
+     * in it, the arguments in their order for a derived finder.
+     */
+    private static Object[] bindings(Method method, Object[] arguments) {
+        List<Object> bindings = new ArrayList<>();
+        Query query = method.getAnnotation(Query.class);
+        if (query != null) {
+            Matcher parameter = POSITIONAL_PARAMETER.matcher(query.value());
+            while (parameter.find()) {
+                bindings.add(toJdbc(arguments[Integer.parseInt(parameter.group(1)) - 1]));
+            }
+        } else {
+            for (Object argument : arguments) {
+                bindings.add(toJdbc(argument));
+            }
+        }
+        return bindings.toArray();
+    }
+
+    /**
+     * UUIDs are stored as BINARY(16), most significant bits first.
+     */
+    private static Object toJdbc(Object argument) {
+        if (argument instanceof UUID uuid) {
+            return ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+        }
+        return argument;
+    }
+}
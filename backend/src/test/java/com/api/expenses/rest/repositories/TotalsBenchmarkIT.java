@@ -0,0 +1,183 @@
+package com.api.expenses.rest.repositories;
+
+import com.api.expenses.rest.controllers.utils.AuthenticationHelper;
+import com.api.expenses.rest.models.Expense;
+import com.api.expenses.rest.models.dtos.BulkCreateResultDto;
+import com.api.expenses.rest.models.dtos.CreateExpenseDto;
+import com.api.expenses.rest.services.ExpenseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Compares summing the expenses of a year in Java against the SQL SUM query for a user with 100k expenses.
+ * Both must give the same total, and the SQL SUM must allocate a small fraction of what loading the expenses does.
+ * The median latency and allocated bytes of both are published as report entries.
+ * It needs the database, so it is not a JMH benchmark of the benchmarks module.
+ * Run with: mvn verify -DskipTests=false -Dbenchmarks=true -Dit.test=TotalsBenchmarkIT
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class TotalsBenchmarkIT {
+
+    private static final int EXPENSES = 100_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+    private static final int YEAR = 2001;
+
+    /**
+     * Loading 100k entities allocates hundreds of megabytes, the SQL SUM a few kilobytes, so the bound is loose.
+     */
+    private static final int MIN_ALLOCATION_RATIO = 100;
+
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseService expenseService;
+    private String bearerToken;
+    private UUID userId;
+    private int categoryId;
+
+    @Autowired
+    public TotalsBenchmarkIT(MockMvc mockMvc, JdbcTemplate jdbcTemplate, ExpenseRepository expenseRepository,
+                             ExpenseService expenseService) {
+        this.mockMvc = mockMvc;
+        this.jdbcTemplate = jdbcTemplate;
+        this.expenseRepository = expenseRepository;
+        this.expenseService = expenseService;
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        bearerToken = AuthenticationHelper.loginUser(mockMvc, Optional.of(
+                        "coding.tamalito@gmail.com"),
+                Optional.empty(),
+                "123456"
+        );
+
+        String categoryToAdd = new String(Files.readAllBytes(Path.of("src/test/resources/expenses/category.json")));
+        ResultActions result = mockMvc.perform(put("/category/expense/create")
+                .header("Authorization", bearerToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(categoryToAdd)
+        ).andExpect(status().isOk());
+        categoryId = Integer.parseInt(result.andReturn().getResponse().getContentAsString());
+
+        byte[] userIdBytes = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", byte[].class,
+                "coding.tamalito@gmail.com");
+        ByteBuffer buffer = ByteBuffer.wrap(userIdBytes);
+        userId = new UUID(buffer.getLong(), buffer.getLong());
+
+        // The expenses are spread over the days of a year nobody else uses, and saved in bulk like the
+        // bulk endpoint does, so the daily rollup and the month totals are kept up to date
+        LocalDate firstDay = LocalDate.of(YEAR, 1, 1);
+        List<CreateExpenseDto> expenses = new ArrayList<>(ExpenseService.MAX_BULK_SIZE);
+        for (int i = 0; i < EXPENSES; i++) {
+            expenses.add(new CreateExpenseDto(categoryId, (i % 10_000) / 100f, 1,
+                    Date.valueOf(firstDay.plusDays(i % 365)), "Benchmark expense " + i, Optional.empty()));
+            if (expenses.size() == ExpenseService.MAX_BULK_SIZE) {
+                saveExpenses(expenses);
+                expenses.clear();
+            }
+        }
+        saveExpenses(expenses);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        // The category only holds the expenses of the test, its rollup rows are exactly theirs
+        jdbcTemplate.update("DELETE FROM expenses WHERE category_id = ?", categoryId);
+        jdbcTemplate.update("DELETE FROM expense_daily_rollup WHERE category_id = ?", categoryId);
+
+        // The month totals of the category are deleted with it
+        mockMvc.perform(delete("/category/expense/delete/" + categoryId)
+                .header("Authorization", bearerToken)
+        ).andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Total spent on a year - Java sum vs SQL SUM")
+    public void totalSpentOnAYear(TestReporter reporter) {
+        Measurement javaSum = measure(() -> {
+            float total = 0;
+            for (Expense expense : expenseRepository.findByUserIdAndYear(userId, YEAR)) {
+                total += expense.getAmount();
+            }
+            return total;
+        });
+        Measurement sqlSum = measure(() -> (float) expenseRepository.sumAmountByUserIdAndYear(userId, YEAR));
+
+        reporter.publishEntry("javaSum", javaSum.toString());
+        reporter.publishEntry("sqlSum", sqlSum.toString());
+
+        // Adding 100k floats one by one drifts, the SQL SUM is accumulated in double precision
+        assertEquals(sqlSum.total(), javaSum.total(), sqlSum.total() * 1e-2);
+        assertTrue(sqlSum.allocatedBytes() * MIN_ALLOCATION_RATIO < javaSum.allocatedBytes(),
+                "The SQL SUM allocated " + sqlSum.allocatedBytes() + " bytes, the Java sum " + javaSum.allocatedBytes());
+    }
+
+    private void saveExpenses(List<CreateExpenseDto> expenses) throws Exception {
+        BulkCreateResultDto result = expenseService.saveExpenses(expenses, userId);
+        assertEquals(expenses.size(), result.created());
+    }
+
+    /**
+     * Runs the supplier a few times to warm up, then returns the median latency and the median bytes
+     * allocated by this thread over the measured runs.
+     */
+    private static Measurement measure(Supplier<Float> supplier) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        float total = 0;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            total = supplier.get();
+        }
+
+        long[] nanos = new long[MEASURED_RUNS];
+        long[] allocatedBytes = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            total = supplier.get();
+            nanos[i] = System.nanoTime() - start;
+            allocatedBytes[i] = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(allocatedBytes);
+
+        return new Measurement(nanos[MEASURED_RUNS / 2] / 1_000_000d, allocatedBytes[MEASURED_RUNS / 2], total);
+    }
+
+    private record Measurement(double medianMillis, long allocatedBytes, float total) {}
+}
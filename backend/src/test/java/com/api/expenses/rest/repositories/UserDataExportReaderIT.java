@@ -0,0 +1,56 @@
+package com.api.expenses.rest.repositories;
+
+import com.mysql.cj.jdbc.result.ResultSetInternalMethods;
+import com.mysql.cj.protocol.a.result.ResultsetRowsStreaming;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the rows of the export are streamed by the driver and not buffered, whatever the datasource URL.
+ */
+@SpringBootTest
+public class UserDataExportReaderIT {
+
+    private final UserDataExportReader userDataExportReader;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserDataExportReaderIT(UserDataExportReader userDataExportReader, JdbcTemplate jdbcTemplate) {
+        this.userDataExportReader = userDataExportReader;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Test
+    @DisplayName("Every record of the export is read from a streamed result set")
+    public void rowsAreStreamed() {
+        byte[] userIdBytes = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", byte[].class,
+                "coding.tamalito@gmail.com");
+        ByteBuffer buffer = ByteBuffer.wrap(userIdBytes);
+        UUID userId = new UUID(buffer.getLong(), buffer.getLong());
+
+        Map<String, Integer> streamedRows = new HashMap<>();
+        userDataExportReader.readUserData(userId, (type, row) -> {
+            assertEquals(ResultSet.TYPE_FORWARD_ONLY, row.getType());
+            assertEquals(ResultSet.CONCUR_READ_ONLY, row.getConcurrency());
+            assertEquals(UserDataExportReader.STREAMING_FETCH_SIZE, row.getStatement().getFetchSize());
+            // A buffered result set holds all its rows in a ResultsetRowsStatic
+            assertInstanceOf(ResultsetRowsStreaming.class, row.unwrap(ResultSetInternalMethods.class).getRows(),
+                    "The " + type + " rows are not streamed");
+            streamedRows.merge(type, 1, Integer::sum);
+        });
+
+        assertEquals(1, streamedRows.get("user"));
+        assertTrue(streamedRows.get("currency") > 0);
+    }
+}
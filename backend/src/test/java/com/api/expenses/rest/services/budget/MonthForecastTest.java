@@ -0,0 +1,91 @@
+package com.api.expenses.rest.services.budget;
+
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetForecastDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MonthForecastTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 4);
+    private static final LocalDate TODAY = MONTH.atDay(10);
+    private static final float DELTA = 1e-3f;
+
+    @Test
+    @DisplayName("Forecast - The current month blends the run rate with the spending of the previous months")
+    public void currentMonthBlendsRunRateAndHistory() {
+        ExpenseCategory groceries = category(1, "Groceries", 150);
+        ExpenseCategory transport = category(2, "Transport", 200);
+        ExpenseCategory unbudgeted = category(3, "Unbudgeted", 0);
+        MonthForecast forecast = new MonthForecast(MONTH, TODAY, List.of(groceries, transport, unbudgeted));
+
+        for (int day = 1; day <= TODAY.getDayOfMonth(); day++) {
+            forecast.add(groceries.getId(), MONTH.atDay(day), 10);
+            forecast.add(transport.getId(), MONTH.atDay(day), 5);
+            forecast.add(unbudgeted.getId(), MONTH.atDay(day), 100);
+        }
+        // Groceries spent 30 on the 20th of each of the three previous months, transport has no history
+        for (int month = 1; month <= MonthForecast.HISTORY_MONTHS; month++) {
+            forecast.add(groceries.getId(), MONTH.minusMonths(month).atDay(20), 30);
+        }
+
+        BudgetForecastDto dto = forecast.toDto();
+
+        assertEquals(4, dto.month());
+        assertEquals(2025, dto.year());
+        assertEquals(10, dto.daysElapsed());
+        assertEquals(3, dto.categories().size());
+
+        // A third of the month is elapsed: every remaining day is a third of the run rate of 10 and two thirds
+        // of the history, which is 30 on the 20th and nothing on the other days
+        BudgetForecastDto.CategoryForecastDto groceriesForecast = dto.categories().get(1);
+        assertEquals(groceries.getId(), groceriesForecast.categoryId());
+        assertEquals(100f, groceriesForecast.spent(), DELTA);
+        assertEquals(100f + 20 * 10 / 3f + 2 * 30 / 3f, groceriesForecast.projectedTotal(), DELTA);
+        // 130 on the 19th, the history of the 20th takes it over the budget of 150
+        assertEquals(MONTH.atDay(20), groceriesForecast.projectedOverrunDate());
+
+        // Without history the remaining days are projected at the run rate
+        BudgetForecastDto.CategoryForecastDto transportForecast = dto.categories().get(2);
+        assertEquals(50f, transportForecast.spent(), DELTA);
+        assertEquals(150f, transportForecast.projectedTotal(), DELTA);
+        assertNull(transportForecast.projectedOverrunDate());
+
+        BudgetForecastDto.CategoryForecastDto allCategories = dto.categories().get(0);
+        assertEquals(MonthBurndown.ALL_CATEGORIES_ID, allCategories.categoryId());
+        assertEquals(350f, allCategories.budget(), DELTA);
+        assertEquals(150f, allCategories.spent(), DELTA);
+        assertEquals(groceriesForecast.projectedTotal() + transportForecast.projectedTotal(),
+                allCategories.projectedTotal(), DELTA);
+    }
+
+    @Test
+    @DisplayName("Forecast - A past month is not projected")
+    public void pastMonthIsActualSpending() {
+        ExpenseCategory groceries = category(1, "Groceries", 150);
+        MonthForecast forecast = new MonthForecast(MONTH, MONTH.plusMonths(1).atDay(1), List.of(groceries));
+        forecast.add(groceries.getId(), MONTH.atDay(3), 80);
+        forecast.add(groceries.getId(), MONTH.atDay(28), 90);
+
+        BudgetForecastDto.CategoryForecastDto groceriesForecast = forecast.toDto().categories().get(1);
+
+        assertEquals(170f, groceriesForecast.spent(), DELTA);
+        assertEquals(170f, groceriesForecast.projectedTotal(), DELTA);
+        assertEquals(MONTH.atDay(28), groceriesForecast.projectedOverrunDate());
+    }
+
+    private static ExpenseCategory category(int id, String name, float budget) {
+        ExpenseCategory category = new ExpenseCategory();
+        category.setId(id);
+        category.setName(name);
+        category.setBudget(budget);
+        return category;
+    }
+}
@@ -0,0 +1,56 @@
+package com.api.expenses.rest.services.generator;
+
+import com.api.expenses.rest.models.Currency;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class SyntheticDataGeneratorTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+    private static final int TRANSACTIONS = 2000;
+    private static final Currency CURRENCY = new Currency(0, "USD", "USD", "USD");
+
+    @Test
+    @DisplayName("Generator - The same seed and dates generate the same records")
+    public void sameSeedGeneratesSameRecords() {
+        List<ObjectNode> first = generate(42);
+        List<ObjectNode> second = generate(42);
+
+        assertFalse(first.isEmpty());
+        assertEquals(first, second);
+        // Iterating the same generator again starts over with the same records
+        SyntheticDataGenerator generator = generator(42);
+        assertEquals(records(generator), records(generator));
+    }
+
+    @Test
+    @DisplayName("Generator - Another seed generates other records")
+    public void otherSeedGeneratesOtherRecords() {
+        assertNotEquals(generate(42), generate(43));
+    }
+
+    private static List<ObjectNode> generate(long seed) {
+        return records(generator(seed));
+    }
+
+    private static SyntheticDataGenerator generator(long seed) {
+        return new SyntheticDataGenerator(new SyntheticDataGenerator.Settings(
+                seed, FIRST_DAY, LAST_DAY, TRANSACTIONS, CURRENCY));
+    }
+
+    private static List<ObjectNode> records(SyntheticDataGenerator generator) {
+        List<ObjectNode> records = new ArrayList<>();
+        generator.forEach(records::add);
+        return records;
+    }
+}
@@ -0,0 +1,23 @@
+package com.api.expenses.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result reports the allocation rate
+ * (gc.alloc.rate) and the bytes allocated per operation (gc.alloc.rate.norm).
+ * Takes the JMH command line options, e.g. to run one benchmark with one size:
+ * java -jar target/benchmarks.jar BudgetBurndownBenchmark -p expenses=100000 -rf json
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
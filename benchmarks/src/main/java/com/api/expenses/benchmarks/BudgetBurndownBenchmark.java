@@ -0,0 +1,50 @@
+package com.api.expenses.benchmarks;
+
+import com.api.expenses.rest.models.Expense;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetBurndownDto;
+import com.api.expenses.rest.services.BudgetService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The burn-down of a month computed from its expenses, without the queries that load them.
+ * The burn-down computed from the grouped daily totals does not depend on the number of expenses, it is
+ * measured by {@link BudgetDailyTotalsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BudgetBurndownBenchmark {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int expenses;
+
+    @Param({"20"})
+    int categories;
+
+    private BudgetService budgetService;
+    private List<ExpenseCategory> expenseCategories;
+    private List<Expense> monthlyExpenses;
+
+    @Setup
+    public void setUp() {
+        // The overload that takes the loaded data does not use the services
+        budgetService = new BudgetService(null, null, null, null);
+        expenseCategories = SyntheticExpenses.categories(categories);
+        monthlyExpenses = SyntheticExpenses.expensesOfMonth(MONTH, expenses, categories);
+    }
+
+    @Benchmark
+    public BudgetBurndownDto burndown() {
+        return budgetService.getBudgetBurndown(expenseCategories, monthlyExpenses, MONTH.getMonthValue(), MONTH.getYear());
+    }
+}
@@ -0,0 +1,61 @@
+package com.api.expenses.benchmarks;
+
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.dtos.BudgetForecastDto;
+import com.api.expenses.rest.models.dtos.CompactBudgetBurndownDto;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+import com.api.expenses.rest.services.budget.MonthBurndown;
+import com.api.expenses.rest.services.budget.MonthForecast;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The burn-down of a month computed from the grouped daily totals of the month, one row per day and category
+ * whatever the number of expenses, so only the number of categories is a parameter.
+ * The forecast of the month is computed from the grouped daily totals of the month and of its history months,
+ * half of the month being elapsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BudgetDailyTotalsBenchmark {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+    private static final LocalDate FORECAST_TODAY = MONTH.atDay(15);
+
+    @Param({"20"})
+    int categories;
+
+    private List<ExpenseCategory> expenseCategories;
+    private List<DailyCategoryTotal> dailyTotals;
+    private List<DailyCategoryTotal> forecastDailyTotals;
+
+    @Setup
+    public void setUp() {
+        expenseCategories = SyntheticExpenses.categories(categories);
+        dailyTotals = SyntheticExpenses.dailyCategoryTotals(MONTH.atEndOfMonth(), MONTH.lengthOfMonth(),
+                MONTH.lengthOfMonth() * categories, categories);
+        int forecastDays = (int) ChronoUnit.DAYS.between(MonthForecast.firstHistoryMonth(MONTH).atDay(1),
+                MONTH.atEndOfMonth()) + 1;
+        forecastDailyTotals = SyntheticExpenses.dailyCategoryTotals(MONTH.atEndOfMonth(), forecastDays,
+                forecastDays * categories, categories);
+    }
+
+    @Benchmark
+    public CompactBudgetBurndownDto compactBurndown() {
+        return MonthBurndown.fromDailyTotals(MONTH, expenseCategories, dailyTotals).toCompactDto();
+    }
+
+    @Benchmark
+    public BudgetForecastDto forecast() {
+        return MonthForecast.fromDailyTotals(MONTH, FORECAST_TODAY, expenseCategories, forecastDailyTotals).toDto();
+    }
+}
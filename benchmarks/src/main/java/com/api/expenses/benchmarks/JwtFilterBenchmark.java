@@ -0,0 +1,103 @@
+package com.api.expenses.benchmarks;
+
+import com.api.expenses.rest.filters.JwtFilter;
+import com.api.expenses.rest.models.Role;
+import com.api.expenses.rest.models.User;
+import com.api.expenses.rest.models.UserPrincipal;
+import com.api.expenses.rest.services.JwtService;
+import com.api.expenses.rest.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The requests per second the JwtFilter authenticates and the tokens per second the JwtService verifies.
+ * The authenticated user is always found in the principals cache, as it is for every request of a user but the
+ * first one, so the benchmark measures the token verification and the security context and not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET_KEY =
+            "a7c5e9f2b3d8g1h6j4k0m2n5p8r3s6t9v2w5x8y1z4a7c5e9f2b3d8g1h6j4k0m2n5p8r3s6t9v2w5x8y1z4";
+    private static final long EXPIRATION = 86_400_000;
+
+    private JwtService jwtService;
+    private JwtFilter jwtFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET_KEY, EXPIRATION, new SimpleMeterRegistry());
+        User user = new BenchmarkUser(UUID.randomUUID());
+        token = jwtService.generateToken(user);
+        jwtFilter = new JwtFilter(jwtService, new CachedPrincipals(UserPrincipal.of(user)));
+    }
+
+    @Benchmark
+    public Optional<JwtService.VerifiedToken> verifyToken() {
+        return jwtService.verifyToken(token);
+    }
+
+    /**
+     * Runs a request through the filter, with an empty security context as a new request would have.
+     */
+    @Benchmark
+    public Authentication authenticateRequest() throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/expenses/monthly/1/2025");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /**
+     * A user with an id, as it is once saved.
+     */
+    private static class BenchmarkUser extends User {
+
+        private final UUID id;
+
+        BenchmarkUser(UUID id) {
+            super("benchmark", "password", "benchmark@benchmark.com", Role.USER, null, "profilePicture");
+            this.id = id;
+        }
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+    }
+
+    /**
+     * A principals cache that always hits, the lookups of the filter do not use the services.
+     */
+    private static class CachedPrincipals extends UserService {
+
+        private final UserPrincipal principal;
+
+        CachedPrincipals(UserPrincipal principal) {
+            super(null, null, null, null, new SimpleMeterRegistry());
+            this.principal = principal;
+        }
+
+        @Override
+        public Optional<UserPrincipal> getPrincipalById(UUID id) {
+            return principal.id().equals(id) ? Optional.of(principal) : Optional.empty();
+        }
+    }
+}
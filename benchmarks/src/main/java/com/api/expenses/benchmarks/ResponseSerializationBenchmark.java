@@ -0,0 +1,63 @@
+package com.api.expenses.benchmarks;
+
+import com.api.expenses.rest.models.Expense;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing an expense list response: serialized into a String that is then encoded into the response, as the
+ * controllers did, against written by the ObjectMapper straight to the response stream, as the message
+ * converters do. Both use a mapper built the way Spring builds the one of the message converters, so only
+ * the way the body is written differs. Run with the GC profiler, the bytes allocated per operation are the
+ * result that matters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 1);
+
+    /**
+     * About a month and about a year of expenses of an active user.
+     */
+    @Param({"1000", "20000"})
+    int expenses;
+
+    @Param({"20"})
+    int categories;
+
+    private ObjectMapper objectMapper;
+    private List<Expense> expenseList;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        expenseList = SyntheticExpenses.expensesOfMonth(MONTH, expenses, categories);
+    }
+
+    @Benchmark
+    public int stringBody() throws IOException {
+        byte[] body = objectMapper.writeValueAsString(expenseList).getBytes(StandardCharsets.UTF_8);
+        OutputStream.nullOutputStream().write(body);
+        return body.length;
+    }
+
+    @Benchmark
+    public OutputStream streamedBody() throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        objectMapper.writeValue(out, expenseList);
+        return out;
+    }
+}
@@ -0,0 +1,53 @@
+package com.api.expenses.benchmarks;
+
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+import com.api.expenses.rest.services.statistics.SpendingAggregates;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregates of the statistical summary, built from the rows of the daily per-category scan.
+ * The highest spending day and category are what findHighestSpendingDay and findHighestSpendingCategory
+ * of the StatisticsService read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpendingAggregatesBenchmark {
+
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+    private static final int DAYS = 5 * 365;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int rows;
+
+    @Param({"20"})
+    int categories;
+
+    private List<DailyCategoryTotal> dailyCategoryTotals;
+    private SpendingAggregates spending;
+
+    @Setup
+    public void setUp() {
+        dailyCategoryTotals = SyntheticExpenses.dailyCategoryTotals(LAST_DAY, DAYS, rows, categories);
+        spending = SpendingAggregates.fromDailyCategoryTotals(dailyCategoryTotals);
+    }
+
+    @Benchmark
+    public SpendingAggregates build() {
+        return SpendingAggregates.fromDailyCategoryTotals(dailyCategoryTotals);
+    }
+
+    @Benchmark
+    public void highestSpending(Blackhole blackhole) {
+        blackhole.consume(spending.getHighestSpendingDay());
+        blackhole.consume(spending.getHighestSpendingCategory());
+    }
+}
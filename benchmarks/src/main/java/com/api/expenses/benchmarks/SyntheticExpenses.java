@@ -0,0 +1,109 @@
+package com.api.expenses.benchmarks;
+
+import com.api.expenses.rest.models.Expense;
+import com.api.expenses.rest.models.ExpenseCategory;
+import com.api.expenses.rest.models.projections.DailyCategoryTotal;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.WeekFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded synthetic data, every benchmark run works on the same rows.
+ * Amounts are log-normal: many small expenses and a long tail of large ones.
+ */
+final class SyntheticExpenses {
+
+    static final long SEED = 42L;
+
+    private SyntheticExpenses() {
+    }
+
+    /**
+     * @return the categories with ids 1 to count, every one with a budget
+     */
+    static List<ExpenseCategory> categories(int count) {
+        Random random = new Random(SEED);
+        List<ExpenseCategory> categories = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            ExpenseCategory category = new ExpenseCategory();
+            category.setId(id);
+            category.setName("Category " + id);
+            category.setBudget(100 + random.nextInt(2_000));
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    /**
+     * @return the expenses of a month, spread over its days and over the categories with ids 1 to categories
+     */
+    static List<Expense> expensesOfMonth(YearMonth month, int count, int categories) {
+        Random random = new Random(SEED);
+        List<Expense> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = month.atDay(1 + random.nextInt(month.lengthOfMonth()));
+            Expense expense = new Expense();
+            expense.setId(i + 1);
+            expense.setCategoryId(1 + random.nextInt(categories));
+            expense.setAmount(amount(random));
+            expense.setDate(Date.valueOf(date));
+            expense.setMonth(date.getMonthValue());
+            expense.setYear(date.getYear());
+            expense.setWeek(date.get(WeekFields.ISO.weekOfYear()));
+            expenses.add(expense);
+        }
+        return expenses;
+    }
+
+    /**
+     * @return rows of the daily per-category grouped scan over the days before the last one, a day and category
+     * can repeat as the scan of the rollup never returns them twice but the aggregates must not rely on it
+     */
+    static List<DailyCategoryTotal> dailyCategoryTotals(LocalDate lastDay, int days, int count, int categories) {
+        Random random = new Random(SEED);
+        List<DailyCategoryTotal> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Date date = Date.valueOf(lastDay.minusDays(random.nextInt(days)));
+            rows.add(new Row(date, 1 + random.nextInt(categories), (double) amount(random)));
+        }
+        return rows;
+    }
+
+    private static float amount(Random random) {
+        // Median of about 20, one expense in a hundred is above 200
+        return Math.round(Math.exp(3 + random.nextGaussian()) * 100) / 100f;
+    }
+
+    private static final class Row implements DailyCategoryTotal {
+
+        private final Date date;
+        private final Integer categoryId;
+        private final Double total;
+
+        private Row(Date date, Integer categoryId, Double total) {
+            this.date = date;
+            this.categoryId = categoryId;
+            this.total = total;
+        }
+
+        @Override
+        public Date getDate() {
+            return date;
+        }
+
+        @Override
+        public Integer getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public Double getTotal() {
+            return total;
+        }
+    }
+}
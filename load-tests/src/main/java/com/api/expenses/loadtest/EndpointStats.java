@@ -0,0 +1,54 @@
+package com.api.expenses.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies and errors of one endpoint, recorded by every session at the same time.
+ */
+class EndpointStats {
+
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private final String name;
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY, 3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean error) {
+        latencies.recordValue(Math.min(nanos, MAX_LATENCY));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    void reset() {
+        latencies.reset();
+        errors.reset();
+    }
+
+    /**
+     * @param seconds the duration of the recording
+     */
+    LoadTestResult.EndpointResult result(double seconds) {
+        return new LoadTestResult.EndpointResult(
+                name,
+                latencies.getTotalCount(),
+                errors.sum(),
+                latencies.getTotalCount() / seconds,
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(95)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
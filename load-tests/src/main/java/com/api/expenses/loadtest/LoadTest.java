@@ -0,0 +1,127 @@
+package com.api.expenses.loadtest;
+
+import com.api.expenses.ExpensesBackendApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of the REST API as a whole. It starts the application on a random port in this process, runs
+ * concurrent user sessions against it (see UserSession) and reports the p50, p95 and p99 latency and the
+ * throughput of every endpoint of the session script, on the console and as JSON.
+ * <p>
+ * Every user starts a session at a fixed interval, and a session that starts late records the delay in the
+ * latency of its login (see UserSession), so a slow server is not hidden by fewer requests being sent. The
+ * interval must be longer than a session at the expected load, otherwise the sessions run back to back and the
+ * login latencies grow with the backlog.
+ * <p>
+ * The application uses the database of its configuration, e.g. a local mysqld, and any other argument is passed
+ * to it. Every run signs up new users, so use a database that only holds test data:
+ * mvn compile exec:java -Dexec.args="--users=20 --interval=1000 --warmup=10 --duration=60 --output=results.json
+ * --spring.datasource.url=jdbc:mysql://localhost:3306/expenses_load?rewriteBatchedStatements=true"
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> applicationArguments = new ArrayList<>();
+        applicationArguments.add("--server.port=0");
+        applicationArguments.addAll(options.applicationArguments());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExpensesBackendApplication.class)
+                .run(applicationArguments.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTestResult result = run(options, "http://localhost:" + port);
+            print(result);
+
+            ObjectMapper objectMapper = JsonMapper.builder()
+                    .findAndAddModules()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .build();
+            if (options.output().getParent() != null) {
+                Files.createDirectories(options.output().getParent());
+            }
+            objectMapper.writeValue(options.output().toFile(), result);
+            System.out.println("Results written to " + options.output().toAbsolutePath());
+        }
+    }
+
+    private static LoadTestResult run(LoadTestOptions options, String baseUrl) throws InterruptedException {
+        Map<UserSession.Step, EndpointStats> stats = new EnumMap<>(UserSession.Step.class);
+        for (UserSession.Step step : UserSession.Step.values()) {
+            stats.put(step, new EndpointStats(step.endpoint));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder sessions = new LongAdder();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // The users of every run are new, the setup of a session must not find the ones of a previous run
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(options.users());
+        for (int i = 0; i < options.users(); i++) {
+            // A session that cannot be set up fails with its exception on the console
+            executor.execute(new UserSession(client, objectMapper, baseUrl, "load-" + run + "-" + i, stats, running,
+                    sessions, options.interval(), i));
+        }
+        executor.shutdown();
+
+        Thread.sleep(options.warmup().toMillis());
+        stats.values().forEach(EndpointStats::reset);
+        sessions.reset();
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+
+        Thread.sleep(options.duration().toMillis());
+        running.set(false);
+        // The requests in flight are still recorded, so they are part of the duration
+        int unfinishedSessions = 0;
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            unfinishedSessions = executor.getActiveCount();
+            executor.shutdownNow();
+            System.err.printf("WARNING: %d sessions did not finish within a minute of the end of the run, " +
+                    "the results miss their requests in flight%n", unfinishedSessions);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<LoadTestResult.EndpointResult> endpoints = new ArrayList<>();
+        for (EndpointStats endpointStats : stats.values()) {
+            endpoints.add(endpointStats.result(seconds));
+        }
+        return new LoadTestResult(startedAt, options.users(), options.interval().toMillis(), seconds, sessions.sum(),
+                unfinishedSessions, endpoints);
+    }
+
+    private static void print(LoadTestResult result) {
+        System.out.printf("%d users starting a session every %d ms for %.1f s, %d sessions%n", result.users(),
+                result.intervalMillis(), result.seconds(), result.sessions());
+        if (result.unfinishedSessions() > 0) {
+            System.out.printf("%d sessions did not finish, their requests in flight are missing%n",
+                    result.unfinishedSessions());
+        }
+        System.out.printf("%-32s %10s %8s %10s %10s %10s %10s%n", "endpoint", "requests", "errors", "req/s", "p50 ms",
+                "p95 ms", "p99 ms");
+        for (LoadTestResult.EndpointResult endpoint : result.endpoints()) {
+            System.out.printf("%-32s %10d %8d %10.1f %10.2f %10.2f %10.2f%n", endpoint.endpoint(), endpoint.requests(),
+                    endpoint.errors(), endpoint.throughput(), endpoint.p50Millis(), endpoint.p95Millis(),
+                    endpoint.p99Millis());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.api.expenses.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The options of a load test run, every other argument is passed to the application.
+ *
+ * @param users the number of concurrent user sessions
+ * @param interval how often every user starts a session, a slow session delays the next ones of its user
+ * @param warmup how long the sessions run before the latencies are recorded
+ * @param duration how long the latencies are recorded
+ * @param output the JSON file the results are written to
+ * @param applicationArguments the arguments of the application, e.g. its datasource
+ */
+record LoadTestOptions(int users, Duration interval, Duration warmup, Duration duration, Path output,
+                       List<String> applicationArguments) {
+
+    static LoadTestOptions parse(String[] args) {
+        int users = 20;
+        Duration interval = Duration.ofSeconds(1);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Path output = Path.of("target", "load-test-results.json");
+        List<String> applicationArguments = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--users=")) {
+                users = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--interval=")) {
+                interval = Duration.ofMillis(Long.parseLong(value(arg)));
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Duration.ofSeconds(Long.parseLong(value(arg)));
+            } else if (arg.startsWith("--duration=")) {
+                duration = Duration.ofSeconds(Long.parseLong(value(arg)));
+            } else if (arg.startsWith("--output=")) {
+                output = Path.of(value(arg));
+            } else {
+                applicationArguments.add(arg);
+            }
+        }
+        return new LoadTestOptions(users, interval, warmup, duration, output, applicationArguments);
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+}
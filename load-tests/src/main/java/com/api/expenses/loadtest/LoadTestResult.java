@@ -0,0 +1,26 @@
+package com.api.expenses.loadtest;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The results of a run, written as JSON so that runs can be compared.
+ *
+ * @param startedAt when the recording started
+ * @param users the number of concurrent user sessions
+ * @param intervalMillis how often every user started a session
+ * @param seconds how long the latencies were recorded
+ * @param sessions the sessions completed while recording
+ * @param unfinishedSessions the sessions still running when the results were collected, their requests in
+ *                           flight are missing from the results
+ * @param endpoints the results of every endpoint, in the order of the session script
+ */
+record LoadTestResult(Instant startedAt, int users, long intervalMillis, double seconds, long sessions,
+                      int unfinishedSessions, List<EndpointResult> endpoints) {
+
+    /**
+     * @param throughput the requests per second
+     */
+    record EndpointResult(String endpoint, long requests, long errors, double throughput,
+                          double p50Millis, double p95Millis, double p99Millis, double maxMillis) {}
+}
@@ -0,0 +1,177 @@
+package com.api.expenses.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A user that signs up and creates an expense category, then repeats the session script until the run stops:
+ * login, the dashboard of the current month, add an expense and the statistical summary.
+ * Only the requests of the script are recorded.
+ * <p>
+ * The sessions start at a fixed rate, one every interval, whatever the latency of the previous ones. When a session
+ * starts late because the previous one was slow, the login latency is measured from when it should have been sent,
+ * so the waiting is recorded instead of being omitted. The later requests of a session wait for the previous one,
+ * like a user does, their latency is measured from when they are sent.
+ */
+class UserSession implements Runnable {
+
+    /**
+     * The requests of the session script, in their order.
+     */
+    enum Step {
+        LOGIN("POST /auth/login"),
+        DASHBOARD("GET /dashboard/{month}/{year}"),
+        ADD_EXPENSE("POST /expenses/add"),
+        STATISTICS_SUMMARY("GET /statistics/summary");
+
+        final String endpoint;
+
+        Step(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String PASSWORD = "load-test";
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String username;
+    private final Map<Step, EndpointStats> stats;
+    private final AtomicBoolean running;
+    private final LongAdder sessions;
+    private final long intervalNanos;
+    private final Random random;
+
+    UserSession(HttpClient client, ObjectMapper objectMapper, String baseUrl, String username,
+                Map<Step, EndpointStats> stats, AtomicBoolean running, LongAdder sessions, Duration interval,
+                long seed) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.stats = stats;
+        this.running = running;
+        this.sessions = sessions;
+        this.intervalNanos = interval.toNanos();
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void run() {
+        try {
+            String email = username + "@example.com";
+            send(post("/auth/signup", "{\"username\": \"" + username + "\", \"email\": \"" + email +
+                    "\", \"password\": \"" + PASSWORD + "\", \"confirmPassword\": \"" + PASSWORD + "\"}", null), 200);
+            String loginJson = "{\"email\": \"" + email + "\", \"password\": \"" + PASSWORD + "\"}";
+            String token = accessToken(send(post("/auth/login", loginJson, null), 200));
+            String categoryId = send(HttpRequest.newBuilder(uri("/category/expense/create"))
+                    .timeout(TIMEOUT)
+                    .header("Authorization", token)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(
+                            "{\"name\": \"Load test\", \"description\": \"Load test\", \"budget\": 1000}"))
+                    .build(), 200).body();
+            // The expenses are in the currency of the user, the one the application gives at sign up
+            int currencyId = objectMapper.readTree(send(get("/user/data", token), 200).body())
+                    .get("currencyId").asInt();
+
+            long sessionStart = System.nanoTime();
+            while (running.get()) {
+                long wait = sessionStart - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                HttpResponse<String> login = record(Step.LOGIN, post("/auth/login", loginJson, null), sessionStart);
+                sessionStart += intervalNanos;
+                if (login == null || login.statusCode() != 200) {
+                    continue;
+                }
+                token = accessToken(login);
+
+                LocalDate today = LocalDate.now();
+                record(Step.DASHBOARD, get("/dashboard/" + today.getMonthValue() + "/" + today.getYear(), token));
+                String amount = String.valueOf(1 + random.nextInt(20_000) / 100f);
+                record(Step.ADD_EXPENSE, post("/expenses/add", "{\"categoryId\": " + categoryId + ", \"amount\": " + amount +
+                        ", \"currencyId\": " + currencyId + ", \"date\": \"" + today +
+                        "\", \"description\": \"Load test\"}", token));
+                record(Step.STATISTICS_SUMMARY, get("/statistics/summary", token));
+                sessions.increment();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The session of " + username + " could not be set up", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpResponse<String> record(Step step, HttpRequest request) throws InterruptedException {
+        return record(step, request, System.nanoTime());
+    }
+
+    /**
+     * Sends a request of the script and records its latency, a failed request is recorded as an error.
+     *
+     * @param start when the request should have been sent, the latency is measured from it
+     * @return the response, or null if it failed
+     */
+    private HttpResponse<String> record(Step step, HttpRequest request, long start) throws InterruptedException {
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            stats.get(step).record(System.nanoTime() - start, response.statusCode() >= 400);
+            return response;
+        } catch (IOException e) {
+            stats.get(step).record(System.nanoTime() - start, true);
+            return null;
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IOException(request.method() + " " + request.uri() + " returned " + response.statusCode() +
+                    ": " + response.body());
+        }
+        return response;
+    }
+
+    private String accessToken(HttpResponse<String> login) throws IOException {
+        return "Bearer " + objectMapper.readTree(login.body()).get("accessToken").asText();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(TIMEOUT)
+                .header("Authorization", token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", token);
+        }
+        return builder.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}